@@ -0,0 +1,54 @@
+import org.jetbrains.kotlin.config.KotlinCompilerVersion
+
+plugins {
+    id("com.android.library")
+    kotlin("android")
+    id("androidx.benchmark")
+}
+
+description = "Microbenchmarks of the Schibsted Account SDK's hot paths. Not published"
+
+repositories {
+    google()
+    mavenCentral()
+    jcenter()
+}
+
+android {
+    buildToolsVersion("29.0.2")
+    compileSdkVersion(28)
+
+    defaultConfig {
+        minSdkVersion(21)
+        targetSdkVersion(28)
+        testInstrumentationRunner = "androidx.benchmark.junit4.AndroidBenchmarkRunner"
+    }
+
+    // Benchmarks must not run against a debuggable build
+    testBuildType = "release"
+    buildTypes {
+        getByName("release") {
+            isDefault = true
+        }
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_1_8
+        targetCompatibility = JavaVersion.VERSION_1_8
+    }
+
+    lintOptions {
+        isAbortOnError = false
+    }
+}
+
+dependencies {
+    androidTestImplementation(kotlin("stdlib-jdk7", KotlinCompilerVersion.VERSION))
+    androidTestImplementation(project(":core"))
+    androidTestImplementation(project(":ui"))
+    androidTestImplementation("androidx.benchmark:benchmark-junit4:${Constants.Versions.BENCHMARK}")
+    androidTestImplementation("androidx.test:runner:${Constants.Versions.TEST_RUNNER}")
+    androidTestImplementation("androidx.test.ext:junit:1.1.1")
+    androidTestImplementation("com.squareup.retrofit2:retrofit:${Constants.Versions.RETROFIT}")
+    androidTestImplementation("com.squareup.okhttp3:okhttp:${Constants.Versions.OKHTTP}")
+}
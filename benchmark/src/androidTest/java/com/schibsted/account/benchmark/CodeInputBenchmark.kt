@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.benchmark
+
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.view.ContextThemeWrapper
+import android.view.View
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.annotation.UiThreadTest
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import com.schibsted.account.ui.ui.component.CodeInputView
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Measures the code entry of the verification screen: creating the widget, and a keystroke followed by the measure,
+ * layout and draw passes it causes.
+ */
+@RunWith(AndroidJUnit4::class)
+class CodeInputBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val context = ContextThemeWrapper(InstrumentationRegistry.getInstrumentation().targetContext,
+            com.google.android.material.R.style.Theme_MaterialComponents_Light)
+
+    @Test
+    @UiThreadTest
+    fun create() {
+        benchmarkRule.measureRepeated {
+            CodeInputView(context)
+        }
+    }
+
+    @Test
+    @UiThreadTest
+    fun typeDigit() {
+        val view = CodeInputView(context)
+        val canvas = Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888))
+        val widthSpec = View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY)
+        val heightSpec = View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.AT_MOST)
+
+        benchmarkRule.measureRepeated {
+            view.typeDigit('1')
+            view.measure(widthSpec, heightSpec)
+            view.layout(0, 0, view.measuredWidth, view.measuredHeight)
+            view.draw(canvas)
+        }
+    }
+
+    companion object {
+        private const val WIDTH = 1080
+        private const val HEIGHT = 400
+    }
+}
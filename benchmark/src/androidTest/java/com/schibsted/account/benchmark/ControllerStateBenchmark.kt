@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.benchmark
+
+import android.os.Parcel
+import android.util.Log
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.google.gson.JsonArray
+import com.schibsted.account.engine.controller.ControllerTestAccess
+import com.schibsted.account.engine.controller.LoginController
+import com.schibsted.account.engine.input.Credentials
+import com.schibsted.account.engine.input.Identifier
+import com.schibsted.account.engine.step.Step
+import com.schibsted.account.engine.step.StepLoginIdentify
+import com.schibsted.account.network.response.AgreementLinksResponse
+import com.schibsted.account.network.response.TokenResponse
+import com.schibsted.account.session.User
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Measures saving and restoring a login controller which has identified a user, as done on every configuration change.
+ * [writeStepsInFull] writes the steps the way the controller used to, for comparison. The size of the Parcels is
+ * logged under the tag of this class.
+ */
+@RunWith(AndroidJUnit4::class)
+class ControllerStateBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val controller = LoginController(true).also {
+        val token = TokenResponse(ParsingBenchmark.ID_TOKEN, "11099464", "accessToken", "refreshToken", "openid", "Bearer", 3600)
+        val credentials = Credentials(Identifier(Identifier.IdentifierType.EMAIL, "user@example.com"), "password", true)
+        val summary = JsonArray().apply { add("A summary of the terms, which is shown on the terms screen") }
+        val links = AgreementLinksResponse(false, TERMS_URL, PRIVACY_URL, TERMS_URL, summary, PRIVACY_URL)
+        ControllerTestAccess.pushSteps(it, StepLoginIdentify(credentials, User(token, true), false, setOf("birthday", "names"), links))
+    }
+
+    @Test
+    fun saveAndRestore() {
+        logSize("Compact") { controller.writeToParcel(it, 0) }
+        benchmarkRule.measureRepeated {
+            val parcel = Parcel.obtain()
+            controller.writeToParcel(parcel, 0)
+            parcel.setDataPosition(0)
+            LoginController.createFromParcel(parcel)
+            parcel.recycle()
+        }
+    }
+
+    @Test
+    fun writeStepsInFull() {
+        val steps = ControllerTestAccess.steps(controller)
+        logSize("Full") { it.writeList(steps) }
+        benchmarkRule.measureRepeated {
+            val parcel = Parcel.obtain()
+            parcel.writeList(steps)
+            parcel.setDataPosition(0)
+            parcel.readList(mutableListOf<Step>(), Step::class.java.classLoader)
+            parcel.recycle()
+        }
+    }
+
+    private fun logSize(format: String, write: (Parcel) -> Unit) {
+        val parcel = Parcel.obtain()
+        write(parcel)
+        Log.i(TAG, "$format controller state: ${parcel.dataSize()} bytes")
+        parcel.recycle()
+    }
+
+    companion object {
+        private const val TAG = "ControllerStateBenchmark"
+        private const val TERMS_URL = "https://login.schibsted.com/terms"
+        private const val PRIVACY_URL = "https://login.schibsted.com/privacy"
+    }
+}
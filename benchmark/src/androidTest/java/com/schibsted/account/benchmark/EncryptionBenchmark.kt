@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.schibsted.account.persistence.EncryptionTestAccess
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.security.KeyPairGenerator
+import kotlin.random.Random
+
+/**
+ * Measures the encryption of stored sessions with the platform's JCA providers. The RSA key pair is generated in
+ * software, as the Android key store would dominate the measurements.
+ */
+@RunWith(AndroidJUnit4::class)
+class EncryptionBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val encryptionUtils = EncryptionTestAccess
+    private val keyPair = KeyPairGenerator.getInstance("RSA").apply { initialize(2048) }.generateKeyPair()
+    private val aesKey = encryptionUtils.generateAesKey()
+    private val sessions = Random(0).nextBytes(SESSIONS_SIZE)
+
+    @Test
+    fun aesEncrypt() {
+        benchmarkRule.measureRepeated {
+            encryptionUtils.aesEncrypt(sessions, aesKey)
+        }
+    }
+
+    @Test
+    fun aesDecrypt() {
+        val encrypted = encryptionUtils.aesEncrypt(sessions, aesKey)
+        benchmarkRule.measureRepeated {
+            encryptionUtils.aesDecrypt(encrypted, aesKey)
+        }
+    }
+
+    @Test
+    fun rsaEncryptAesKey() {
+        benchmarkRule.measureRepeated {
+            encryptionUtils.rsaEncrypt(aesKey.encoded, keyPair.public)
+        }
+    }
+
+    @Test
+    fun rsaDecryptAesKey() {
+        val encryptedKey = encryptionUtils.rsaEncrypt(aesKey.encoded, keyPair.public)
+        benchmarkRule.measureRepeated {
+            encryptionUtils.recreateAesKey(encryptionUtils.rsaDecrypt(encryptedKey, keyPair.private))
+        }
+    }
+
+    companion object {
+        // Roughly the size of a handful of serialized sessions
+        private const val SESSIONS_SIZE = 4 * 1024
+    }
+}
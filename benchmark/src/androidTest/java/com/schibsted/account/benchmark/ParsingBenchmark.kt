@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.google.gson.GsonBuilder
+import com.google.gson.reflect.TypeToken
+import com.schibsted.account.ListContainer
+import com.schibsted.account.model.UserId
+import com.schibsted.account.model.error.NetworkError
+import com.schibsted.account.network.response.ApiContainer
+import com.schibsted.account.network.response.ProfileData
+import com.schibsted.account.network.response.Subscription
+import com.schibsted.account.network.response.TokenResponse
+import com.schibsted.account.network.service.BaseNetworkService
+import com.schibsted.account.util.ListDeserializer
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.ResponseBody.Companion.toResponseBody
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import retrofit2.Response
+
+@RunWith(AndroidJUnit4::class)
+class ParsingBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Test
+    fun userIdFromTokenResponse() {
+        val token = TokenResponse(ID_TOKEN, "11099464", "accessToken", "refreshToken", "openid", "Bearer", 3600)
+        benchmarkRule.measureRepeated {
+            UserId.fromTokenResponse(token)
+        }
+    }
+
+    @Test
+    fun networkErrorFromResponse() {
+        benchmarkRule.measureRepeated {
+            // The error body can only be read once
+            val response = runWithTimingDisabled {
+                Response.error<Unit>(400, ERROR_BODY.toResponseBody("application/json".toMediaType()))
+            }
+            NetworkError.fromResponse(response)
+        }
+    }
+
+    @Test
+    fun profileDataDecoding() {
+        val json = javaClass.classLoader!!.getResourceAsStream("profile_data.json").reader().use { it.readText() }
+        val type = object : TypeToken<ApiContainer<ProfileData>>() {}.type
+        val gson = BaseNetworkService.createGson()
+        benchmarkRule.measureRepeated {
+            gson.fromJson<ApiContainer<ProfileData>>(json, type)
+        }
+    }
+
+    @Test
+    fun subscriptionListDeserializer() {
+        val type = object : TypeToken<ListContainer<Subscription>>() {}.type
+        val gson = GsonBuilder().registerTypeAdapter(type, ListDeserializer<Subscription>()).create()
+        val json = (1..SUBSCRIPTIONS).joinToString(",", "{\"data\":{", "}}") { "\"$it\":${subscription(it)}" }
+        benchmarkRule.measureRepeated {
+            gson.fromJson<ListContainer<Subscription>>(json, type)
+        }
+    }
+
+    private fun subscription(id: Int) = """
+        {"subscriptionId":"$id","clientId":"58cff98f17e59686158b4567","userId":"11099464","productId":"${1000 + id}",
+        "startDate":"2020-01-01 00:00:00","expires":"2030-01-01 00:00:00","autoRenew":"1","currency":"NOK",
+        "status":"1","created":"2020-01-01 00:00:00","statusMsg":"Active"}
+    """.trimIndent()
+
+    companion object {
+        private const val SUBSCRIPTIONS = 20
+
+        private const val ERROR_BODY = """{"error":{"code":400,"type":"invalid_grant","description":"Invalid code"}}"""
+
+        internal const val ID_TOKEN = "eyJ0eXAiOiJKV1QiLCJhbGciOiJSUzI1NiIsImtpZCI6ImM3ZjYwMzY5LTgwMzItNDUxYS04NzFkLWI0OGQzMDRhMmIzNSJ9." +
+                "eyJpc3MiOiJodHRwczpcL1wvaWRlbnRpdHktcHJlLnNjaGlic3RlZC5jb21cLyIsImNsYXNzIjoidG9rZW4uSURUb2tlbiIsImV4cCI6MTUzMjUxOTU2NywiaWF0IjoxNTI5OTI3NTY3LCJzdWIiOiJlMDYxNjI3MC0yMDkyLTVlOWQtODU2Yi00OGUwNjVkNDg5OWYiLCJhdWQiOlsiNThjZmY5OGYxN2U1OTY4NjE1OGI0NTY3IiwiaHR0cHM6XC9cL3NlbGZzZXJ2aWNlLmlkZW50aXR5LXByZS5zY2hpYnN0ZWQuY29tXC8iXSwiYXpwIjoiNThjZmY5OGYxN2U1OTY4NjE1OGI0NTY3IiwibGVnYWN5X3VzZXJfaWQiOiIxMTA5OTQ2NCJ9." +
+                "ZzoDH-WQJAsuxZlVWX25nk9zAKc-9N0LGb4rYDM40OjjXQllgyN4NJymMBFCIlUVsJ7Nj4xwEhGLkjxETkiUR1CCuWe6k3LFVX-B3yRUd2HuoNBGzWdWumFlohqYh7gVkDVrRS4MhnF3Ogwcgvb-Zc6CR0i1vL0sIJhheaqYLsiVC7-RFoLUpLEjsvSaDfXZLHZwfU-UAPP3V_tfm5juFGNTTTBaiJ3sfat-MURVLzeGaZdPPCael_LSuVFAIIJWvgv_Oxkg1zjYBuTLS8WaS3WjWc-beml-e0HGYjTSDz1ia3-OK0I0hvDFONTqXhqO3ANUrLblYHF1i3adnDV9RQ"
+    }
+}
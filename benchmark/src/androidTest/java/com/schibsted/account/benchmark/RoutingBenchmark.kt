@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import com.schibsted.account.Routes
+import com.schibsted.account.util.ConfigurationUtils
+import com.schibsted.account.util.DeepLink
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.net.URI
+
+/**
+ * Measures configuration loading and the URLs of the web flows. The configuration is read from the
+ * "assets/schibsted_account.conf" resource of this module.
+ */
+@RunWith(AndroidJUnit4::class)
+class RoutingBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val redirectUri = URI.create("spid-58cff98f17e59686158b4567://login")
+
+    @Test
+    fun parseConfigFile() {
+        benchmarkRule.measureRepeated {
+            ConfigurationUtils.paramsFromAssets()
+        }
+    }
+
+    @Test
+    fun loginUrl() {
+        val context = InstrumentationRegistry.getInstrumentation().targetContext
+        benchmarkRule.measureRepeated {
+            Routes.loginUrl(context, redirectUri, true, listOf("openid", "offline_access"))
+        }
+    }
+
+    @Test
+    fun validateAccountDeepLink() {
+        val uri = URI.create(DeepLink.ValidateAccount.createDeepLinkUri(redirectUri, true).toString() + "&code=4f2b9c1a7e")
+        benchmarkRule.measureRepeated {
+            DeepLink.ValidateAccount(uri)
+        }
+    }
+}
@@ -13,10 +13,15 @@ gradlePlugin {
             id = "shared-configuration"
             implementationClass = "SharedConfigurationPlugin"
         }
+        register("ClientConfigurationPlugin") {
+            id = "client-configuration"
+            implementationClass = "ClientConfigurationPlugin"
+        }
     }
 }
 dependencies {
     implementation("com.android.tools.build:gradle:4.0.0")
     implementation(kotlin("gradle-plugin", "1.3.61"))
     implementation("org.jetbrains.dokka:dokka-android-gradle-plugin:0.9.18")
+    implementation("androidx.benchmark:benchmark-gradle-plugin:1.0.0")
 }
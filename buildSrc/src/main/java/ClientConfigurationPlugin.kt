@@ -0,0 +1,112 @@
+import com.android.build.gradle.AppExtension
+import com.android.build.gradle.LibraryExtension
+import com.android.build.gradle.api.BaseVariant
+import org.gradle.api.DefaultTask
+import org.gradle.api.DomainObjectSet
+import org.gradle.api.Plugin
+import org.gradle.api.Project
+import org.gradle.api.file.ConfigurableFileCollection
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.tasks.InputFiles
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.api.tasks.TaskAction
+import org.gradle.kotlin.dsl.getByType
+import org.gradle.kotlin.dsl.register
+import java.io.File
+
+/**
+ * Generates the client configuration of the SDK from the "schibsted_account.conf" asset at build time, so that the SDK
+ * does not have to read the asset from the APK at runtime. Apply it to the application module which has the asset:
+ * ```
+ * plugins {
+ *     id("com.android.application")
+ *     id("client-configuration")
+ * }
+ * ```
+ * The asset is looked up in the assets directories of each variant. Variants without the asset are left alone, and
+ * the SDK reads the asset at runtime, as before.
+ */
+class ClientConfigurationPlugin : Plugin<Project> {
+
+    override fun apply(target: Project): Unit = target.run {
+        plugins.withId("com.android.application") {
+            configureVariants(extensions.getByType<AppExtension>().applicationVariants)
+        }
+        plugins.withId("com.android.library") {
+            configureVariants(extensions.getByType<LibraryExtension>().libraryVariants)
+        }
+    }
+
+    private fun Project.configureVariants(variants: DomainObjectSet<out BaseVariant>) = variants.all {
+        val variant = this
+        val task = tasks.register<GenerateClientConfigurationTask>("generate${variant.name.capitalize()}ClientConfiguration") {
+            configFiles.from(variant.sourceSets.flatMap { it.assetsDirectories }.map { File(it, CONFIG_FILE_NAME) })
+            outputDir.set(layout.buildDirectory.dir("generated/source/clientConfiguration/${variant.dirName}"))
+        }
+        variant.registerJavaGeneratingTask(task.get(), task.get().outputDir.get().asFile)
+    }
+
+    companion object {
+        const val CONFIG_FILE_NAME = "schibsted_account.conf"
+    }
+}
+
+/**
+ * Writes the key-value pairs of the configuration file as the PARAMS field of
+ * com.schibsted.account.GeneratedClientConfiguration, which is where the SDK looks for it. The file is parsed the way
+ * ConfigurationUtils parses it at runtime. When several source sets have the file, the last one wins, as for assets.
+ */
+open class GenerateClientConfigurationTask : DefaultTask() {
+
+    @get:InputFiles
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    val configFiles: ConfigurableFileCollection = project.objects.fileCollection()
+
+    @get:OutputDirectory
+    val outputDir: DirectoryProperty = project.objects.directoryProperty()
+
+    @TaskAction
+    fun generate() {
+        val output = outputDir.get().asFile
+        output.deleteRecursively()
+
+        val configFile = configFiles.lastOrNull { it.isFile } ?: return
+        val params = parse(configFile)
+
+        val entries = params.entries.joinToString(",\n") { (key, value) -> "            \"${key.escape()}\", \"${value.escape()}\"" }
+        File(output, "com/schibsted/account/GeneratedClientConfiguration.java").apply {
+            parentFile.mkdirs()
+            writeText("""
+                |package com.schibsted.account;
+                |
+                |/**
+                | * Generated from ${configFile.name} at build time. Do not edit.
+                | */
+                |public final class GeneratedClientConfiguration {
+                |    /**
+                |     * The keys and values of the configuration, one after the other
+                |     */
+                |    public static final String[] PARAMS = {
+                |$entries
+                |    };
+                |
+                |    private GeneratedClientConfiguration() {
+                |    }
+                |}
+                |""".trimMargin())
+        }
+    }
+
+    private fun parse(file: File): Map<String, String> = file.readLines(Charsets.UTF_8)
+            .map { it.trim() }
+            .filter { it.isNotEmpty() && !it.startsWith('#') }
+            .map {
+                val parts = it.split(':', limit = 2)
+                check(parts.size == 2) { "Invalid line in $file, it should be <key: value>: $it" }
+                parts[0].trim() to parts[1].trim()
+            }.toMap()
+
+    private fun String.escape(): String = replace("\\", "\\\\").replace("\"", "\\\"")
+}
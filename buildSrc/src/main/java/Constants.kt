@@ -9,6 +9,7 @@ object Constants {
 
     object Versions {
         const val ASSERTJ_CORE = "3.15.0"
+        const val BENCHMARK = "1.0.0"
         const val CONSTRAINT_LAYOUT = "1.1.3"
         const val LIFECYCLE = "2.0.0"
         const val FRAGMENT = "1.2.0"
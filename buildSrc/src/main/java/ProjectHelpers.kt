@@ -15,6 +15,12 @@ import org.jetbrains.dokka.gradle.DokkaTask
 inline val PluginDependenciesSpec.`shared-configuration`: PluginDependencySpec
     get() = id("shared-configuration")
 
+/**
+ * Gradle plugin implemented by [ClientConfigurationPlugin].
+ */
+inline val PluginDependenciesSpec.`client-configuration`: PluginDependencySpec
+    get() = id("client-configuration")
+
 /**
  * The most recent Git tag, extracted either from TRAVIS_TAG (on Travis)
  * or from the most recent tag on a current branch, for example, "v2.3.0".
@@ -4,13 +4,19 @@
 
 package com.schibsted.account.common.lib
 
-import kotlin.properties.Delegates
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicReference
 
 /**
  * Allows to reactively observe value and its changes. Emitted values are guaranteed
  * to be distinct.
+ *
+ * The value can be changed and observed from any thread. Observers are notified on the thread which changes the
+ * value, or on the [executor] if there is one. Changes made while a notification is pending on the [executor] are
+ * coalesced, so that observers are only notified of the latest value.
  */
-class ObservableField<T>(initialValue: T) {
+class ObservableField<T> @JvmOverloads constructor(initialValue: T, private val executor: Executor? = null) {
 
     /**
      * Interface for value observers.
@@ -32,27 +38,64 @@ class ObservableField<T>(initialValue: T) {
      */
     interface Single<T> : Observer<T>
 
-    private val listeners = mutableSetOf<Observer<T>>()
+    private val lock = Any()
+    private val noObservers: Array<Observer<T>> = emptyArray()
+
+    /**
+     * The observers are kept in copy-on-write arrays, so that notifying them takes no allocation or lock. Singles are
+     * kept apart, so that they can all be removed at once by swapping their array.
+     */
+    @Volatile
+    private var observers = noObservers
+    private val singles = AtomicReference(noObservers)
+
+    private val current = AtomicReference(initialValue)
+    private val isNotificationPending = AtomicBoolean()
+    @Volatile
+    private var lastNotified: T = initialValue
 
     /**
      * Value to be observed.
      */
-    var value: T by Delegates.observable(initialValue,
-            { _, oldValue, newValue ->
-                if (newValue != oldValue) {
-                    listeners.forEach { it.onChange(newValue) }
-                    listeners.removeAll { it is Single }
+    var value: T
+        get() = current.get()
+        set(newValue) {
+            val oldValue = current.getAndSet(newValue)
+            if (newValue == oldValue) return
+
+            if (executor == null) {
+                notifyObservers(newValue)
+            } else if (isNotificationPending.compareAndSet(false, true)) {
+                executor.execute {
+                    isNotificationPending.set(false)
+                    val latest = current.get()
+                    if (latest != lastNotified) {
+                        lastNotified = latest
+                        notifyObservers(latest)
+                    }
                 }
-            })
+            }
+        }
 
     /**
      * Adds an observer for the value. If `notifyInitially = true`, it will be called immediately
      * with the currently existing value.
      */
     fun addListener(listener: Observer<T>, notifyInitially: Boolean = false) {
-        listeners.add(listener)
+        if (listener is Single) {
+            // The singles may be taken for a notification at any time, so they are only replaced if they are unchanged
+            while (true) {
+                val current = singles.get()
+                if (listener in current || singles.compareAndSet(current, current + listener)) break
+            }
+        } else {
+            synchronized(lock) {
+                if (listener !in observers) observers += listener
+            }
+        }
         if (notifyInitially) {
-            listener.onChange(value)
+            val initial = value
+            executor?.execute { listener.onChange(initial) } ?: listener.onChange(initial)
         }
     }
 
@@ -81,11 +124,34 @@ class ObservableField<T>(initialValue: T) {
      * Removes an observer. Removed observers will not be notified any more.
      */
     fun removeListener(listener: Observer<T>) {
-        listeners.remove(listener)
+        if (listener is Single) {
+            while (true) {
+                val current = singles.get()
+                if (listener !in current ||
+                        singles.compareAndSet(current, current.filter { it != listener }.toTypedArray<Observer<T>>())) break
+            }
+        } else {
+            synchronized(lock) {
+                if (listener in observers) observers = observers.filter { it != listener }.toTypedArray<Observer<T>>()
+            }
+        }
     }
 
     /**
      * Returns true if the observed value has active observers.
      */
-    fun hasObservers() = listeners.isNotEmpty()
+    fun hasObservers() = observers.isNotEmpty() || singles.get().isNotEmpty()
+
+    private fun notifyObservers(newValue: T) {
+        val observers = observers
+        for (i in observers.indices) {
+            observers[i].onChange(newValue)
+        }
+
+        // Taking the singles removes them, so each is notified once even if the value changes concurrently
+        val singles = if (singles.get().isEmpty()) noObservers else singles.getAndSet(noObservers)
+        for (i in singles.indices) {
+            singles[i].onChange(newValue)
+        }
+    }
 }
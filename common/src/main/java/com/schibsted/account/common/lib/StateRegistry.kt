@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.common.lib
+
+import java.util.UUID
+
+/**
+ * Keeps objects for the lifetime of the process, so that only their key has to be written to a Parcel or an Intent,
+ * instead of the objects themselves. The keys are unique to the process, so a key which is restored after the process
+ * died is simply not found, and the caller has to fall back to restoring the state some other way.
+ *
+ * Entries are never dropped by the registry, as they may hold the state of an activity which is only in the
+ * background. Remove them once the state is not needed anymore.
+ */
+object StateRegistry {
+
+    private val entries = mutableMapOf<String, Any>()
+
+    /**
+     * @return A new key, unique to this process
+     */
+    @JvmStatic
+    fun newKey(): String = UUID.randomUUID().toString()
+
+    /**
+     * Keeps the value under the key, replacing the previous value
+     */
+    @JvmStatic
+    fun put(key: String, value: Any) {
+        synchronized(entries) { entries[key] = value }
+    }
+
+    /**
+     * Keeps the value under a new key
+     *
+     * @return The key of the value
+     */
+    @JvmStatic
+    fun put(value: Any): String = newKey().also { put(it, value) }
+
+    /**
+     * @return The value kept under the key, or null if it is not found or not of the expected type
+     */
+    inline fun <reified T> get(key: String?): T? = key?.let { getValue(it) } as? T
+
+    @JvmStatic
+    fun getValue(key: String): Any? = synchronized(entries) { entries[key] }
+
+    @JvmStatic
+    fun remove(key: String) {
+        synchronized(entries) { entries.remove(key) }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.common.tracking
+
+import com.schibsted.account.common.tracking.TrackingData.Engagement
+import com.schibsted.account.common.tracking.TrackingData.FlowVariant
+import com.schibsted.account.common.tracking.TrackingData.InteractionType
+import com.schibsted.account.common.tracking.TrackingData.UIElement
+import com.schibsted.account.common.tracking.TrackingData.UIError
+import com.schibsted.account.common.tracking.TrackingData.UserIntent
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Metrics
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * Decorates a [UiTracking] so that tracking events cost the login flow no more than queueing them. Events are put in
+ * a lock-free queue, and delivered to the [delegate] in batches by a background thread, once [maxBatchSize] events
+ * are queued or the oldest one has waited for [maxDelayMs]. The tracking context, such as [flowVariant] and
+ * [clientId], is captured with every event and set on the [delegate] before the event is delivered. Changes of
+ * [userId] are forwarded to the [delegate] straight away, after the events which were queued before the change.
+ *
+ * Wrap the tracker before setting it, if it can be called from a background thread:
+ * ```
+ * BaseLoginActivity.tracker = BufferedUiTracking(tracker)
+ * ```
+ *
+ * @param delegate The tracker which delivers the events. It is called from the background thread
+ * @param capacity The maximum number of queued events. Once reached, events are dropped according to [overflowPolicy]
+ */
+class BufferedUiTracking @JvmOverloads constructor(
+    private val delegate: UiTracking,
+    private val maxBatchSize: Int = DEFAULT_MAX_BATCH_SIZE,
+    private val maxDelayMs: Long = DEFAULT_MAX_DELAY_MS,
+    private val capacity: Int = DEFAULT_CAPACITY,
+    private val overflowPolicy: OverflowPolicy = OverflowPolicy.DROP_OLDEST
+) : UiTracking() {
+
+    enum class OverflowPolicy {
+        /**
+         * Discard the oldest queued event to make room for the new one
+         */
+        DROP_OLDEST,
+
+        /**
+         * Discard the new event
+         */
+        DROP_NEWEST
+    }
+
+    private enum class Kind { INTERACTION, ENGAGEMENT, ERROR }
+
+    /**
+     * A tracking call and the context it was made in. The arguments of the three kinds of calls share fields, so that
+     * queueing an event takes a single allocation besides the queue's own node.
+     */
+    private class Event(
+        val kind: Kind,
+        val interactionType: InteractionType?,
+        val engagement: Engagement?,
+        val uiElement: UIElement?,
+        val error: UIError?,
+        val screen: TrackingData.Screen?,
+        val custom: Map<String, Any>,
+        val flowVariant: FlowVariant?,
+        val intent: UserIntent?,
+        val clientId: String?,
+        val loginRealm: String?,
+        val merchantId: Int?,
+        val userId: String?,
+        val enqueuedAt: Long
+    )
+
+    private val queue = ConcurrentLinkedQueue<Event>()
+    private val size = AtomicInteger()
+    private val maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs)
+
+    @Volatile
+    private var isRunning = true
+    @Volatile
+    private var isFlushRequested = false
+    @Volatile
+    private var isUserIdChanged = false
+
+    private val drainThread = Thread({ drainLoop() }, THREAD_NAME).apply {
+        isDaemon = true
+        priority = Thread.MIN_PRIORITY
+        start()
+    }
+
+    override var userId: String?
+        get() = super.userId
+        set(value) {
+            super.userId = value
+            isUserIdChanged = true
+            LockSupport.unpark(drainThread)
+        }
+
+    override fun eventInteraction(interactionType: InteractionType, screen: TrackingData.Screen, custom: Map<String, Any>) {
+        enqueue(Kind.INTERACTION, interactionType, null, null, null, screen, custom)
+    }
+
+    override fun eventEngagement(engagement: Engagement, uiElement: UIElement, source: TrackingData.Screen?, custom: Map<String, Any>) {
+        enqueue(Kind.ENGAGEMENT, null, engagement, uiElement, null, source, custom)
+    }
+
+    override fun eventError(error: UIError, source: TrackingData.Screen?, custom: Map<String, Any>) {
+        enqueue(Kind.ERROR, null, null, null, error, source, custom)
+    }
+
+    /**
+     * Delivers the queued events without waiting for the batch to fill up
+     */
+    fun flush() {
+        isFlushRequested = true
+        LockSupport.unpark(drainThread)
+    }
+
+    /**
+     * Delivers the queued events, and stops the background thread. Later events are dropped.
+     */
+    fun close() {
+        isRunning = false
+        LockSupport.unpark(drainThread)
+    }
+
+    private fun enqueue(
+        kind: Kind,
+        interactionType: InteractionType?,
+        engagement: Engagement?,
+        uiElement: UIElement?,
+        error: UIError?,
+        screen: TrackingData.Screen?,
+        custom: Map<String, Any>
+    ) {
+        if (!isRunning) {
+            Metrics.increment("tracking.dropped")
+            return
+        }
+
+        val queued = size.incrementAndGet()
+        if (queued > capacity) {
+            Metrics.increment("tracking.dropped")
+            when (overflowPolicy) {
+                OverflowPolicy.DROP_NEWEST -> {
+                    size.decrementAndGet()
+                    return
+                }
+                OverflowPolicy.DROP_OLDEST -> if (queue.poll() != null) size.decrementAndGet()
+            }
+        }
+
+        queue.offer(Event(kind, interactionType, engagement, uiElement, error, screen, custom,
+                flowVariant, intent, clientId, loginRealm, merchantId, userId, System.nanoTime()))
+
+        // The drain thread only needs waking up to start the delay, or once the batch is full
+        if (queued == 1 || queued >= maxBatchSize) {
+            LockSupport.unpark(drainThread)
+        }
+    }
+
+    private fun drainLoop() {
+        while (isRunning) {
+            if (isUserIdChanged) {
+                forwardUserId()
+                continue
+            }
+
+            val oldest = queue.peek()
+            val waited = oldest?.let { System.nanoTime() - it.enqueuedAt } ?: 0L
+            when {
+                oldest == null -> LockSupport.park(this)
+                isFlushRequested || size.get() >= maxBatchSize || waited >= maxDelayNanos -> drain()
+                else -> LockSupport.parkNanos(this, maxDelayNanos - waited)
+            }
+        }
+        drain()
+        if (isUserIdChanged) {
+            forwardUserId()
+        }
+    }
+
+    /**
+     * Delivers the events queued before the change with the previous user id, then sets the new one on the [delegate]
+     */
+    private fun forwardUserId() {
+        isUserIdChanged = false
+        drain()
+        val current = userId
+        if (delegate.userId != current) {
+            delegate.userId = current
+        }
+    }
+
+    private fun drain() {
+        isFlushRequested = false
+        var delivered = 0
+        while (true) {
+            val event = queue.poll() ?: break
+            size.decrementAndGet()
+            deliver(event)
+            delivered++
+        }
+        if (delivered > 0) {
+            Metrics.increment("tracking.batches")
+            Metrics.increment("tracking.delivered", delivered.toLong())
+        }
+    }
+
+    private fun deliver(event: Event) {
+        delegate.flowVariant = event.flowVariant
+        delegate.intent = event.intent
+        delegate.clientId = event.clientId
+        delegate.loginRealm = event.loginRealm
+        delegate.merchantId = event.merchantId
+        if (delegate.userId != event.userId) {
+            delegate.userId = event.userId
+        }
+
+        try {
+            when (event.kind) {
+                Kind.INTERACTION -> delegate.eventInteraction(event.interactionType!!, event.screen!!, event.custom)
+                Kind.ENGAGEMENT -> delegate.eventEngagement(event.engagement!!, event.uiElement!!, event.screen, event.custom)
+                Kind.ERROR -> delegate.eventError(event.error!!, event.screen, event.custom)
+            }
+        } catch (e: RuntimeException) {
+            Logger.warn(TAG, "The tracker failed to handle an event", e)
+        }
+    }
+
+    companion object {
+        private const val TAG = "BufferedUiTracking"
+        private const val THREAD_NAME = "UiTracking"
+        const val DEFAULT_MAX_BATCH_SIZE = 16
+        const val DEFAULT_MAX_DELAY_MS = 1000L
+        const val DEFAULT_CAPACITY = 256
+    }
+}
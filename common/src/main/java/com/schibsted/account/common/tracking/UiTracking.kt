@@ -21,7 +21,7 @@ abstract class UiTracking {
     var loginRealm: String? = null
     var merchantId: Int? = null
 
-    var userId by Delegates.observable<String?>(null) { _, _, newValue ->
+    open var userId by Delegates.observable<String?>(null) { _, _, newValue ->
         onUserIdChanged?.invoke(newValue)
     }
 
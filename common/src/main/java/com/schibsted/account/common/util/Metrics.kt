@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.common.util
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * Counters, gauges and timers of the SDK's internals, such as token refreshes, cache hits and storage access.
+ * Recording is disabled by default, in which case it costs no more than checking [metricsEnabled]. Once enabled,
+ * the figures can be pulled with [snapshot], or pushed to the [exporter] with [export].
+ */
+object Metrics {
+
+    interface Exporter {
+        fun export(snapshot: Snapshot)
+    }
+
+    /**
+     * @param counters The number of occurrences of an event since the last [reset]
+     * @param gauges The last value set per gauge
+     * @param timers The durations recorded per timer
+     */
+    data class Snapshot(
+        val counters: Map<String, Long>,
+        val gauges: Map<String, Long>,
+        val timers: Map<String, TimerSnapshot>
+    )
+
+    data class TimerSnapshot(val count: Long, val totalMs: Long, val maxMs: Long) {
+        val meanMs: Double get() = if (count == 0L) 0.0 else totalMs.toDouble() / count
+    }
+
+    @JvmStatic
+    var metricsEnabled: Boolean = false
+
+    @JvmStatic
+    var exporter: Exporter? = null
+
+    private val counters = ConcurrentHashMap<String, StripedCounter>()
+    private val gauges = ConcurrentHashMap<String, AtomicLong>()
+    private val timers = ConcurrentHashMap<String, Timer>()
+
+    @JvmStatic
+    @JvmOverloads
+    fun increment(name: String, delta: Long = 1) {
+        if (metricsEnabled) counters.getOrPut(name) { StripedCounter() }.add(delta)
+    }
+
+    @JvmStatic
+    fun gauge(name: String, value: Long) {
+        if (metricsEnabled) gauges.getOrPut(name) { AtomicLong() }.set(value)
+    }
+
+    @JvmStatic
+    fun recordTime(name: String, durationNanos: Long) {
+        if (metricsEnabled) timers.getOrPut(name) { Timer() }.record(durationNanos)
+    }
+
+    /**
+     * Times the block, if metrics are enabled
+     */
+    inline fun <T> time(name: String, block: () -> T): T {
+        if (!metricsEnabled) return block()
+        val start = System.nanoTime()
+        try {
+            return block()
+        } finally {
+            recordTime(name, System.nanoTime() - start)
+        }
+    }
+
+    @JvmStatic
+    fun snapshot(): Snapshot = Snapshot(
+            counters.mapValues { it.value.sum() },
+            gauges.mapValues { it.value.get() },
+            timers.mapValues { it.value.snapshot() })
+
+    /**
+     * Passes a snapshot to the [exporter], if there is one
+     */
+    @JvmStatic
+    fun export() {
+        exporter?.export(snapshot())
+    }
+
+    @JvmStatic
+    fun reset() {
+        counters.clear()
+        gauges.clear()
+        timers.clear()
+    }
+
+    /**
+     * A counter spread over several cells, so threads incrementing it concurrently rarely contend for the same one.
+     * Cells are padded apart to avoid false sharing.
+     */
+    private class StripedCounter {
+        private val cells = AtomicLongArray(STRIPES * PADDING)
+
+        fun add(delta: Long) {
+            val stripe = (Thread.currentThread().id.toInt() and (STRIPES - 1)) * PADDING
+            cells.addAndGet(stripe, delta)
+        }
+
+        fun sum(): Long = (0 until STRIPES).fold(0L) { sum, stripe -> sum + cells.get(stripe * PADDING) }
+
+        companion object {
+            private const val STRIPES = 8
+            private const val PADDING = 8
+        }
+    }
+
+    private class Timer {
+        private val count = AtomicLong()
+        private val totalNanos = AtomicLong()
+        private val maxNanos = AtomicLong()
+
+        fun record(durationNanos: Long) {
+            count.incrementAndGet()
+            totalNanos.addAndGet(durationNanos)
+            var max = maxNanos.get()
+            while (durationNanos > max && !maxNanos.compareAndSet(max, durationNanos)) {
+                max = maxNanos.get()
+            }
+        }
+
+        fun snapshot() = TimerSnapshot(count.get(), totalNanos.get() / 1_000_000, maxNanos.get() / 1_000_000)
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.common.util
+
+import android.os.Trace
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Spans of the login flow: the steps of the controllers, the operations they run and the transitions between screens.
+ * Tracing is disabled by default, in which case it costs no more than checking [tracingEnabled]. Once enabled, ended
+ * spans are passed to the [sink], so the time spent in each step of the flow can be analysed in production.
+ *
+ * Blocks traced with [trace] run on a single thread, and are also written as [Trace] sections, so they show up in
+ * systrace and Perfetto. Spans which end on a callback, started with [start], are only passed to the [sink].
+ */
+object Tracing {
+    private const val TAG = "Tracing"
+
+    interface Sink {
+        /**
+         * Called on the thread which ended the span
+         */
+        fun onSpan(span: Span)
+    }
+
+    enum class Outcome { SUCCESS, FAILURE, CANCELLED }
+
+    /**
+     * @param flowType The [flowType] when the span started
+     * @param startNanos The start of the span, as given by [System.nanoTime]
+     * @param attributes Details of the span, such as the reason of a failure
+     */
+    data class Span(
+        val name: String,
+        val flowType: String?,
+        val outcome: Outcome,
+        val startNanos: Long,
+        val durationNanos: Long,
+        val attributes: Map<String, String> = emptyMap()
+    ) {
+        val durationMs: Long get() = durationNanos / 1_000_000
+    }
+
+    /**
+     * A span which has started, and is passed to the [sink] once it ends. Ending it more than once has no effect.
+     */
+    class ActiveSpan internal constructor(private val name: String?, private val flowType: String?, private val startNanos: Long) {
+        private val isEnded = AtomicBoolean(name == null)
+
+        @JvmOverloads
+        fun end(outcome: Outcome = Outcome.SUCCESS, attributes: Map<String, String> = emptyMap()) {
+            if (isEnded.compareAndSet(false, true)) {
+                emit(Span(name!!, flowType, outcome, startNanos, System.nanoTime() - startNanos, attributes))
+            }
+        }
+    }
+
+    @JvmStatic
+    var tracingEnabled: Boolean = false
+
+    @JvmStatic
+    var sink: Sink? = null
+
+    /**
+     * The type of the flow which is running, to be attached to the spans
+     */
+    @JvmStatic
+    var flowType: String? = null
+
+    private val disabledSpan = ActiveSpan(null, null, 0)
+
+    /**
+     * Starts a span, which has to be ended by calling [ActiveSpan.end]
+     */
+    @JvmStatic
+    fun start(name: String): ActiveSpan = if (tracingEnabled) ActiveSpan(name, flowType, System.nanoTime()) else disabledSpan
+
+    /**
+     * Records a span which started at [startNanos], as given by [System.nanoTime], and ends now, if tracing is enabled
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun record(name: String, startNanos: Long, outcome: Outcome = Outcome.SUCCESS, attributes: Map<String, String> = emptyMap()) {
+        if (tracingEnabled) emit(Span(name, flowType, outcome, startNanos, System.nanoTime() - startNanos, attributes))
+    }
+
+    /**
+     * Traces the block, if tracing is enabled. The span fails if the block throws
+     */
+    inline fun <T> trace(name: String, block: () -> T): T {
+        if (!tracingEnabled) return block()
+        val span = start(name)
+        var outcome = Outcome.FAILURE
+        Trace.beginSection(name.take(MAX_SECTION_NAME_LENGTH))
+        try {
+            return block().also { outcome = Outcome.SUCCESS }
+        } finally {
+            Trace.endSection()
+            span.end(outcome)
+        }
+    }
+
+    @PublishedApi
+    internal const val MAX_SECTION_NAME_LENGTH = 127
+
+    @JvmStatic
+    internal fun emit(span: Span) {
+        try {
+            sink?.onSpan(span)
+        } catch (e: RuntimeException) {
+            Logger.warn(TAG, "The tracing sink failed to handle a span", e)
+        }
+    }
+}
@@ -72,6 +72,7 @@ fun String.safeUrl(): String {
     return domain + hiddenParams
 }
 
+@Deprecated("Not used by the SDK anymore, read the list and create the stack instead")
 fun <T> Parcel.readStack(loader: ClassLoader): Stack<T> {
     val items = mutableListOf<T>()
     this.readList(items, loader)
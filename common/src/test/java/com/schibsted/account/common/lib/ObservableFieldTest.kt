@@ -7,6 +7,10 @@ package com.schibsted.account.common.lib
 import com.nhaarman.mockitokotlin2.*
 import io.kotlintest.shouldBe
 import io.kotlintest.specs.StringSpec
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
 
 class ObservableFieldTest : StringSpec() {
     init {
@@ -218,6 +222,77 @@ class ObservableFieldTest : StringSpec() {
 
             field.hasObservers() shouldBe false
         }
+
+        "Changes pending on the executor should be coalesced into the latest value" {
+            val tasks = mutableListOf<Runnable>()
+            val field = ObservableField("Hello", Executor { tasks.add(it) })
+            val listener = observer()
+            field.addListener(listener)
+
+            field.value = "Hello again"
+            field.value = "Bye"
+            verify(listener, never()).onChange(any())
+
+            tasks.forEach { it.run() }
+            verify(listener).onChange(eq("Bye"))
+            verify(listener, never()).onChange(eq("Hello again"))
+        }
+
+        "Changes reverted before the executor runs should not be notified" {
+            val tasks = mutableListOf<Runnable>()
+            val field = ObservableField("Hello", Executor { tasks.add(it) })
+            val listener = observer()
+            field.addListener(listener)
+
+            field.value = "Bye"
+            field.value = "Hello"
+
+            tasks.forEach { it.run() }
+            verify(listener, never()).onChange(any())
+        }
+
+        "Single should be notified once when the value changes concurrently" {
+            val field = ObservableField(0)
+            val calls = AtomicInteger()
+            field.addListener(single = true) { calls.incrementAndGet() }
+
+            val start = CountDownLatch(1)
+            val threads = (1..8).map { value ->
+                thread {
+                    start.await()
+                    field.value = value
+                }
+            }
+            start.countDown()
+            threads.forEach { it.join() }
+
+            calls.get() shouldBe 1
+            field.hasObservers() shouldBe false
+        }
+
+        "Single should be notified once when other singles are added and removed concurrently" {
+            repeat(500) {
+                val field = ObservableField(0)
+                val calls = AtomicInteger()
+                field.addListener(single = true) { calls.incrementAndGet() }
+
+                val start = CountDownLatch(1)
+                val changer = thread {
+                    start.await()
+                    field.value = 1
+                }
+                val adder = thread {
+                    start.await()
+                    repeat(10) { field.removeListener(field.addListener(single = true) { }) }
+                }
+                start.countDown()
+                changer.join()
+                adder.join()
+                field.value = 2
+
+                calls.get() shouldBe 1
+            }
+        }
     }
 
     private fun observer() = mock<ObservableField.Observer<String>>()
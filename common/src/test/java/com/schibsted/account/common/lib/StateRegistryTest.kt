@@ -0,0 +1,45 @@
+package com.schibsted.account.common.lib
+
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.StringSpec
+
+class StateRegistryTest : StringSpec() {
+    init {
+        "Value should be found under its key" {
+            val key = StateRegistry.put(listOf("step"))
+            StateRegistry.get<List<String>>(key) shouldBe listOf("step")
+        }
+
+        "Value should be replaced when put under the same key" {
+            val key = StateRegistry.newKey()
+            StateRegistry.put(key, "first")
+            StateRegistry.put(key, "second")
+            StateRegistry.get<String>(key) shouldBe "second"
+        }
+
+        "Unknown key should not be found" {
+            StateRegistry.get<String>(StateRegistry.newKey()) shouldBe null
+            StateRegistry.get<String>(null) shouldBe null
+        }
+
+        "Value of another type should not be found" {
+            val key = StateRegistry.put("value")
+            StateRegistry.get<Int>(key) shouldBe null
+        }
+
+        "Removed value should not be found" {
+            val key = StateRegistry.put("value")
+            StateRegistry.remove(key)
+            StateRegistry.get<String>(key) shouldBe null
+        }
+
+        "Values should be kept until they are removed, however many are put" {
+            val first = StateRegistry.put("first")
+            val others = (0 until 100).map { StateRegistry.put(it) }
+
+            StateRegistry.get<String>(first) shouldBe "first"
+            others.forEach { StateRegistry.remove(it) }
+            StateRegistry.remove(first)
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.schibsted.account.common.tracking
+
+import com.schibsted.account.common.util.Logger
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class BufferedUiTrackingTest : WordSpec({
+    Logger.loggingEnabled = false
+
+    class RecordingTracker(expected: Int) : UiTracking() {
+        val events = CopyOnWriteArrayList<String>()
+        val threads = CopyOnWriteArrayList<Thread>()
+        val delivered = CountDownLatch(expected)
+
+        override fun eventInteraction(interactionType: TrackingData.InteractionType, screen: TrackingData.Screen, custom: Map<String, Any>) =
+                record("$interactionType $screen $flowVariant $clientId")
+
+        override fun eventEngagement(engagement: TrackingData.Engagement, uiElement: TrackingData.UIElement, source: TrackingData.Screen?, custom: Map<String, Any>) =
+                record("$engagement $uiElement $source")
+
+        override fun eventError(error: TrackingData.UIError, source: TrackingData.Screen?, custom: Map<String, Any>) =
+                record("$error $source")
+
+        private fun record(event: String) {
+            events.add(event)
+            threads.add(Thread.currentThread())
+            delivered.countDown()
+        }
+    }
+
+    "BufferedUiTracking" should {
+        "deliver events in order on a background thread, with the context they were tracked in" {
+            val delegate = RecordingTracker(3)
+            val tracking = BufferedUiTracking(delegate, maxBatchSize = 3, maxDelayMs = TimeUnit.HOURS.toMillis(1))
+
+            tracking.clientId = "client"
+            tracking.flowVariant = TrackingData.FlowVariant.PASSWORD
+            tracking.eventInteraction(TrackingData.InteractionType.VIEW, TrackingData.Screen.PASSWORD)
+            tracking.flowVariant = null
+            tracking.eventEngagement(TrackingData.Engagement.CLICK, TrackingData.UIElement.FORGOT_PASSWORD, TrackingData.Screen.PASSWORD)
+            tracking.eventError(TrackingData.UIError.InvalidPassword, TrackingData.Screen.PASSWORD)
+
+            delegate.delivered.await(5, TimeUnit.SECONDS) shouldBe true
+            delegate.events shouldBe listOf(
+                    "View PASSWORD Password client",
+                    "Click FORGOT_PASSWORD PASSWORD",
+                    "The provided password is not valid PASSWORD")
+            delegate.threads.none { it == Thread.currentThread() } shouldBe true
+            tracking.close()
+        }
+
+        "deliver an incomplete batch once the oldest event has waited long enough" {
+            val delegate = RecordingTracker(1)
+            val tracking = BufferedUiTracking(delegate, maxBatchSize = 10, maxDelayMs = 10)
+
+            tracking.eventInteraction(TrackingData.InteractionType.VIEW, TrackingData.Screen.IDENTIFICATION)
+
+            delegate.delivered.await(5, TimeUnit.SECONDS) shouldBe true
+            tracking.close()
+        }
+
+        "forward user id changes without waiting for the batch, after the events tracked before them" {
+            val delegate = RecordingTracker(1)
+            val tracking = BufferedUiTracking(delegate, maxBatchSize = 10, maxDelayMs = TimeUnit.HOURS.toMillis(1))
+            val forwarded = CountDownLatch(1)
+            val eventsWhenForwarded = CopyOnWriteArrayList<Int>()
+            delegate.onUserIdChanged = {
+                eventsWhenForwarded.add(delegate.events.size)
+                forwarded.countDown()
+            }
+
+            tracking.eventInteraction(TrackingData.InteractionType.VIEW, TrackingData.Screen.IDENTIFICATION)
+            tracking.userId = "userId"
+
+            forwarded.await(5, TimeUnit.SECONDS) shouldBe true
+            delegate.userId shouldBe "userId"
+            eventsWhenForwarded shouldBe listOf(1)
+            tracking.close()
+        }
+
+        "drop the newest events when it is full" {
+            val delegate = RecordingTracker(2)
+            val tracking = BufferedUiTracking(delegate, maxBatchSize = 10, maxDelayMs = TimeUnit.HOURS.toMillis(1),
+                    capacity = 2, overflowPolicy = BufferedUiTracking.OverflowPolicy.DROP_NEWEST)
+
+            TrackingData.Screen.values().take(3).forEach { tracking.eventInteraction(TrackingData.InteractionType.VIEW, it) }
+            tracking.flush()
+
+            delegate.delivered.await(5, TimeUnit.SECONDS) shouldBe true
+            delegate.events.map { it.split(" ")[1] } shouldBe listOf("IDENTIFICATION", "ONE_STEP_LOGIN")
+            tracking.close()
+        }
+
+        "drop the oldest events when it is full" {
+            val delegate = RecordingTracker(2)
+            val tracking = BufferedUiTracking(delegate, maxBatchSize = 10, maxDelayMs = TimeUnit.HOURS.toMillis(1),
+                    capacity = 2, overflowPolicy = BufferedUiTracking.OverflowPolicy.DROP_OLDEST)
+
+            TrackingData.Screen.values().take(3).forEach { tracking.eventInteraction(TrackingData.InteractionType.VIEW, it) }
+            tracking.flush()
+
+            delegate.delivered.await(5, TimeUnit.SECONDS) shouldBe true
+            delegate.events.map { it.split(" ")[1] } shouldBe listOf("ONE_STEP_LOGIN", "ONE_STEP_SIGNUP")
+            tracking.close()
+        }
+    }
+})
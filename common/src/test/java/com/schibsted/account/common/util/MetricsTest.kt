@@ -0,0 +1,66 @@
+package com.schibsted.account.common.util
+
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+
+class MetricsTest : WordSpec() {
+
+    private fun withMetrics(block: () -> Unit) {
+        Metrics.reset()
+        Metrics.metricsEnabled = true
+        try {
+            block()
+        } finally {
+            Metrics.metricsEnabled = false
+            Metrics.reset()
+        }
+    }
+
+    init {
+        "Metrics" should {
+            "sum counter increments from several threads" { withMetrics {
+                List(4) { Thread { repeat(1000) { Metrics.increment("counter") } }.apply { start() } }.forEach { it.join() }
+
+                Metrics.snapshot().counters["counter"] shouldBe 4000L
+            } }
+
+            "keep the last value of a gauge" { withMetrics {
+                Metrics.gauge("gauge", 3)
+                Metrics.gauge("gauge", 1)
+
+                Metrics.snapshot().gauges["gauge"] shouldBe 1L
+            } }
+
+            "time blocks" { withMetrics {
+                Metrics.time("timer") { "result" } shouldBe "result"
+                Metrics.recordTime("timer", 5_000_000)
+
+                val timer = Metrics.snapshot().timers.getValue("timer")
+                timer.count shouldBe 2L
+                timer.maxMs shouldBe 5L
+            } }
+
+            "record nothing when disabled" { withMetrics {
+                Metrics.metricsEnabled = false
+                Metrics.increment("counter")
+                Metrics.time("timer") { Unit }
+
+                Metrics.snapshot() shouldBe Metrics.Snapshot(emptyMap(), emptyMap(), emptyMap())
+            } }
+
+            "pass snapshots to the exporter" { withMetrics {
+                var exported: Metrics.Snapshot? = null
+                Metrics.exporter = object : Metrics.Exporter {
+                    override fun export(snapshot: Metrics.Snapshot) {
+                        exported = snapshot
+                    }
+                }
+                Metrics.increment("counter", 2)
+                Metrics.export()
+                Metrics.exporter = null
+
+                exported?.counters shouldBe mapOf("counter" to 2L)
+            } }
+        }
+    }
+}
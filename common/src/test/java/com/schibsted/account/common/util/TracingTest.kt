@@ -0,0 +1,89 @@
+package com.schibsted.account.common.util
+
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+
+class TracingTest : WordSpec() {
+
+    private val spans = mutableListOf<Tracing.Span>()
+
+    private fun withTracing(block: () -> Unit) {
+        spans.clear()
+        Logger.loggingEnabled = false
+        Tracing.tracingEnabled = true
+        Tracing.flowType = "PASSWORD"
+        Tracing.sink = object : Tracing.Sink {
+            override fun onSpan(span: Tracing.Span) {
+                spans.add(span)
+            }
+        }
+        try {
+            block()
+        } finally {
+            Tracing.tracingEnabled = false
+            Tracing.flowType = null
+            Tracing.sink = null
+        }
+    }
+
+    init {
+        "Tracing" should {
+            "pass ended spans to the sink with the flow type" { withTracing {
+                val span = Tracing.start("operation.login")
+                span.end(Tracing.Outcome.FAILURE, mapOf("error" to "invalid_grant"))
+
+                spans.size shouldBe 1
+                spans[0].name shouldBe "operation.login"
+                spans[0].flowType shouldBe "PASSWORD"
+                spans[0].outcome shouldBe Tracing.Outcome.FAILURE
+                spans[0].attributes shouldBe mapOf("error" to "invalid_grant")
+            } }
+
+            "pass a span only once when it is ended several times" { withTracing {
+                val span = Tracing.start("navigate.PASSWORD_SCREEN")
+                span.end()
+                span.end(Tracing.Outcome.CANCELLED)
+
+                spans.map { it.outcome } shouldBe listOf(Tracing.Outcome.SUCCESS)
+            } }
+
+            "record spans which started earlier" { withTracing {
+                val start = System.nanoTime() - 5_000_000
+                Tracing.record("step.StepLoginIdentify", start)
+
+                spans[0].startNanos shouldBe start
+                (spans[0].durationMs >= 5) shouldBe true
+            } }
+
+            "keep the flow type of the start of a span" { withTracing {
+                val span = Tracing.start("step")
+                Tracing.flowType = "PASSWORDLESS_SMS"
+                span.end()
+
+                spans[0].flowType shouldBe "PASSWORD"
+            } }
+
+            "survive a failing sink" { withTracing {
+                Tracing.sink = object : Tracing.Sink {
+                    override fun onSpan(span: Tracing.Span) = throw IllegalStateException()
+                }
+
+                Tracing.start("operation.login").end()
+            } }
+
+            "not pass spans when disabled" {
+                spans.clear()
+                Tracing.sink = object : Tracing.Sink {
+                    override fun onSpan(span: Tracing.Span) {
+                        spans.add(span)
+                    }
+                }
+                Tracing.start("operation.login").end()
+                Tracing.record("step", System.nanoTime())
+                Tracing.sink = null
+
+                spans.isEmpty() shouldBe true
+            }
+        }
+    }
+}
@@ -41,6 +41,7 @@ dependencies {
     testImplementation("com.nhaarman.mockitokotlin2:mockito-kotlin:${Constants.Versions.MOCKITO_KOTLIN}")
     testImplementation("org.jetbrains.kotlinx:kotlinx-coroutines-core:${Constants.Versions.KOTLINX_COROUTINES_CORE}")
     testImplementation("org.slf4j:slf4j-simple:${Constants.Versions.SLF4J}")
+    testImplementation(project(":test-support"))
 
     androidTestImplementation("androidx.test:runner:${Constants.Versions.TEST_RUNNER}")
     androidTestImplementation("androidx.test.ext:junit:1.1.1")
@@ -48,6 +49,11 @@ dependencies {
     androidTestImplementation("com.nhaarman.mockitokotlin2:mockito-kotlin:${Constants.Versions.MOCKITO_KOTLIN}")
 }
 
+tasks.withType<Test>().configureEach {
+    // Enables the load test, see LoadDriverTest
+    project.findProperty("loadTest")?.let { systemProperty("loadTest", it) }
+}
+
 publishing {
     publications.mavenJar {
         afterEvaluate {
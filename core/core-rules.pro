@@ -18,6 +18,7 @@
 -keep class com.schibsted.account.util.Preconditions { *; }
 -keep class com.schibsted.account.ClientConfiguration { *; }
 -keep class com.schibsted.account.ClientConfiguration$* { *; }
+-keep class com.schibsted.account.GeneratedClientConfiguration { public static final java.lang.String[] PARAMS; }
 -keep class com.schibsted.account.Events { *; }
 -keep class com.schibsted.account.Client { *; }
 -keep class com.schibsted.account.Routes { *; }
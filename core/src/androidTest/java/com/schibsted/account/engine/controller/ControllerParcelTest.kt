@@ -0,0 +1,87 @@
+package com.schibsted.account.engine.controller
+
+import android.os.Parcel
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.google.gson.JsonArray
+import com.schibsted.account.engine.input.Identifier
+import com.schibsted.account.engine.step.StepNoPwIdentify
+import com.schibsted.account.engine.step.StepSignUpDone
+import com.schibsted.account.network.response.AgreementLinksResponse
+import com.schibsted.account.network.response.PasswordlessToken
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class ControllerParcelTest {
+
+    private val identifyStep = StepNoPwIdentify(
+            Identifier(Identifier.IdentifierType.SMS, "+4712345678"),
+            PasswordlessToken("passwordlessToken"),
+            false,
+            AgreementLinksResponse(false, "https://example.com/terms", "https://example.com/privacy",
+                    "https://example.com/terms", JsonArray(), "https://example.com/privacy"))
+
+    // Stands in for the steps which hold a user, as none of the controllers write it in full
+    private val laterStep = StepSignUpDone()
+
+    private fun <T : Controller<*>> roundTrip(controller: T, release: Boolean, create: (Parcel) -> T): T {
+        val parcel = Parcel.obtain()
+        try {
+            controller.writeToParcel(parcel, 0)
+            if (release) controller.releaseState()
+            parcel.setDataPosition(0)
+            return create(parcel)
+        } finally {
+            parcel.recycle()
+        }
+    }
+
+    @Test
+    fun allStepsRestored_whenTheRegistryHasTheNavigation() {
+        val controller = PasswordlessController(true).apply {
+            navigation.push(identifyStep)
+            navigation.push(laterStep)
+        }
+
+        val restored = roundTrip(controller, false) { PasswordlessController.createFromParcel(it) }
+
+        assertEquals(2, restored.navigation.size)
+        assertSame(identifyStep, restored.navigation[0])
+        assertSame(laterStep, restored.navigation[1])
+    }
+
+    @Test
+    fun resumableStepsRestored_whenTheRegistryLostTheNavigation() {
+        val controller = PasswordlessController(true).apply {
+            navigation.push(identifyStep)
+            navigation.push(laterStep)
+        }
+
+        val restored = roundTrip(controller, true) { PasswordlessController.createFromParcel(it) }
+
+        assertEquals(listOf(identifyStep), restored.navigation.toList())
+    }
+
+    @Test
+    fun navigationEmpty_whenNoStepIsResumable() {
+        val controller = LoginController(true).apply { navigation.push(laterStep) }
+
+        val restored = roundTrip(controller, true) { LoginController.createFromParcel(it) }
+
+        assertTrue(restored.navigation.isEmpty())
+    }
+
+    @Test
+    fun stateKeptAcrossRoundTrips_untilReleased() {
+        val controller = PasswordlessController(true).apply { navigation.push(laterStep) }
+
+        val restored = roundTrip(controller, false) { PasswordlessController.createFromParcel(it) }
+        val restoredAgain = roundTrip(restored, true) { PasswordlessController.createFromParcel(it) }
+
+        assertEquals(listOf(laterStep), restored.navigation.toList())
+        assertTrue(restoredAgain.navigation.isEmpty())
+    }
+}
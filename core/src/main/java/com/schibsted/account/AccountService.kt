@@ -15,7 +15,12 @@ import android.provider.Settings
 import androidx.annotation.VisibleForTesting
 import androidx.localbroadcastmanager.content.LocalBroadcastManager
 import com.schibsted.account.common.util.Logger
+import com.schibsted.account.network.Prewarmer
+import com.schibsted.account.persistence.ClientInfoCache
+import com.schibsted.account.persistence.FingerprintCache
 import com.schibsted.account.persistence.UserPersistenceService
+import com.schibsted.account.session.SessionCacheReceiver
+import com.schibsted.account.session.WriteQueue
 
 class AccountService @JvmOverloads constructor(
     private val appContext: Context,
@@ -40,11 +45,25 @@ class AccountService @JvmOverloads constructor(
                         appContext.contentResolver,
                         Settings.Secure.ANDROID_ID
                 )
+        if (writeQueue == null) {
+            writeQueue = WriteQueue.create(appContext)
+        }
+        if (fingerprintCache == null) {
+            fingerprintCache = FingerprintCache.create(appContext)
+        }
+        if (clientInfoCache == null) {
+            clientInfoCache = ClientInfoCache.getInstance(appContext)
+        }
+        // The caches live as long as the process, so the receiver must not miss the events sent while the app is stopped
+        if (sessionCacheReceiver == null) {
+            sessionCacheReceiver = SessionCacheReceiver(localBroadcastManager).apply { register() }
+        }
     }
 
     @OnLifecycleEvent(Lifecycle.Event.ON_START)
     fun bind() {
         Logger.verbose(TAG, "Binding ${AccountService::class.simpleName}")
+        prewarm()
         this.isPersistenceServiceBound = appContext.bindService(Intent(appContext, UserPersistenceService::class.java), upConnection, Context.BIND_AUTO_CREATE)
                 .also {
                     when (it) {
@@ -75,5 +94,24 @@ class AccountService @JvmOverloads constructor(
             private set
         internal var androidId: String = "unknown"
             private set
+        internal var writeQueue: WriteQueue? = null
+            @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
+            set
+        internal var fingerprintCache: FingerprintCache? = null
+            @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
+            set
+        internal var clientInfoCache: ClientInfoCache? = null
+            @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
+            set
+        private var sessionCacheReceiver: SessionCacheReceiver? = null
+
+        /**
+         * Connects to the configured environment and prepares the network services in the background, so the first
+         * request does not pay for it. This is done when the service is bound, but can be started earlier.
+         */
+        @JvmStatic
+        fun prewarm() {
+            Prewarmer.start()
+        }
     }
 }
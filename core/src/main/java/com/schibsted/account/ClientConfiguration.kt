@@ -37,7 +37,8 @@ data class ClientConfiguration(
         @JvmStatic
         fun get(): ClientConfiguration {
             if (!::currentConfig.isInitialized) {
-                currentConfig = fromParams(ConfigurationUtils.paramsFromAssets())
+                // The configuration generated at build time needs no I/O, unlike reading the asset from the APK
+                currentConfig = fromParams(ConfigurationUtils.paramsFromGeneratedClass() ?: ConfigurationUtils.paramsFromAssets())
             }
 
             return currentConfig
@@ -8,7 +8,10 @@ object Events {
     const val ACTION_USER_LOGIN = "AccountSdkActionUserLogin"
     const val ACTION_USER_LOGOUT = "AccountSdkActionUserLogout"
     const val ACTION_USER_TOKEN_REFRESH = "AccountSdkActionUserTokenRefresh"
+    const val ACTION_CIRCUIT_BREAKER_STATE_CHANGE = "AccountSdkActionCircuitBreakerStateChange"
 
     const val EXTRA_USER = "AccountSdkExtraUser"
     const val EXTRA_USER_ID = "AccountSdkExtraUserId"
+    const val EXTRA_ENDPOINT = "AccountSdkExtraEndpoint"
+    const val EXTRA_CIRCUIT_BREAKER_STATE = "AccountSdkExtraCircuitBreakerState"
 }
@@ -6,18 +6,71 @@ package com.schibsted.account.engine.controller
 
 import android.os.Parcel
 import android.os.Parcelable
+import androidx.annotation.VisibleForTesting
+import com.schibsted.account.common.lib.StateRegistry
 import com.schibsted.account.common.util.Logger
-import com.schibsted.account.common.util.readStack
+import com.schibsted.account.common.util.Metrics
+import com.schibsted.account.common.util.Tracing
 import com.schibsted.account.engine.integration.contract.Contract
 import com.schibsted.account.engine.step.Step
 import java.util.Stack
 
+/**
+ * The steps of the navigation, which hold users and tokens, are kept in the [StateRegistry], and only their key is
+ * written to the Parcel. The leading steps which hold neither, see [isResumable], are written in full as well, so that
+ * the flow resumes from them if the process died in the meantime. Otherwise the flow restarts from the beginning.
+ *
+ * Call [releaseState] once the flow is completed or cancelled.
+ */
 abstract class Controller<in T : Contract<*>>() : Parcelable {
-    internal val navigation: Stack<Step> = Stack()
+    internal val navigation: Stack<Step> = TracedNavigation(javaClass.simpleName)
+
+    /**
+     * The key under which the navigation is kept in the [StateRegistry]
+     */
+    private var stateKey: String? = null
 
     protected constructor(parcel: Parcel) : this() {
-        val inStack = parcel.readStack<Step>(Controller::class.java.classLoader)
-        navigation.addAll(inStack)
+        restoreNavigation(parcel)
+    }
+
+    /**
+     * Restores the navigation written by [writeToParcel]
+     */
+    protected fun restoreNavigation(parcel: Parcel) {
+        val key = parcel.readString()
+        val resumableSteps = mutableListOf<Step>()
+        parcel.readList(resumableSteps, Controller::class.java.classLoader)
+
+        val steps = StateRegistry.get<List<Step>>(key)
+        when {
+            steps != null -> {
+                stateKey = key
+                navigation.addAll(steps)
+            }
+            resumableSteps.isNotEmpty() -> {
+                Logger.info("The navigation of the controller was not found, resuming from ${resumableSteps.size} step(s)")
+                Metrics.increment("controller.state.resumed")
+                navigation.addAll(resumableSteps)
+            }
+            else -> {
+                Logger.warn("The navigation of the controller was not found, restarting the flow")
+                Metrics.increment("controller.state.lost")
+            }
+        }
+    }
+
+    /**
+     * Whether the step can be written to a Parcel in full, because it holds neither users nor secrets
+     */
+    protected open fun isResumable(step: Step): Boolean = false
+
+    /**
+     * Removes the navigation from the [StateRegistry]. Call this once the flow is completed or cancelled
+     */
+    fun releaseState() {
+        stateKey?.let { StateRegistry.remove(it) }
+        stateKey = null
     }
 
     /**
@@ -42,13 +95,54 @@ abstract class Controller<in T : Contract<*>>() : Parcelable {
         }
     }
 
-    fun start(contract: T) = evaluate(contract)
+    fun start(contract: T) = Tracing.trace("controller.start") { evaluate(contract) }
+
+    /**
+     * Pushes the steps onto the navigation, as if the flow had completed them
+     */
+    @VisibleForTesting(otherwise = VisibleForTesting.NONE)
+    internal fun pushSteps(vararg steps: Step) = steps.forEach { navigation.push(it) }
+
+    /**
+     * @return The steps of the navigation, from the first to the current one
+     */
+    @VisibleForTesting(otherwise = VisibleForTesting.NONE)
+    internal fun steps(): List<Step> = navigation.toList()
 
     internal inline fun <reified E : Step> findOnStack(): E? = navigation.find { it is E } as E?
 
     override fun writeToParcel(parcel: Parcel, flags: Int) {
-        parcel.writeList(navigation.toList())
+        val key = stateKey ?: StateRegistry.newKey().also { stateKey = it }
+        StateRegistry.put(key, navigation.toList())
+        parcel.writeString(key)
+        parcel.writeList(navigation.takeWhile { isResumable(it) })
     }
 
     override fun describeContents(): Int = 0
+
+    /**
+     * Records a span per step, from the completion of the previous step until the step is pushed, which covers both the
+     * input of the user and the operations of the step. Going back restarts the span of the step.
+     */
+    private class TracedNavigation(private val controller: String) : Stack<Step>() {
+        private var stepStartNanos = System.nanoTime()
+
+        override fun push(item: Step): Step {
+            if (Tracing.tracingEnabled) {
+                Tracing.record("step.${item.javaClass.simpleName}", stepStartNanos, attributes = mapOf("controller" to controller))
+            }
+            stepStartNanos = System.nanoTime()
+            return super.push(item)
+        }
+
+        override fun pop(): Step {
+            stepStartNanos = System.nanoTime()
+            return super.pop()
+        }
+
+        override fun clear() {
+            stepStartNanos = System.nanoTime()
+            super.clear()
+        }
+    }
 }
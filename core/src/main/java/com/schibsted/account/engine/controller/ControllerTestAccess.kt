@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.engine.controller
+
+import androidx.annotation.RestrictTo
+import androidx.annotation.VisibleForTesting
+import com.schibsted.account.engine.step.Step
+
+/**
+ * Gives tests and benchmarks in other modules access to the navigation of a controller, which is internal to this
+ * module. Not to be used by the SDK or by apps.
+ */
+@RestrictTo(RestrictTo.Scope.TESTS)
+@VisibleForTesting(otherwise = VisibleForTesting.NONE)
+object ControllerTestAccess {
+
+    /**
+     * Pushes the steps onto the navigation of the controller, as if the flow had completed them
+     */
+    @JvmStatic
+    fun pushSteps(controller: Controller<*>, vararg steps: Step) = controller.pushSteps(*steps)
+
+    /**
+     * @return The steps of the navigation of the controller, from the first to the current one
+     */
+    @JvmStatic
+    fun steps(controller: Controller<*>): List<Step> = controller.steps()
+}
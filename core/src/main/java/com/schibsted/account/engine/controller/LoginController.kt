@@ -9,7 +9,6 @@ import android.os.Parcel
 import android.os.Parcelable
 import com.schibsted.account.AccountService
 import com.schibsted.account.Events
-import com.schibsted.account.common.util.readStack
 import com.schibsted.account.engine.input.Credentials
 import com.schibsted.account.engine.integration.CallbackProvider
 import com.schibsted.account.engine.integration.ResultCallback
@@ -41,7 +40,7 @@ class LoginController @JvmOverloads constructor(
 ) : VerificationController<LoginContract>() {
 
     constructor(parcel: Parcel) : this(parcel.readInt() != 0, parcel.createStringArray(), parcel.readParcelable<UserId>(UserId::class.java.classLoader)) {
-        super.navigation.addAll(parcel.readStack(LoginController::class.java.classLoader))
+        restoreNavigation(parcel)
     }
 
     override fun evaluate(contract: LoginContract) {
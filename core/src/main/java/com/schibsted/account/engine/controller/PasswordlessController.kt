@@ -9,7 +9,6 @@ import android.os.Parcel
 import android.os.Parcelable
 import com.schibsted.account.AccountService
 import com.schibsted.account.Events
-import com.schibsted.account.common.util.readStack
 import com.schibsted.account.engine.input.Identifier
 import com.schibsted.account.engine.input.VerificationCode
 import com.schibsted.account.engine.integration.CallbackProvider
@@ -21,6 +20,7 @@ import com.schibsted.account.engine.operation.MissingFieldsOperation
 import com.schibsted.account.engine.operation.ResendCodeOperation
 import com.schibsted.account.engine.operation.SendValidationCodeOperation
 import com.schibsted.account.engine.operation.VerifyCodeOperation
+import com.schibsted.account.engine.step.Step
 import com.schibsted.account.engine.step.StepNoPwIdentify
 import com.schibsted.account.engine.step.StepNoPwValidationCode
 import com.schibsted.account.model.LoginResult
@@ -49,7 +49,7 @@ class PasswordlessController @JvmOverloads constructor(
             parcel.readInt() != 0,
             Locale(parcel.readString()),
             parcel.createStringArray()) {
-        super.navigation.addAll(parcel.readStack(PasswordlessController::class.java.classLoader))
+        restoreNavigation(parcel)
     }
 
     override fun evaluate(contract: PasswordlessContract) {
@@ -137,8 +137,8 @@ class PasswordlessController @JvmOverloads constructor(
 
         if (top is StepNoPwIdentify) {
             ResendCodeOperation(top.passwordlessToken, { resultCallback.onError(it.toClientError()) }, {
-                super.navigation.pop()
-                super.navigation.push(top.copy(passwordlessToken = it))
+                // Replaced in place, as popping and pushing would record a span for a step which did not complete
+                super.navigation[super.navigation.size - 1] = top.copy(passwordlessToken = it)
                 resultCallback.onSuccess(NoValue)
             })
         } else {
@@ -156,6 +156,11 @@ class PasswordlessController @JvmOverloads constructor(
         getOrRequestIdentifier(contract)
     }
 
+    /**
+     * The identifier and the passwordless token are enough to resume with the input of the verification code
+     */
+    override fun isResumable(step: Step): Boolean = step is StepNoPwIdentify
+
     override fun writeToParcel(parcel: Parcel, flags: Int) {
         parcel.writeInt(if (verifyUser) 1 else 0)
         parcel.writeString(this.locale.toString())
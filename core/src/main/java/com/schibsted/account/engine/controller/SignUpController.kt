@@ -7,7 +7,6 @@ package com.schibsted.account.engine.controller
 import android.os.Parcel
 import android.os.Parcelable
 import com.schibsted.account.common.util.Logger
-import com.schibsted.account.common.util.readStack
 import com.schibsted.account.engine.input.Agreements
 import com.schibsted.account.engine.input.Credentials
 import com.schibsted.account.engine.input.Identifier
@@ -40,7 +39,7 @@ import java.net.URI
  */
 class SignUpController(private val baseRedirectUri: URI, @OIDCScope private val scopes: Array<String>) : Controller<SignUpContract>() {
     constructor(parcel: Parcel) : this(URI.create(parcel.readString()), parcel.createStringArray()) {
-        this.navigation.addAll(parcel.readStack(SignUpController::class.java.classLoader))
+        restoreNavigation(parcel)
     }
 
     override fun evaluate(contract: SignUpContract) {
@@ -8,7 +8,7 @@ import android.os.Parcel
 import android.os.Parcelable
 import com.schibsted.account.engine.integration.InputProvider
 import com.schibsted.account.engine.integration.ResultCallback
-import com.schibsted.account.engine.operation.AccountStatusOperation
+import com.schibsted.account.engine.operation.AccountStatusCache
 import com.schibsted.account.model.NoValue
 import com.schibsted.account.network.response.AccountStatusResponse
 
@@ -20,14 +20,22 @@ data class Identifier(val identifierType: IdentifierType, val identifier: String
     }
 
     /**
-     * Asks Schibsted account for the account status of this identifier
+     * Asks Schibsted account for the account status of this identifier. Statuses looked up recently are reused
      */
     fun getAccountStatus(callbackData: ResultCallback<AccountStatusResponse>) {
-        AccountStatusOperation(this, { callbackData.onError(it.toClientError()) }, {
+        AccountStatusCache.INSTANCE.get(this, { callbackData.onError(it.toClientError()) }, {
             callbackData.onSuccess(it)
         })
     }
 
+    /**
+     * Starts looking up the account status of this identifier, so that it is likely to be available by the time
+     * [getAccountStatus] is called
+     */
+    fun prefetchAccountStatus() {
+        AccountStatusCache.INSTANCE.prefetch(this)
+    }
+
     constructor(source: Parcel) : this(
             IdentifierType.values()[source.readInt()],
             source.readString()
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.engine.operation
+
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Metrics
+import com.schibsted.account.engine.input.Identifier
+import com.schibsted.account.model.error.NetworkError
+import com.schibsted.account.network.response.AccountStatusResponse
+import java.util.Locale
+
+/**
+ * Caches the account status per identifier for a short while, so that submitting the same identifier again, or one
+ * which was looked up ahead of time, does not require new requests. An identifier which is being looked up already
+ * waits for the pending lookup instead of starting another one. Failures are not cached.
+ *
+ * The least recently used entries are dropped once there are more than [maxEntries].
+ */
+internal class AccountStatusCache(
+    private val clock: () -> Long = { System.currentTimeMillis() },
+    private val fetch: (Identifier, (NetworkError) -> Unit, (AccountStatusResponse) -> Unit) -> Unit = { identifier, failure, success ->
+        AccountStatusOperation(identifier, failure, success)
+    }
+) {
+
+    private class Entry(val status: AccountStatusResponse, val storedAt: Long)
+
+    private class Waiter(val failure: (NetworkError) -> Unit, val success: (AccountStatusResponse) -> Unit)
+
+    private val lock = Any()
+
+    private val entries = object : LinkedHashMap<Identifier, Entry>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Identifier, Entry>): Boolean = size > maxEntries
+    }
+
+    private val pending = mutableMapOf<Identifier, MutableList<Waiter>>()
+
+    /**
+     * Gets the account status, from the cache if possible. Callbacks of cache hits are invoked straight away.
+     */
+    fun get(identifier: Identifier, failure: (NetworkError) -> Unit, success: (AccountStatusResponse) -> Unit) {
+        val key = key(identifier)
+        val cached: AccountStatusResponse?
+        val isFirst: Boolean
+        synchronized(lock) {
+            cached = entries[key]?.takeIf { clock() - it.storedAt <= timeToLive }?.status
+            if (cached == null) {
+                val waiters = pending.getOrPut(key) { mutableListOf() }
+                isFirst = waiters.isEmpty()
+                waiters.add(Waiter(failure, success))
+            } else {
+                isFirst = false
+            }
+        }
+
+        when {
+            cached != null -> {
+                Metrics.increment("account_status_cache.hit")
+                success(cached)
+            }
+            isFirst -> {
+                Metrics.increment("account_status_cache.miss")
+                try {
+                    fetch(identifier, { error -> complete(key) { it.failure(error) } }, { status ->
+                        synchronized(lock) { entries[key] = Entry(status, clock()) }
+                        complete(key) { it.success(status) }
+                    })
+                } catch (e: Exception) {
+                    // Otherwise the waiters would never be notified, and later lookups would keep joining them
+                    Logger.error(TAG, "Failed to look up the account status", e)
+                    val error = NetworkError(-1, "unexpected_error", e.message ?: e.javaClass.simpleName, "")
+                    complete(key) { it.failure(error) }
+                }
+            }
+            else -> Metrics.increment("account_status_cache.joined")
+        }
+    }
+
+    /**
+     * Looks up the account status ahead of time, so that it is likely to be cached when it is needed
+     */
+    fun prefetch(identifier: Identifier) = get(identifier, {}, {})
+
+    fun invalidate(identifier: Identifier) {
+        synchronized(lock) { entries.remove(key(identifier)) }
+    }
+
+    fun clear() {
+        synchronized(lock) { entries.clear() }
+    }
+
+    private fun complete(key: Identifier, notify: (Waiter) -> Unit) {
+        val waiters = synchronized(lock) { pending.remove(key) }
+        waiters?.forEach(notify)
+    }
+
+    companion object {
+        private const val TAG = "AccountStatusCache"
+        private const val INITIAL_CAPACITY = 16
+        private const val LOAD_FACTOR = 0.75f
+
+        /**
+         * For how long an account status is served from the cache. Defaults to 30 seconds
+         */
+        @JvmStatic
+        var timeToLive: Long = 30_000L
+
+        /**
+         * The maximum number of identifiers to cache the account status of
+         */
+        @JvmStatic
+        var maxEntries: Int = 16
+
+        internal val INSTANCE = AccountStatusCache()
+
+        private fun key(identifier: Identifier): Identifier = when (identifier.identifierType) {
+            Identifier.IdentifierType.EMAIL -> identifier.copy(identifier = identifier.identifier.trim().toLowerCase(Locale.ROOT))
+            Identifier.IdentifierType.SMS -> identifier.copy(identifier = identifier.identifier.trim())
+        }
+    }
+}
@@ -6,6 +6,7 @@ package com.schibsted.account.engine.operation
 
 import com.schibsted.account.engine.input.Identifier
 import com.schibsted.account.model.error.NetworkError
+import com.schibsted.account.network.Deadline
 import com.schibsted.account.network.NetworkCallback
 import com.schibsted.account.network.ServiceHolder
 import com.schibsted.account.network.response.AccountStatusResponse
@@ -19,25 +20,33 @@ internal class AccountStatusOperation(
 ) {
 
     init {
+        val span = startOperationSpan("account_status")
+        val deadline = Deadline.after(ServiceHolder.operationTimeoutMs)
         ClientTokenOperation(
-                { failure(it) },
+                {
+                    span.fail(it)
+                    failure(it)
+                },
                 { clientToken ->
                     val requestCall: Call<ApiContainer<AccountStatusResponse>> = if (identifier.identifierType == Identifier.IdentifierType.EMAIL) {
-                        ServiceHolder.clientService.getEmailSignUpStatus(clientToken, identifier.identifier)
+                        ServiceHolder.clientService.getEmailSignUpStatus(clientToken, identifier.identifier, deadline)
                     } else {
-                        ServiceHolder.clientService.getPhoneSignUpStatus(clientToken, identifier.identifier)
+                        ServiceHolder.clientService.getPhoneSignUpStatus(clientToken, identifier.identifier, deadline)
                     }
 
                     requestCall.enqueue(object : NetworkCallback<ApiContainer<AccountStatusResponse>>("Verifying status of the user") {
                         override fun onSuccess(result: ApiContainer<AccountStatusResponse>) {
+                            span.end()
                             success(result.data)
                         }
 
                         override fun onError(error: NetworkError) {
+                            span.fail(error)
                             failure(error)
                         }
                     })
-                }
+                },
+                deadline
         )
     }
 }
@@ -17,15 +17,18 @@ internal class AgreementsCheckOperation(
 ) {
 
     init {
+        val span = startOperationSpan("agreements_check")
         val token = requireNotNull(user.token) { "Cannot get agreements status for logged out user" }
         user.userService.getUserAgreements(user.userId.id, token)
                 .enqueue(
                         object : NetworkCallback<ApiContainer<AgreementsResponse>>("Fetching user agreements state") {
                             override fun onSuccess(result: ApiContainer<AgreementsResponse>) {
+                                span.end()
                                 success(result.data.agreements)
                             }
 
                             override fun onError(error: NetworkError) {
+                                span.fail(error)
                                 failure(error)
                             }
                         })
@@ -4,36 +4,51 @@
 
 package com.schibsted.account.engine.operation
 
+import com.schibsted.account.AccountService
 import com.schibsted.account.ClientConfiguration
 import com.schibsted.account.model.ClientToken
 import com.schibsted.account.model.error.NetworkError
+import com.schibsted.account.network.Deadline
 import com.schibsted.account.network.NetworkCallback
 import com.schibsted.account.network.ServiceHolder
 import com.schibsted.account.network.response.ApiContainer
 import com.schibsted.account.network.response.ClientInfo
+import com.schibsted.account.persistence.ClientInfoCache
 
 /**
- * A task to get client credentials for a Schibsted account client
+ * A task to get client credentials for a Schibsted account client. Both requests must complete within
+ * [ServiceHolder.operationTimeoutMs]. The result is stored in the [clientInfoCache], which defaults to the one of the
+ * [AccountService], if any
  */
-class ClientInfoOperation constructor(
+class ClientInfoOperation @JvmOverloads constructor(
     private val failure: (error: NetworkError) -> Unit,
-    private val success: (token: ClientInfo) -> Unit
+    private val success: (token: ClientInfo) -> Unit,
+    private val clientInfoCache: ClientInfoCache? = AccountService.clientInfoCache
 ) {
 
     init {
-        ClientTokenOperation({ failure(it) },
+        val span = startOperationSpan("client_info")
+        val deadline = Deadline.after(ServiceHolder.operationTimeoutMs)
+        ClientTokenOperation({
+                    span.fail(it)
+                    failure(it)
+                },
                 { token: ClientToken ->
-                    ServiceHolder.clientService.getClientInfo(token, ClientConfiguration.get().clientId)
+                    ServiceHolder.clientService.getClientInfo(token, ClientConfiguration.get().clientId, deadline)
                             .enqueue(object : NetworkCallback<ApiContainer<ClientInfo>>("Retrieving client information") {
                                 override fun onSuccess(result: ApiContainer<ClientInfo>) {
+                                    clientInfoCache?.store(result.data)
+                                    span.end()
                                     success(result.data)
                                 }
 
                                 override fun onError(error: NetworkError) {
+                                    span.fail(error)
                                     failure(error)
                                 }
                             })
-                }
+                },
+                deadline
         )
     }
 }
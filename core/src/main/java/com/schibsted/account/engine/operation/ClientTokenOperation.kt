@@ -7,26 +7,32 @@ package com.schibsted.account.engine.operation
 import com.schibsted.account.ClientConfiguration
 import com.schibsted.account.model.ClientToken
 import com.schibsted.account.model.error.NetworkError
+import com.schibsted.account.network.Deadline
 import com.schibsted.account.network.NetworkCallback
 import com.schibsted.account.network.ServiceHolder
 import com.schibsted.account.network.response.TokenResponse
 
 /**
  * A task to get client credentials for a Schibsted account client
+ * @param deadline The deadline of the operation this task is part of, if any
  */
 internal class ClientTokenOperation internal constructor(
     private val failure: (error: NetworkError) -> Unit,
-    private val success: (token: ClientToken) -> Unit
+    private val success: (token: ClientToken) -> Unit,
+    deadline: Deadline? = null
 ) {
 
     init {
-        ServiceHolder.oAuthService.tokenFromClientCredentials(ClientConfiguration.get().clientId, ClientConfiguration.get().clientSecret)
+        val span = startOperationSpan("client_token")
+        ServiceHolder.oAuthService.tokenFromClientCredentials(ClientConfiguration.get().clientId, ClientConfiguration.get().clientSecret, deadline)
                 .enqueue(object : NetworkCallback<TokenResponse>("Initializing client session") {
                     override fun onError(error: NetworkError) {
+                        span.fail(error)
                         failure(error)
                     }
 
                     override fun onSuccess(result: TokenResponse) {
+                        span.end()
                         success(result)
                     }
                 })
@@ -24,14 +24,17 @@ internal class LoginOperation(
 ) {
 
     init {
+        val span = startOperationSpan("login")
         ServiceHolder.oAuthService.tokenFromPassword(ClientConfiguration.get().clientId,
                 ClientConfiguration.get().clientSecret, credentials.identifier.identifier, credentials.password, *scopes)
                 .enqueue(object : NetworkCallback<TokenResponse>("Identifying with username and password in LoginOperation") {
                     override fun onError(error: NetworkError) {
+                        span.fail(error)
                         failure(error)
                     }
 
                     override fun onSuccess(result: TokenResponse) {
+                        span.end()
                         success(result)
                     }
                 })
@@ -17,14 +17,17 @@ internal class MissingFieldsOperation(
 ) {
 
     init {
+        val span = startOperationSpan("missing_fields")
         val token = requireNotNull(user.token) { "Cannot get missing fields for logged out user" }
         user.userService.getMissingRequiredFields(user.userId.id, token)
                 .enqueue(object : NetworkCallback<ApiContainer<RequiredFieldsResponse>>("Fetching required fields") {
                     override fun onError(error: NetworkError) {
+                        span.fail(error)
                         resError(error)
                     }
 
                     override fun onSuccess(result: ApiContainer<RequiredFieldsResponse>) {
+                        span.end()
                         resSuccess(result.data.fields)
                     }
                 })
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.engine.operation
+
+import com.schibsted.account.common.util.Tracing
+import com.schibsted.account.model.error.NetworkError
+
+/**
+ * Starts the span of an operation, named after it
+ */
+internal fun startOperationSpan(operation: String): Tracing.ActiveSpan = Tracing.start("operation.$operation")
+
+/**
+ * Ends the span of an operation which failed with the error
+ */
+internal fun Tracing.ActiveSpan.fail(error: NetworkError) =
+        end(Tracing.Outcome.FAILURE, mapOf("error" to error.type, "code" to error.code.toString()))
@@ -20,14 +20,17 @@ internal class ResendCodeOperation(
 ) {
 
     init {
+        val span = startOperationSpan("resend_code")
         ServiceHolder.passwordlessService.resendCode(ClientConfiguration.get().clientId, passwordlessToken)
                 .enqueue(
                         object : NetworkCallback<PasswordlessToken>("Resending confirmation code") {
                             override fun onError(error: NetworkError) {
+                                span.fail(error)
                                 resError(error)
                             }
 
                             override fun onSuccess(result: PasswordlessToken) {
+                                span.end()
                                 resSuccess(result)
                             }
                         })
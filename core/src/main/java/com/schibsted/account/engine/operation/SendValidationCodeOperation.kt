@@ -23,15 +23,18 @@ internal class SendValidationCodeOperation(
 ) {
 
     init {
+        val span = startOperationSpan("send_validation_code")
         ServiceHolder.passwordlessService.sendValidationCode(ClientConfiguration.get().clientId, identifier.identifier,
                 identifier.identifierType.value, locale)
                 .enqueue(
                         object : NetworkCallback<PasswordlessToken>("Logging in passwordless") {
                             override fun onError(error: NetworkError) {
+                                span.fail(error)
                                 resError(error)
                             }
 
                             override fun onSuccess(result: PasswordlessToken) {
+                                span.end()
                                 resSuccess(result)
                             }
                         })
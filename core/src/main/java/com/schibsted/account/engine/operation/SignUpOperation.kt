@@ -4,6 +4,7 @@
 
 package com.schibsted.account.engine.operation
 
+import com.schibsted.account.engine.input.Identifier
 import com.schibsted.account.model.ClientToken
 import com.schibsted.account.model.error.NetworkError
 import com.schibsted.account.network.NetworkCallback
@@ -24,15 +25,22 @@ internal class SignUpOperation(
 ) {
 
     init {
+        val span = startOperationSpan("sign_up")
         ClientTokenOperation(
-                { resError(it) },
+                {
+                    span.fail(it)
+                    resError(it)
+                },
                 { token: ClientToken ->
                     ServiceHolder.clientService.signUp(token, email, redirectUri.toString(), params).enqueue(object : NetworkCallback<ApiContainer<ProfileData>>("Signing up user") {
                         override fun onSuccess(result: ApiContainer<ProfileData>) {
+                            AccountStatusCache.INSTANCE.invalidate(Identifier(Identifier.IdentifierType.EMAIL, email))
+                            span.end()
                             resSuccess(result.data)
                         }
 
                         override fun onError(error: NetworkError) {
+                            span.fail(error)
                             resError(error)
                         }
                     })
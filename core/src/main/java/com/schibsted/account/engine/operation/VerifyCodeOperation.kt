@@ -27,14 +27,17 @@ internal class VerifyCodeOperation(
 ) {
 
     init {
+        val span = startOperationSpan("verify_code")
         ServiceHolder.oAuthService.tokenFromPasswordless(ClientConfiguration.get().clientId, ClientConfiguration.get().clientSecret,
                 identifier.identifier, verificationCode.verificationCode, passwordlessToken.value, *scopes)
                 .enqueue(object : NetworkCallback<TokenResponse>("Validating passwordless token") {
                     override fun onError(error: NetworkError) {
+                        span.fail(error)
                         resError(error)
                     }
 
                     override fun onSuccess(result: TokenResponse) {
+                        span.end()
                         resSuccess(result)
                     }
                 })
@@ -40,6 +40,7 @@ open class ClientError(val errorType: ErrorType, val message: String) : Parcelab
 
         TOO_MANY_REQUESTS,
         CONNECTION_TIMED_OUT,
+        SERVICE_UNAVAILABLE,
         UNKNOWN_SPID_ERROR,
 
         NETWORK_ERROR,
@@ -42,6 +42,7 @@ data class NetworkError(val code: Int, val type: String, val description: String
             "network_error" -> ClientError(ClientError.ErrorType.NETWORK_ERROR, "A network error occurred")
             "parse_error" -> ClientError(ClientError.ErrorType.UNKNOWN_ERROR, "Response from network request could not be parsed")
             "connection_timed_out" -> ClientError(ClientError.ErrorType.CONNECTION_TIMED_OUT, "The connection has timed out")
+            "circuit_open" -> ClientError(ClientError.ErrorType.SERVICE_UNAVAILABLE, "The service is temporarily unavailable, try again later")
             else -> unknownSpidError()
         }
         type == "invalid_request" -> when {
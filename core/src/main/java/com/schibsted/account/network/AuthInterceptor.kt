@@ -7,6 +7,7 @@ package com.schibsted.account.network
 import android.os.ConditionVariable
 import androidx.annotation.VisibleForTesting
 import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Metrics
 import com.schibsted.account.common.util.safeUrl
 import com.schibsted.account.session.User
 import okhttp3.HttpUrl
@@ -144,7 +145,7 @@ class AuthInterceptor constructor(
                     resp
                 }
                 // All subsequent refresh requests will wait instead
-                lock.block(timeout) -> {
+                awaitRefresh() -> {
                     val newToken = user.token
                     if (newToken != null) {
                         Logger.verbose(TAG, "Re-firing request (ReqId:$reqId) after waiting for token refreshing")
@@ -163,6 +164,13 @@ class AuthInterceptor constructor(
                 }
             }
 
+    private fun awaitRefresh(): Boolean {
+        Metrics.increment("auth.refresh_wait.count")
+        return Metrics.time("auth.refresh_wait.duration") { lock.block(timeout) }.also {
+            if (!it) Metrics.increment("auth.refresh_wait.timed_out")
+        }
+    }
+
     companion object {
         private const val TAG = "AuthInterceptor"
     }
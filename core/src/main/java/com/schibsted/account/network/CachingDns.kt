@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Metrics
+import okhttp3.Dns
+import java.net.InetAddress
+import java.net.UnknownHostException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Caches resolved addresses for [timeToLive]. When resolving a host fails, addresses which expired less than
+ * [maxStale] ago are used instead, as the host most likely still lives there.
+ */
+internal class CachingDns(
+    private val delegate: Dns = Dns.SYSTEM,
+    private val executor: Executor = Executors.newSingleThreadExecutor { Thread(it, "AccountSdkDns").apply { isDaemon = true } },
+    private val clock: () -> Long = { System.currentTimeMillis() }
+) : Dns {
+
+    private class Entry(val addresses: List<InetAddress>, val resolvedAt: Long)
+
+    private val entries = ConcurrentHashMap<String, Entry>()
+
+    @Throws(UnknownHostException::class)
+    override fun lookup(hostname: String): List<InetAddress> {
+        val entry = entries[hostname]
+        val age = entry?.let { clock() - it.resolvedAt }
+        if (entry != null && age != null && age <= timeToLive) {
+            Metrics.increment("dns.cache.hit")
+            return entry.addresses
+        }
+
+        Metrics.increment("dns.cache.miss")
+        return try {
+            resolve(hostname)
+        } catch (e: UnknownHostException) {
+            if (entry == null || age == null || age > timeToLive + maxStale) throw e
+            Logger.warn(TAG, "Failed to resolve $hostname, using addresses resolved $age ms ago", e)
+            Metrics.increment("dns.stale_fallback")
+            entry.addresses
+        }
+    }
+
+    /**
+     * Resolves the host in the background, so it is cached by the time it is needed
+     */
+    fun prefetch(hostname: String) {
+        executor.execute {
+            runCatching { resolve(hostname) }
+                    .onSuccess { Logger.verbose(TAG, "Prefetched the addresses of $hostname") }
+                    .onFailure { Logger.warn(TAG, "Failed to prefetch the addresses of $hostname", it) }
+        }
+    }
+
+    private fun resolve(hostname: String): List<InetAddress> {
+        val addresses = Metrics.time("dns.resolve") { delegate.lookup(hostname) }
+        entries[hostname] = Entry(addresses, clock())
+        return addresses
+    }
+
+    companion object {
+        private const val TAG = "CachingDns"
+
+        /**
+         * For how long resolved addresses are used without resolving the host again. Defaults to 5 minutes
+         */
+        @JvmStatic
+        var timeToLive: Long = TimeUnit.MINUTES.toMillis(5)
+
+        /**
+         * For how long after expiring addresses are used when resolving the host fails. Defaults to 24 hours
+         */
+        @JvmStatic
+        var maxStale: Long = TimeUnit.HOURS.toMillis(24)
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+import java.io.IOException
+
+/**
+ * A circuit breaker for a single endpoint. While [State.CLOSED], requests pass and consecutive failures are
+ * counted. Once [Config.failureThreshold] is reached, the circuit opens and requests fail fast for
+ * [Config.openDurationMs]. Afterwards it is [State.HALF_OPEN] and lets [Config.halfOpenMaxCalls] trial requests
+ * through: a success closes the circuit, a failure opens it again.
+ * @param endpoint The endpoint guarded by this circuit breaker
+ * @param config Provides the thresholds to use
+ * @param onStateChange Invoked after every state change
+ */
+internal class CircuitBreaker(
+    val endpoint: String,
+    private val config: () -> Config,
+    private val onStateChange: (endpoint: String, from: State, to: State) -> Unit = { _, _, _ -> },
+    private val clock: () -> Long = { System.currentTimeMillis() }
+) {
+
+    enum class State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * The thresholds of a circuit breaker
+     * @param failureThreshold The number of consecutive failures after which the circuit opens
+     * @param openDurationMs For how long requests fail fast before trial requests are let through
+     * @param halfOpenMaxCalls The number of concurrent trial requests while half open
+     */
+    data class Config @JvmOverloads constructor(
+        val failureThreshold: Int = 5,
+        val openDurationMs: Long = 30_000,
+        val halfOpenMaxCalls: Int = 1
+    ) {
+        init {
+            require(failureThreshold > 0 && halfOpenMaxCalls > 0) { "Thresholds must be positive" }
+        }
+    }
+
+    var state: State = State.CLOSED
+        @Synchronized get
+        private set
+
+    private var consecutiveFailures = 0
+    private var openedAt = 0L
+    private var trialCalls = 0
+
+    /**
+     * @return true if a request may be performed. Every permitted request must be reported to either
+     * [onSuccess] or [onFailure], or given back with [release]
+     */
+    @Synchronized
+    fun tryAcquire(): Boolean {
+        if (state == State.OPEN && clock() - openedAt >= config().openDurationMs) {
+            transition(State.HALF_OPEN)
+        }
+
+        return when (state) {
+            State.CLOSED -> true
+            State.OPEN -> false
+            State.HALF_OPEN -> if (trialCalls < config().halfOpenMaxCalls) {
+                trialCalls++
+                true
+            } else {
+                false
+            }
+        }
+    }
+
+    @Synchronized
+    fun onSuccess() {
+        consecutiveFailures = 0
+        if (state == State.HALF_OPEN) {
+            transition(State.CLOSED)
+        }
+    }
+
+    @Synchronized
+    fun onFailure() {
+        consecutiveFailures++
+        when (state) {
+            State.HALF_OPEN -> open()
+            State.CLOSED -> if (consecutiveFailures >= config().failureThreshold) open()
+            State.OPEN -> Unit
+        }
+    }
+
+    /**
+     * Gives back a permit without reporting an outcome, for requests which did not complete, so that a trial request
+     * which failed unexpectedly does not keep the circuit half open
+     */
+    @Synchronized
+    fun release() {
+        if (state == State.HALF_OPEN && trialCalls > 0) {
+            trialCalls--
+        }
+    }
+
+    private fun open() {
+        openedAt = clock()
+        transition(State.OPEN)
+    }
+
+    private fun transition(to: State) {
+        val from = state
+        state = to
+        trialCalls = 0
+        if (to == State.CLOSED) {
+            consecutiveFailures = 0
+        }
+        if (from != to) {
+            onStateChange(endpoint, from, to)
+        }
+    }
+}
+
+/**
+ * Thrown instead of performing a request while the circuit breaker of its endpoint is open
+ */
+class CircuitOpenException(endpoint: String) : IOException("Circuit breaker for $endpoint is open, failing fast")
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+import android.content.Intent
+import com.schibsted.account.AccountService
+import com.schibsted.account.Events
+import com.schibsted.account.common.util.Logger
+import okhttp3.FormBody
+import okhttp3.Interceptor
+import okhttp3.Request
+import okhttp3.Response
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Guards the OAuth endpoints with one [CircuitBreaker] per endpoint and grant type, so that a degraded token
+ * service is not flooded with refreshes and logins. Connection failures, timeouts, 429 and 5xx responses count as
+ * failures. While a circuit is open, requests fail with a [CircuitOpenException]. State changes are broadcast as
+ * [Events.ACTION_CIRCUIT_BREAKER_STATE_CHANGE].
+ */
+internal class CircuitBreakerInterceptor(
+    private val config: () -> CircuitBreaker.Config = { ServiceHolder.oAuthCircuitBreaker }
+) : Interceptor {
+
+    private val breakers = ConcurrentHashMap<String, CircuitBreaker>()
+
+    @Throws(IOException::class)
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val request = chain.request()
+        val endpoint = endpointOf(request)
+        val breaker = breakers.getOrPut(endpoint) { CircuitBreaker(endpoint, config, ::broadcast) }
+
+        if (!breaker.tryAcquire()) {
+            throw CircuitOpenException(breaker.endpoint)
+        }
+
+        var reported = false
+        try {
+            val response = chain.proceed(request)
+            if (response.code == 429 || response.code >= 500) {
+                breaker.onFailure()
+            } else {
+                breaker.onSuccess()
+            }
+            reported = true
+            return response
+        } catch (e: IOException) {
+            breaker.onFailure()
+            reported = true
+            throw e
+        } finally {
+            if (!reported) {
+                breaker.release()
+            }
+        }
+    }
+
+    private fun broadcast(endpoint: String, from: CircuitBreaker.State, to: CircuitBreaker.State) {
+        Logger.warn(TAG, "Circuit breaker for $endpoint changed from $from to $to")
+        AccountService.localBroadcastManager?.sendBroadcast(Intent(Events.ACTION_CIRCUIT_BREAKER_STATE_CHANGE)
+                .putExtra(Events.EXTRA_ENDPOINT, endpoint)
+                .putExtra(Events.EXTRA_CIRCUIT_BREAKER_STATE, to.name))
+    }
+
+    companion object {
+        private const val TAG = "CircuitBreaker"
+        private const val PARAM_GRANT_TYPE = "grant_type"
+
+        /**
+         * Identifies an endpoint by its path and, for form requests, its grant type. For example "oauth/token:password"
+         */
+        internal fun endpointOf(request: Request): String {
+            val path = request.url.encodedPath.trimStart('/')
+            val form = request.body as? FormBody ?: return path
+            val grantType = (0 until form.size).find { form.name(it) == PARAM_GRANT_TYPE }?.let { form.value(it) }
+            return grantType?.let { "$path:$it" } ?: path
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+import java.net.SocketTimeoutException
+import java.util.concurrent.TimeUnit
+
+/**
+ * A point in time by which an operation spanning several requests must complete. Each request of the operation
+ * carries the deadline, and its timeouts are limited to the time remaining, see [DeadlineInterceptor].
+ */
+class Deadline internal constructor(private val expiresAtNanos: Long, private val clock: () -> Long = { System.nanoTime() }) {
+
+    val remainingMillis: Long
+        get() = maxOf(0, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - clock()))
+
+    val isExpired: Boolean
+        get() = expiresAtNanos - clock() <= 0
+
+    internal fun toHeader(): String = expiresAtNanos.toString()
+
+    companion object {
+        /**
+         * An internal header which passes the deadline to the [DeadlineInterceptor]. It is never sent
+         */
+        const val HEADER = "X-Schacc-Deadline"
+
+        @JvmStatic
+        fun after(durationMs: Long): Deadline = Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMs))
+
+        internal fun fromHeader(value: String?): Deadline? = value?.toLongOrNull()?.let { Deadline(it) }
+    }
+}
+
+/**
+ * Thrown instead of performing a request when the deadline of its operation has passed
+ */
+class DeadlineExceededException(message: String) : SocketTimeoutException(message)
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.safeUrl
+import okhttp3.Interceptor
+import okhttp3.Response
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+/**
+ * Sets the timeouts of a request to the time remaining until its [Deadline], if it has one. When adaptive timeouts
+ * are enabled, the timeouts are further limited based on the latencies observed for the endpoint, so requests to a
+ * slow network fail after a predictable time rather than after the client's fixed timeout.
+ * @param adaptive Whether to adapt timeouts to observed latencies
+ */
+internal class DeadlineInterceptor(
+    private val adaptive: () -> Boolean = { ServiceHolder.adaptiveTimeouts }
+) : Interceptor {
+
+    private val latencies = ConcurrentHashMap<String, LatencyHistogram>()
+
+    @Throws(IOException::class)
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val original = chain.request()
+        val deadline = Deadline.fromHeader(original.header(Deadline.HEADER))
+        val request = if (deadline != null) original.newBuilder().removeHeader(Deadline.HEADER).build() else original
+        val adaptive = adaptive()
+        val endpoint = if (adaptive) HttpMetrics.normalise(request.url) else null
+
+        var timeout = chain.readTimeoutMillis().toLong()
+        endpoint?.let { adaptiveTimeout(it, timeout) }?.let { timeout = it }
+        if (deadline != null) {
+            // Less than a millisecond left counts as expired, as a timeout of zero means no timeout at all
+            val remaining = deadline.remainingMillis
+            if (remaining <= 0) {
+                throw DeadlineExceededException("The deadline passed before requesting ${request.url.toString().safeUrl()}")
+            }
+            timeout = if (timeout > 0) minOf(timeout, remaining).coerceAtLeast(1) else remaining
+        }
+
+        if (timeout == chain.readTimeoutMillis().toLong() && endpoint == null) {
+            return chain.proceed(request)
+        }
+
+        Logger.verbose(TAG, "Requesting ${request.url.toString().safeUrl()} with a timeout of $timeout ms")
+        val start = System.nanoTime()
+        val response = chain.withConnectTimeout(timeout.toInt(), TimeUnit.MILLISECONDS)
+                .withReadTimeout(timeout.toInt(), TimeUnit.MILLISECONDS)
+                .withWriteTimeout(timeout.toInt(), TimeUnit.MILLISECONDS)
+                .proceed(request)
+        endpoint?.let { latencies.getOrPut(it) { LatencyHistogram() }.record(System.nanoTime() - start) }
+        return response
+    }
+
+    /**
+     * @return A multiple of the endpoint's 99th latency percentile, within sensible bounds, or null if there are too
+     * few observations
+     */
+    private fun adaptiveTimeout(endpoint: String, defaultTimeout: Long): Long? {
+        val snapshot = latencies[endpoint]?.snapshot()?.takeIf { it.count >= MIN_SAMPLES } ?: return null
+        val percentile = snapshot.quantileUpperBoundMs(ADAPTIVE_QUANTILE) ?: return null
+        return (percentile * ADAPTIVE_MULTIPLIER).coerceIn(minOf(MIN_ADAPTIVE_TIMEOUT_MS, defaultTimeout), defaultTimeout)
+    }
+
+    companion object {
+        private const val TAG = "DeadlineInterceptor"
+        private const val MIN_SAMPLES = 20
+        private const val ADAPTIVE_QUANTILE = 0.99
+        private const val ADAPTIVE_MULTIPLIER = 3
+        private const val MIN_ADAPTIVE_TIMEOUT_MS = 2_000L
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+import okhttp3.HttpUrl
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Timings of the requests made by the SDK, per endpoint and phase. Recording is disabled by default, and once
+ * enabled the figures can be pulled with [snapshot] and exported to a metrics pipeline.
+ */
+object HttpMetrics {
+    private const val MAX_ENDPOINTS = 64
+    private const val OTHER_ENDPOINTS = "other"
+    private const val PLACEHOLDER = "{id}"
+    private val PARAMETERIZED_COLLECTIONS = setOf("user", "phone", "email", "product", "client")
+    private val NUMERIC = Regex("\\d+")
+
+    enum class Phase {
+        /** Resolving the host name */
+        DNS,
+        /** Establishing the connection, including the TLS handshake */
+        CONNECT,
+        /** The TLS handshake */
+        TLS,
+        /** Writing the request headers and body */
+        REQUEST,
+        /** Waiting for the response headers after the request was written */
+        TIME_TO_FIRST_BYTE,
+        /** Reading the response body */
+        RESPONSE_BODY,
+        /** The whole call, including retries and redirects */
+        TOTAL
+    }
+
+    /**
+     * Whether to record timings. Only affects requests started after it was changed
+     */
+    @JvmStatic
+    var enabled: Boolean = false
+
+    private val endpoints = ConcurrentHashMap<String, Array<LatencyHistogram>>()
+
+    /**
+     * @return The timings recorded since the last [reset], per normalised endpoint, such as "api/2/user/{id}"
+     */
+    @JvmStatic
+    fun snapshot(): Map<String, Map<Phase, LatencyHistogram.Snapshot>> = endpoints.mapValues { (_, histograms) ->
+        Phase.values().associate { it to histograms[it.ordinal].snapshot() }
+    }
+
+    @JvmStatic
+    fun reset() {
+        endpoints.values.forEach { histograms -> histograms.forEach { it.reset() } }
+    }
+
+    internal fun record(endpoint: String, phase: Phase, durationNanos: Long) {
+        val key = if (endpoints.size < MAX_ENDPOINTS || endpoints.containsKey(endpoint)) endpoint else OTHER_ENDPOINTS
+        endpoints.getOrPut(key) { Array(Phase.values().size) { LatencyHistogram() } }[phase.ordinal].record(durationNanos)
+    }
+
+    /**
+     * Replaces user ids, phone numbers, emails and other identifiers in the path, so timings of the same endpoint
+     * are aggregated
+     */
+    internal fun normalise(url: HttpUrl): String {
+        val segments = url.pathSegments.filter { it.isNotEmpty() }
+        return segments.mapIndexed { index, segment ->
+            val previous = segments.getOrNull(index - 1)
+            when {
+                previous != null && previous in PARAMETERIZED_COLLECTIONS -> PLACEHOLDER
+                segment.matches(NUMERIC) || segment.contains('@') -> PLACEHOLDER
+                else -> segment
+            }
+        }.joinToString("/")
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+import com.schibsted.account.network.HttpMetrics.Phase
+import okhttp3.Call
+import okhttp3.EventListener
+import okhttp3.Handshake
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import java.io.IOException
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.Proxy
+
+/**
+ * Records the phases of a single call into [HttpMetrics]. OkHttp delivers the events of a call sequentially, so
+ * no synchronization is needed here.
+ */
+internal class HttpMetricsEventListener(
+    private val endpoint: String,
+    private val clock: () -> Long = { System.nanoTime() }
+) : EventListener() {
+
+    private var callStart = 0L
+    private var dnsStart = 0L
+    private var connectStart = 0L
+    private var tlsStart = 0L
+    private var requestStart = 0L
+    private var requestEnd = 0L
+    private var responseBodyStart = 0L
+
+    override fun callStart(call: Call) {
+        callStart = clock()
+    }
+
+    override fun dnsStart(call: Call, domainName: String) {
+        dnsStart = clock()
+    }
+
+    override fun dnsEnd(call: Call, domainName: String, inetAddressList: List<InetAddress>) {
+        record(Phase.DNS, dnsStart)
+    }
+
+    override fun connectStart(call: Call, inetSocketAddress: InetSocketAddress, proxy: Proxy) {
+        connectStart = clock()
+    }
+
+    override fun secureConnectStart(call: Call) {
+        tlsStart = clock()
+    }
+
+    override fun secureConnectEnd(call: Call, handshake: Handshake?) {
+        record(Phase.TLS, tlsStart)
+    }
+
+    override fun connectEnd(call: Call, inetSocketAddress: InetSocketAddress, proxy: Proxy, protocol: Protocol?) {
+        record(Phase.CONNECT, connectStart)
+    }
+
+    override fun requestHeadersStart(call: Call) {
+        requestStart = clock()
+        requestEnd = 0L
+    }
+
+    override fun requestHeadersEnd(call: Call, request: Request) {
+        requestEnd = clock()
+    }
+
+    override fun requestBodyEnd(call: Call, byteCount: Long) {
+        requestEnd = clock()
+    }
+
+    override fun responseHeadersStart(call: Call) {
+        if (requestEnd > 0) {
+            record(Phase.REQUEST, requestStart, requestEnd)
+            record(Phase.TIME_TO_FIRST_BYTE, requestEnd)
+        }
+    }
+
+    override fun responseBodyStart(call: Call) {
+        responseBodyStart = clock()
+    }
+
+    override fun responseBodyEnd(call: Call, byteCount: Long) {
+        record(Phase.RESPONSE_BODY, responseBodyStart)
+    }
+
+    override fun callEnd(call: Call) {
+        record(Phase.TOTAL, callStart)
+    }
+
+    override fun callFailed(call: Call, ioe: IOException) {
+        record(Phase.TOTAL, callStart)
+    }
+
+    private fun record(phase: Phase, start: Long, end: Long = clock()) {
+        if (start > 0) {
+            HttpMetrics.record(endpoint, phase, end - start)
+        }
+    }
+
+    /**
+     * Creates a listener per call while [HttpMetrics.enabled], and otherwise none at all
+     */
+    class Factory : EventListener.Factory {
+        override fun create(call: Call): EventListener =
+                if (HttpMetrics.enabled) HttpMetricsEventListener(HttpMetrics.normalise(call.request().url)) else NONE
+    }
+}
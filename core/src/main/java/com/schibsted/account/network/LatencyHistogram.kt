@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * A lock-free histogram of durations, with exponentially growing buckets from 1 ms up to about a minute. Recording
+ * is a few atomic increments, so it is safe to do from any thread on every request.
+ */
+class LatencyHistogram {
+
+    private val buckets = AtomicLongArray(BUCKET_BOUNDS_MS.size + 1)
+    private val count = AtomicLong()
+    private val totalNanos = AtomicLong()
+
+    internal fun record(durationNanos: Long) {
+        if (durationNanos < 0) return
+        val durationMs = durationNanos / 1_000_000
+        val index = BUCKET_BOUNDS_MS.indexOfFirst { durationMs <= it }.let { if (it < 0) BUCKET_BOUNDS_MS.size else it }
+        buckets.incrementAndGet(index)
+        count.incrementAndGet()
+        totalNanos.addAndGet(durationNanos)
+    }
+
+    internal fun reset() {
+        for (i in 0 until buckets.length()) buckets.set(i, 0)
+        count.set(0)
+        totalNanos.set(0)
+    }
+
+    /**
+     * @return The recorded durations so far. As recording is not blocked while taking a snapshot, the figures
+     * might be off by a request which is being recorded concurrently
+     */
+    fun snapshot(): Snapshot = Snapshot(count.get(), totalNanos.get() / 1_000_000,
+            BUCKET_BOUNDS_MS, List(buckets.length()) { buckets.get(it) })
+
+    /**
+     * @param count The number of recorded durations
+     * @param totalMs The sum of the recorded durations
+     * @param bucketBoundsMs The inclusive upper bound of every bucket but the last, which has no upper bound
+     * @param bucketCounts The number of durations per bucket, one more than there are bounds
+     */
+    data class Snapshot(
+        val count: Long,
+        val totalMs: Long,
+        val bucketBoundsMs: List<Long>,
+        val bucketCounts: List<Long>
+    ) {
+        val meanMs: Double get() = if (count == 0L) 0.0 else totalMs.toDouble() / count
+
+        /**
+         * @param quantile A value between 0 and 1, for example 0.95
+         * @return An upper bound of the quantile, or null if it is beyond the last bound or nothing was recorded
+         */
+        fun quantileUpperBoundMs(quantile: Double): Long? {
+            val total = bucketCounts.sum()
+            if (total == 0L) return null
+            val rank = Math.ceil(quantile.coerceIn(0.0, 1.0) * total).toLong().coerceAtLeast(1)
+            var seen = 0L
+            bucketCounts.forEachIndexed { index, bucketCount ->
+                seen += bucketCount
+                if (seen >= rank) return bucketBoundsMs.getOrNull(index)
+            }
+            return null
+        }
+    }
+
+    companion object {
+        private val BUCKET_BOUNDS_MS = List(17) { 1L shl it }
+    }
+}
@@ -29,6 +29,9 @@ internal abstract class NetworkCallback<T>(val intent: String) : Callback<T> {
             is JsonSyntaxException -> {
                 onError(NetworkError(-1, "parse_error", description, endpoint))
             }
+            is CircuitOpenException -> {
+                onError(NetworkError(-1, "circuit_open", description, endpoint))
+            }
             is SocketTimeoutException -> {
                 onError(NetworkError(-1, "connection_timed_out", description, endpoint))
             }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+import android.os.Process
+import com.schibsted.account.ClientConfiguration
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Metrics
+import okhttp3.Request
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Moves the cost of the first request off the user's path: resolving and connecting to the environment's host,
+ * and preparing the Retrofit services and Gson adapters. Runs once per process on a low priority thread, unless it
+ * fails, in which case it may be started again.
+ */
+internal object Prewarmer {
+    private const val TAG = "Prewarmer"
+
+    private val started = AtomicBoolean(false)
+
+    fun start() {
+        if (!started.compareAndSet(false, true)) return
+
+        Thread({
+            runCatching {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND)
+                Metrics.time("prewarm.duration") { prewarm() }
+            }.onFailure {
+                Logger.warn(TAG, "Pre-warming failed", it)
+                started.set(false)
+            }
+        }, "AccountSdkPrewarm").apply { isDaemon = true }.start()
+    }
+
+    private fun prewarm() {
+        listOf(ServiceHolder.oAuthService, ServiceHolder.clientService, ServiceHolder.passwordlessService).forEach { it.prewarm() }
+
+        // All clients share the default client's connection pool, so the connection is reused by the first request
+        val request = Request.Builder().url(ClientConfiguration.get().environment).head().build()
+        ServiceHolder.defaultClient.newCall(request).execute().close()
+
+        Metrics.increment("prewarm.completed")
+        Logger.verbose(TAG, "Pre-warmed connection to ${request.url.host}")
+    }
+}
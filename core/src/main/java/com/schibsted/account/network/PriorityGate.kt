@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Metrics
+import okhttp3.Dispatcher
+import okhttp3.Interceptor
+import okhttp3.Response
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+
+/**
+ * Holds back background requests while interactive requests are running, so that interactive requests, such as
+ * logging in, get the network first. Background requests are deferred for at most [maxDeferMs], after which they
+ * proceed regardless, so they are never starved.
+ * @param interactive The dispatcher of interactive requests. Its idle callback is used by this gate
+ */
+internal class PriorityGate(
+    private val interactive: Dispatcher,
+    private val maxDeferMs: Long = DEFAULT_MAX_DEFER_MS
+) : Interceptor {
+
+    private val lock = Object()
+
+    init {
+        interactive.idleCallback = Runnable { synchronized(lock) { lock.notifyAll() } }
+    }
+
+    @Throws(IOException::class)
+    override fun intercept(chain: Interceptor.Chain): Response {
+        if (interactive.runningCallsCount() > 0) {
+            val start = System.nanoTime()
+            val end = start + TimeUnit.MILLISECONDS.toNanos(maxDeferMs)
+            synchronized(lock) {
+                while (interactive.runningCallsCount() > 0 && !chain.call().isCanceled()) {
+                    val remaining = TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime())
+                    if (remaining <= 0) break
+                    lock.wait(remaining)
+                }
+            }
+            Logger.verbose(TAG, "Deferred background request for ${TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)} ms")
+            Metrics.recordTime("network.background_deferred", System.nanoTime() - start)
+        }
+        return chain.proceed(chain.request())
+    }
+
+    companion object {
+        private const val TAG = "PriorityGate"
+        private const val DEFAULT_MAX_DEFER_MS = 3_000L
+    }
+}
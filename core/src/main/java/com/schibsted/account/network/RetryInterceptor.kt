@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+import androidx.annotation.VisibleForTesting
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.safeUrl
+import com.schibsted.account.network.RetryPolicy.EndpointClass
+import okhttp3.FormBody
+import okhttp3.Interceptor
+import okhttp3.Request
+import okhttp3.Response
+import java.io.IOException
+import java.util.Random
+
+/**
+ * Retries requests according to the current [RetryPolicy]. The retry budget is shared by all requests going
+ * through this interceptor.
+ * @param policy Provides the policy to apply to a request
+ */
+internal class RetryInterceptor(
+    private val policy: () -> RetryPolicy = { ServiceHolder.retryPolicy },
+    private val sleep: (Long) -> Unit = { Thread.sleep(it) },
+    private val random: Random = Random()
+) : Interceptor {
+
+    private val budgetLock = Any()
+    private var budget: Double? = null
+
+    @Throws(IOException::class)
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val policy = policy()
+        val request = chain.request()
+        val endpointClass = classify(request)
+
+        deposit(policy)
+        if (policy.maxAttempts <= 1 || endpointClass == EndpointClass.CREDENTIALS || endpointClass !in policy.endpoints) {
+            return chain.proceed(request)
+        }
+
+        var attempt = 1
+        while (true) {
+            var failure: IOException? = null
+            val response = try {
+                chain.proceed(request)
+            } catch (e: AuthException) {
+                throw e
+            } catch (e: DeadlineExceededException) {
+                throw e
+            } catch (e: CircuitOpenException) {
+                throw e
+            } catch (e: IOException) {
+                failure = e
+                null
+            }
+
+            if (response != null && response.code !in RETRYABLE_CODES) {
+                return response
+            }
+
+            val delay = response?.let { retryAfter(it) } ?: backoff(policy, attempt)
+            val canRetry = attempt < policy.maxAttempts && delay <= policy.maxDelayMs && !chain.call().isCanceled()
+            if (!canRetry || !withdraw()) {
+                return response ?: throw checkNotNull(failure)
+            }
+
+            Logger.verbose(TAG, "Request to ${request.url.toString().safeUrl()} failed " +
+                    "(${response?.code ?: failure?.javaClass?.simpleName}), retrying in $delay ms")
+            response?.close()
+            sleep(delay)
+            attempt++
+        }
+    }
+
+    /**
+     * Full jitter: a random delay between zero and the exponentially growing, capped upper bound
+     */
+    private fun backoff(policy: RetryPolicy, attempt: Int): Long {
+        val bound = minOf(policy.maxDelayMs, policy.baseDelayMs shl minOf(attempt - 1, MAX_SHIFT))
+        return if (bound <= 0) 0 else (random.nextDouble() * bound).toLong()
+    }
+
+    private fun retryAfter(response: Response): Long? {
+        val value = response.header(HEADER_RETRY_AFTER) ?: return null
+        return value.trim().toLongOrNull()?.let { it * 1000 }
+                ?: response.headers.getDate(HEADER_RETRY_AFTER)?.let { maxOf(0, it.time - System.currentTimeMillis()) }
+    }
+
+    /**
+     * Every request adds to the retry budget, which starts out full
+     */
+    private fun deposit(policy: RetryPolicy) = synchronized(budgetLock) {
+        budget = minOf(policy.maxBudget, (budget ?: policy.maxBudget) + policy.budgetRatio)
+    }
+
+    private fun withdraw(): Boolean = synchronized(budgetLock) {
+        val current = budget ?: 0.0
+        if (current >= 1.0) {
+            budget = current - 1.0
+            true
+        } else {
+            Logger.verbose(TAG, "Retry budget exhausted, not retrying")
+            false
+        }
+    }
+
+    companion object {
+        private const val TAG = "RetryInterceptor"
+        private const val HEADER_RETRY_AFTER = "Retry-After"
+        private const val PARAM_GRANT_TYPE = "grant_type"
+        private const val MAX_SHIFT = 20
+        private val RETRYABLE_CODES = setOf(429, 502, 503, 504)
+
+        @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
+        internal fun classify(request: Request): EndpointClass {
+            if (request.method == "GET" || request.method == "HEAD") {
+                return EndpointClass.IDEMPOTENT
+            }
+
+            val path = request.url.encodedPath
+            if (path.endsWith("/oauth/token") || path.endsWith("/oauth/ro")) {
+                val body = request.body as? FormBody
+                val grantType = body?.let { form -> (0 until form.size).find { form.name(it) == PARAM_GRANT_TYPE }?.let { form.value(it) } }
+                return when (grantType) {
+                    "refresh_token" -> EndpointClass.TOKEN_REFRESH
+                    "client_credentials" -> EndpointClass.CLIENT_TOKEN
+                    else -> EndpointClass.CREDENTIALS
+                }
+            }
+
+            return EndpointClass.NON_IDEMPOTENT
+        }
+    }
+}
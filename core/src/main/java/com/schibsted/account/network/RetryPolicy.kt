@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.network
+
+/**
+ * Describes how the SDK retries requests which failed because of a transient error: connection failures,
+ * timeouts and the status codes 429, 502, 503 and 504. Retries are delayed using capped exponential backoff with
+ * full jitter, or by the delay in the response's Retry-After header. A retry budget limits the number of retries to
+ * a share of the number of requests, so that retries do not amplify an outage.
+ *
+ * Retrying is disabled by default, set [ServiceHolder.retryPolicy] to enable it. Requests which send user
+ * credentials or single use codes are never retried.
+ * @param maxAttempts The maximum number of attempts per request, including the first one
+ * @param baseDelayMs The upper bound of the delay before the first retry. It doubles for every further retry
+ * @param maxDelayMs The maximum delay before a retry. Requests asking for a longer Retry-After delay are not retried
+ * @param endpoints The classes of endpoints to retry
+ * @param budgetRatio The number of retries allowed per request, on average
+ * @param maxBudget The maximum number of retries which can be saved up
+ */
+data class RetryPolicy @JvmOverloads constructor(
+    val maxAttempts: Int = 3,
+    val baseDelayMs: Long = 250,
+    val maxDelayMs: Long = 5_000,
+    val endpoints: Set<EndpointClass> = setOf(EndpointClass.IDEMPOTENT, EndpointClass.TOKEN_REFRESH, EndpointClass.CLIENT_TOKEN),
+    val budgetRatio: Double = 0.2,
+    val maxBudget: Double = 10.0
+) {
+    init {
+        require(maxAttempts > 0) { "The number of attempts must be positive" }
+        require(baseDelayMs >= 0 && maxDelayMs >= baseDelayMs) { "Invalid retry delays" }
+    }
+
+    enum class EndpointClass {
+        /**
+         * Requests without side effects, such as GET requests
+         */
+        IDEMPOTENT,
+
+        /**
+         * Refreshing a user token
+         */
+        TOKEN_REFRESH,
+
+        /**
+         * Requesting a client token
+         */
+        CLIENT_TOKEN,
+
+        /**
+         * Requests with side effects, such as profile updates
+         */
+        NON_IDEMPOTENT,
+
+        /**
+         * Requests sending user credentials or single use codes, such as password logins. These are never retried
+         */
+        CREDENTIALS
+    }
+
+    companion object {
+        /**
+         * A policy which never retries
+         */
+        @JvmField
+        val DISABLED = RetryPolicy(maxAttempts = 1, endpoints = emptySet())
+    }
+}
@@ -8,27 +8,92 @@ import com.schibsted.account.ClientConfiguration
 import com.schibsted.account.network.service.authentication.OAuthService
 import com.schibsted.account.network.service.client.ClientService
 import com.schibsted.account.network.service.passwordless.PasswordlessService
+import okhttp3.Dispatcher
+import okhttp3.HttpUrl.Companion.toHttpUrlOrNull
 import okhttp3.OkHttpClient
 import java.util.concurrent.TimeUnit
 
 object ServiceHolder {
     private const val TIMEOUT_MS = 10_000L
 
+    /**
+     * The policy for retrying requests which failed because of transient errors. Retrying is disabled by default
+     */
+    @JvmStatic
+    var retryPolicy: RetryPolicy = RetryPolicy.DISABLED
+
+    /**
+     * The thresholds of the circuit breakers guarding the OAuth endpoints
+     */
+    @JvmStatic
+    var oAuthCircuitBreaker: CircuitBreaker.Config = CircuitBreaker.Config()
+
+    /**
+     * The time within which operations consisting of several requests, such as fetching client information, must
+     * complete. Each request is limited to the time remaining
+     */
+    @JvmStatic
+    var operationTimeoutMs: Long = 15_000L
+
+    /**
+     * Whether to shorten request timeouts based on the latencies observed per endpoint. Disabled by default
+     */
+    @JvmStatic
+    var adaptiveTimeouts: Boolean = false
+
+    private const val BACKGROUND_MAX_REQUESTS_PER_HOST = 2
+
+    private val dns = CachingDns()
+
+    private val interactiveDispatcher = Dispatcher()
+
+    private val backgroundDispatcher = Dispatcher().apply { maxRequestsPerHost = BACKGROUND_MAX_REQUESTS_PER_HOST }
+
+    private val priorityGate = PriorityGate(interactiveDispatcher)
+
     internal val defaultClient: OkHttpClient = OkHttpClient.Builder()
+            .dns(dns)
+            .dispatcher(interactiveDispatcher)
             .writeTimeout(TIMEOUT_MS, TimeUnit.MILLISECONDS)
             .readTimeout(TIMEOUT_MS, TimeUnit.MILLISECONDS)
             .addInterceptor(InternalInfoInterceptor())
+            .addInterceptor(RetryInterceptor())
+            .addInterceptor(DeadlineInterceptor())
+            .eventListenerFactory(HttpMetricsEventListener.Factory())
             .build()
 
-    internal var oAuthService = OAuthService(ClientConfiguration.get().environment, defaultClient)
+    private val oAuthClient: OkHttpClient = defaultClient.newBuilder()
+            .addInterceptor(CircuitBreakerInterceptor())
+            .build()
+
+    internal var oAuthService = OAuthService(ClientConfiguration.get().environment, oAuthClient)
 
     internal var clientService = ClientService(ClientConfiguration.get().environment, defaultClient)
 
     internal var passwordlessService = PasswordlessService(ClientConfiguration.get().environment, defaultClient)
 
+    init {
+        prefetchEnvironment()
+    }
+
+    /**
+     * Derives a client for requests the user is not waiting for, such as revalidating caches. These requests are
+     * dispatched separately from interactive requests, with a lower limit per host, and are deferred while
+     * interactive requests are running. The connection pool is shared.
+     */
+    internal fun background(client: OkHttpClient): OkHttpClient = client.newBuilder()
+            .dispatcher(backgroundDispatcher)
+            .addInterceptor(priorityGate)
+            .build()
+
     internal fun reset() {
-        oAuthService = OAuthService(ClientConfiguration.get().environment, defaultClient)
+        prefetchEnvironment()
+        oAuthService = OAuthService(ClientConfiguration.get().environment, oAuthClient)
         clientService = ClientService(ClientConfiguration.get().environment, defaultClient)
         passwordlessService = PasswordlessService(ClientConfiguration.get().environment, defaultClient)
     }
+
+    private fun prefetchEnvironment() {
+        ClientConfiguration.get().environment.toHttpUrlOrNull()?.host?.let { dns.prefetch(it) }
+    }
 }
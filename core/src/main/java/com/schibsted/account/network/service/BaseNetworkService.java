@@ -12,6 +12,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import com.schibsted.account.ListContainer;
+import com.schibsted.account.common.util.Logger;
 import com.schibsted.account.model.Product;
 import com.schibsted.account.network.Environment;
 import com.schibsted.account.network.response.Subscription;
@@ -20,6 +21,12 @@ import com.schibsted.account.util.LenientAccountsDeserializer;
 import com.schibsted.account.util.Preconditions;
 import com.schibsted.account.util.TypeSafeStringDeserializer;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
@@ -39,8 +46,10 @@ public class BaseNetworkService {
     @RestrictTo(RestrictTo.Scope.TESTS)
     @VisibleForTesting
     protected static final String PARAM_PASSWORD = "password";
+    private static final String TAG = "BaseNetworkService";
     private final String environment;
     private OkHttpClient okHttpClient;
+    private final List<Object> services = new CopyOnWriteArrayList<>();
 
     protected BaseNetworkService(@Environment String environment, @NonNull OkHttpClient okHttpClient) {
         this.environment = environment;
@@ -55,17 +64,49 @@ public class BaseNetworkService {
      */
     protected <T> T createService(@NonNull final Class<T> service) {
         Preconditions.checkNotNull(service);
-        final Gson gson = new GsonBuilder().setDateFormat("yyyy-MM-dd")
+        final T created = new Retrofit.Builder()
+                .client(this.okHttpClient)
+                .baseUrl(this.environment)
+                .addConverterFactory(GsonConverterFactory.create(createGson()))
+                .build()
+                .create(service);
+        this.services.add(created);
+        return created;
+    }
+
+    /**
+     * Creates the Gson instance which the services decode their responses with.
+     *
+     * @return A Gson instance with the adapters of the SDK's responses.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @NonNull
+    public static Gson createGson() {
+        return new GsonBuilder().setDateFormat("yyyy-MM-dd")
                 .registerTypeAdapter(LenientAccountsDeserializer.type, new LenientAccountsDeserializer())
                 .registerTypeAdapter(new TypeToken<ListContainer<Subscription>>() {}.getType(), new ListDeserializer<Subscription>())
                 .registerTypeAdapter(new TypeToken<ListContainer<Product>>() {}.getType(), new ListDeserializer<Product>())
                 .registerTypeAdapter(String.class, new TypeSafeStringDeserializer())
                 .create();
-        return new Retrofit.Builder()
-                .client(this.okHttpClient)
-                .baseUrl(this.environment)
-                .addConverterFactory(GsonConverterFactory.create(gson))
-                .build()
-                .create(service);
+    }
+
+    /**
+     * Parses the methods of the services created so far, which also creates the Gson adapters of their responses.
+     * Retrofit would otherwise do this when a method is first called. Invoking a method only creates a call, so no
+     * requests are made.
+     */
+    public void prewarm() {
+        for (final Object service : this.services) {
+            final InvocationHandler handler = Proxy.getInvocationHandler(service);
+            for (final Class<?> contract : service.getClass().getInterfaces()) {
+                for (final Method method : contract.getDeclaredMethods()) {
+                    try {
+                        handler.invoke(service, method, new Object[method.getParameterTypes().length]);
+                    } catch (Throwable t) {
+                        Logger.warn(TAG, "Could not prepare " + contract.getSimpleName() + "." + method.getName(), t);
+                    }
+                }
+            }
+        }
     }
 }
@@ -7,6 +7,7 @@ package com.schibsted.account.network.service.authentication;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.schibsted.account.network.Deadline;
 import com.schibsted.account.network.response.TokenResponse;
 
 import java.util.Map;
@@ -40,4 +41,15 @@ interface OAuthContract {
     @FormUrlEncoded
     @POST("oauth/token")
     Call<TokenResponse> token(@Header("Authorization") String basicClient, @NonNull @FieldMap Map<String, String> params);
+
+    /**
+     * Requests to a token, within the deadline of the operation it is part of.
+     *
+     * @param deadline The serialized deadline, see {@link Deadline#HEADER}.
+     * @param params The parameters to send along the request.
+     * @return A representation of the request ready for execution.
+     */
+    @FormUrlEncoded
+    @POST("oauth/token")
+    Call<TokenResponse> token(@Header("Authorization") String basicClient, @Nullable @Header(Deadline.HEADER) String deadline, @NonNull @FieldMap Map<String, String> params);
 }
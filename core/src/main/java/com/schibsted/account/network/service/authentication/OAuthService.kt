@@ -5,6 +5,7 @@
 package com.schibsted.account.network.service.authentication
 
 import com.schibsted.account.common.util.createBasicAuthHeader
+import com.schibsted.account.network.Deadline
 import com.schibsted.account.network.Environment
 import com.schibsted.account.network.response.TokenResponse
 import com.schibsted.account.network.service.BaseNetworkService
@@ -46,11 +47,13 @@ class OAuthService(@Environment environment: String, okHttpClient: OkHttpClient)
      * Requests client credentials that can be used to request client-authenticated requests.
      * @param clientId The client id to use.
      * @param clientSecret The client secret corresponding to the given id.
+     * @param deadline The deadline of the operation this request is part of, if any.
      */
-    fun tokenFromClientCredentials(clientId: String, clientSecret: String): Call<TokenResponse> {
+    @JvmOverloads
+    fun tokenFromClientCredentials(clientId: String, clientSecret: String, deadline: Deadline? = null): Call<TokenResponse> {
         val params = mapOf(PARAM_GRANT_TYPE to GRANT_TYPE_CLIENT_CREDENTIALS)
 
-        return this.oauthContract.token(createBasicAuthHeader(clientId, clientSecret), params)
+        return this.oauthContract.token(createBasicAuthHeader(clientId, clientSecret), deadline?.toHeader(), params)
     }
 
     /**
@@ -8,6 +8,7 @@ import com.schibsted.account.ListContainer
 import com.schibsted.account.common.util.encodeBase64
 import com.schibsted.account.model.ClientToken
 import com.schibsted.account.model.Product
+import com.schibsted.account.network.Deadline
 import com.schibsted.account.network.Environment
 import com.schibsted.account.network.response.AccountStatusResponse
 import com.schibsted.account.network.response.AgreementLinksResponse
@@ -44,26 +45,31 @@ class ClientService(@Environment environment: String, okHttpClient: OkHttpClient
      *
      * @param clientToken The token to authenticate the query with.
      * @param phone The phone number to query for in the format +46736151515
+     * @param deadline The deadline of the operation this request is part of, if any.
      */
-    fun getPhoneSignUpStatus(clientToken: ClientToken, phone: String): Call<ApiContainer<AccountStatusResponse>> {
-        return clientService.checkPhoneStatus(clientToken.bearerAuthHeader(), encodeBase64(phone))
+    @JvmOverloads
+    fun getPhoneSignUpStatus(clientToken: ClientToken, phone: String, deadline: Deadline? = null): Call<ApiContainer<AccountStatusResponse>> {
+        return clientService.checkPhoneStatus(clientToken.bearerAuthHeader(), encodeBase64(phone), deadline?.toHeader())
     }
 
     /**
      * Queries for the signup checkPhoneStatus of an e-mail address.
      * @param clientToken The token to authenticate the query with.
      * @param email The e-mail address to query for.
+     * @param deadline The deadline of the operation this request is part of, if any.
      */
-    fun getEmailSignUpStatus(clientToken: ClientToken, email: String): Call<ApiContainer<AccountStatusResponse>> {
-        return clientService.checkEmailStatus(clientToken.bearerAuthHeader(), encodeBase64(email))
+    @JvmOverloads
+    fun getEmailSignUpStatus(clientToken: ClientToken, email: String, deadline: Deadline? = null): Call<ApiContainer<AccountStatusResponse>> {
+        return clientService.checkEmailStatus(clientToken.bearerAuthHeader(), encodeBase64(email), deadline?.toHeader())
     }
 
     fun getClientAgreementsUrls(clientId: String): Call<ApiContainer<AgreementLinksResponse>> {
         return this.clientService.retrieveTermsLinks(clientId)
     }
 
-    fun getClientInfo(clientToken: ClientToken, clientId: String): Call<ApiContainer<ClientInfo>> {
-        return this.clientService.getClientInformation(clientToken.bearerAuthHeader(), clientId)
+    @JvmOverloads
+    fun getClientInfo(clientToken: ClientToken, clientId: String, deadline: Deadline? = null): Call<ApiContainer<ClientInfo>> {
+        return this.clientService.getClientInformation(clientToken.bearerAuthHeader(), clientId, deadline?.toHeader())
     }
 
     fun getProduct(clientToken: ClientToken, productId: String): Call<ApiContainer<Product>> {
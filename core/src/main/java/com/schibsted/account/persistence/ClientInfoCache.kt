@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.persistence
+
+import android.content.Context
+import android.content.SharedPreferences
+import com.google.gson.Gson
+import com.google.gson.JsonParser
+import com.schibsted.account.ClientConfiguration
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Metrics
+import com.schibsted.account.network.response.ClientInfo
+import java.util.concurrent.TimeUnit
+
+/**
+ * Persists the client information per client ID and environment, so that the login UI can show its first screen
+ * without waiting for the network. Client information is not secret, so it is stored unencrypted, which keeps
+ * reading it cheap enough for the main thread. Entries stored in a different [VERSION] of the format are ignored.
+ */
+class ClientInfoCache internal constructor(
+    prefsFactory: () -> SharedPreferences,
+    private val clock: () -> Long = { System.currentTimeMillis() }
+) {
+
+    /**
+     * @param clientInfo The cached client information
+     * @param isStale Whether the information is older than [timeToLive], and should be revalidated
+     */
+    data class Cached(val clientInfo: ClientInfo, val isStale: Boolean)
+
+    private data class Entry(val version: Int, val storedAt: Long, val clientInfo: ClientInfo)
+
+    private val prefs by lazy(prefsFactory)
+
+    /**
+     * @return The client information of the current configuration, or null if there is none or it is older
+     * than [maxAge]
+     */
+    fun read(configuration: ClientConfiguration = ClientConfiguration.get()): Cached? {
+        val key = key(configuration)
+        val json = prefs.getString(key, null)
+        val entry = json?.let {
+            runCatching {
+                val version = JsonParser().parse(it).asJsonObject.get(FIELD_VERSION)?.asInt
+                if (version == VERSION) GSON.fromJson(it, Entry::class.java) else null
+            }.onFailure {
+                Logger.warn(TAG, "Failed to read the cached client information", it)
+            }.getOrNull()
+        }
+
+        val age = entry?.let { clock() - it.storedAt }
+        if (entry == null || age == null || age > maxAge) {
+            Metrics.increment("client_info_cache.miss")
+            if (json != null) prefs.edit().remove(key).apply()
+            return null
+        }
+
+        Metrics.increment("client_info_cache.hit")
+        return Cached(entry.clientInfo, age > timeToLive)
+    }
+
+    fun store(clientInfo: ClientInfo, configuration: ClientConfiguration = ClientConfiguration.get()) {
+        runCatching {
+            prefs.edit().putString(key(configuration), GSON.toJson(Entry(VERSION, clock(), clientInfo))).apply()
+        }.onFailure { Logger.warn(TAG, "Failed to cache the client information", it) }
+    }
+
+    private fun key(configuration: ClientConfiguration) = "$KEY_PREFIX${configuration.environment}#${configuration.clientId}"
+
+    companion object {
+        private const val TAG = "ClientInfoCache"
+        private const val PREFERENCE_FILENAME = "IDENTITY_CLIENT_INFO"
+        private const val KEY_PREFIX = "com.schibsted.account.persistence.ClientInfoCache."
+        private const val FIELD_VERSION = "version"
+        private val GSON = Gson()
+
+        /**
+         * The version of the stored format. Increase it when [ClientInfo] changes incompatibly
+         */
+        internal const val VERSION = 1
+
+        /**
+         * For how long cached client information is used without being revalidated. Defaults to 1 hour
+         */
+        @JvmStatic
+        var timeToLive: Long = TimeUnit.HOURS.toMillis(1)
+
+        /**
+         * For how long cached client information is used at all. Defaults to 30 days
+         */
+        @JvmStatic
+        var maxAge: Long = TimeUnit.DAYS.toMillis(30)
+
+        private var instance: ClientInfoCache? = null
+
+        /**
+         * @return The cache of the process, which both the login UI and the AccountService use
+         */
+        @JvmStatic
+        @Synchronized
+        fun getInstance(context: Context): ClientInfoCache = instance ?: ClientInfoCache({
+            (context.applicationContext ?: context).getSharedPreferences(PREFERENCE_FILENAME, Context.MODE_PRIVATE)
+        }).also { instance = it }
+    }
+}
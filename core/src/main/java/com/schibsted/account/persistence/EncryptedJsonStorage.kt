@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.persistence
+
+import android.content.Context
+import android.content.SharedPreferences
+import com.google.gson.Gson
+import com.schibsted.account.common.util.Logger
+import java.lang.reflect.Type
+
+/**
+ * Stores a single value as encrypted JSON in [SharedPreferences], using the same encryption scheme as
+ * [SessionStorageDelegate]: the data is encrypted with a fresh AES key, which is in turn encrypted with the
+ * RSA key pair of the [EncryptionKeyProvider]. If the data cannot be read, for example after the key pair was
+ * refreshed, it is removed.
+ * @param key The key under which the value is stored
+ * @param type The type of the stored value
+ */
+internal class EncryptedJsonStorage<T>(
+        context: Context,
+        filename: String,
+        private val key: String,
+        private val type: Type,
+        private val encryptionKeyProvider: EncryptionKeyProvider = EncryptionKeyProvider.create(context),
+        private val encryptionUtils: EncryptionUtils = EncryptionUtils.INSTANCE
+) {
+
+    private val appContext = context.applicationContext
+
+    private val prefs: SharedPreferences by lazy {
+        appContext.getSharedPreferences(filename, Context.MODE_PRIVATE)
+    }
+
+    private val dataKey = "$key.data"
+    private val aesKey = "$key.aeskey"
+
+    /**
+     * Reads and decrypts the stored value.
+     * @return The stored value, or null if there is none or it could not be read
+     */
+    fun read(): T? = runCatching {
+        val data = prefs.getBytes(dataKey) ?: return null
+        val encryptedKey = prefs.getBytes(aesKey) ?: return null
+        val privateRsaKey = encryptionKeyProvider.keyPair.private
+        val secretKey = encryptionUtils.recreateAesKey(encryptionUtils.rsaDecrypt(encryptedKey, privateRsaKey))
+        GSON.fromJson<T>(String(encryptionUtils.aesDecrypt(data, secretKey)), type)
+    }.onFailure {
+        Logger.error(TAG, "Failed to read $key, removing it", it)
+        clear()
+    }.getOrNull()
+
+    /**
+     * Encrypts and stores the value, replacing any previously stored value.
+     */
+    fun write(value: T) {
+        runCatching {
+            val secretKey = encryptionUtils.generateAesKey()
+            val encryptedKey = encryptionUtils.rsaEncrypt(secretKey.encoded, encryptionKeyProvider.keyPair.public)
+            val data = encryptionUtils.aesEncrypt(GSON.toJson(value, type).toByteArray(), secretKey)
+            prefs.edit().run {
+                putBytes(dataKey, data)
+                putBytes(aesKey, encryptedKey)
+                apply()
+            }
+        }.onFailure {
+            Logger.error(TAG, "Failed to write $key, removing it", it)
+            clear()
+        }
+    }
+
+    fun clear() = prefs.edit().run {
+        remove(dataKey)
+        remove(aesKey)
+        apply()
+    }
+
+    private fun SharedPreferences.Editor.putBytes(key: String, value: ByteArray) =
+            putString(key, String(value.encodeBase64()))
+
+    private fun SharedPreferences.getBytes(key: String): ByteArray? =
+            getString(key, null)?.toByteArray()?.decodeBase64()
+
+    companion object {
+        private const val TAG = "EncryptedJsonStorage"
+        private val GSON = Gson()
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.persistence
+
+import androidx.annotation.RestrictTo
+import androidx.annotation.VisibleForTesting
+import java.security.PrivateKey
+import java.security.PublicKey
+import javax.crypto.SecretKey
+
+/**
+ * Gives tests and benchmarks in other modules access to the encryption of stored sessions, which is internal to this
+ * module. Not to be used by the SDK or by apps.
+ */
+@RestrictTo(RestrictTo.Scope.TESTS)
+@VisibleForTesting(otherwise = VisibleForTesting.NONE)
+object EncryptionTestAccess {
+    private val encryptionUtils = EncryptionUtils.INSTANCE
+
+    @JvmStatic
+    fun generateAesKey(): SecretKey = encryptionUtils.generateAesKey()
+
+    @JvmStatic
+    fun recreateAesKey(bytes: ByteArray): SecretKey = encryptionUtils.recreateAesKey(bytes)
+
+    @JvmStatic
+    fun aesEncrypt(subjectToEncrypt: ByteArray, aesKey: SecretKey): ByteArray = encryptionUtils.aesEncrypt(subjectToEncrypt, aesKey)
+
+    @JvmStatic
+    fun aesDecrypt(subjectToDecrypt: ByteArray, aesKey: SecretKey): ByteArray = encryptionUtils.aesDecrypt(subjectToDecrypt, aesKey)
+
+    @JvmStatic
+    fun rsaEncrypt(subjectToEncrypt: ByteArray, publicRsaKey: PublicKey): ByteArray =
+            encryptionUtils.rsaEncrypt(subjectToEncrypt, publicRsaKey)
+
+    @JvmStatic
+    fun rsaDecrypt(subjectToDecrypt: ByteArray, privateRsaKey: PrivateKey): ByteArray =
+            encryptionUtils.rsaDecrypt(subjectToDecrypt, privateRsaKey)
+}
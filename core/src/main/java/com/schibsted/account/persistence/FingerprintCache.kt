@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.persistence
+
+import android.content.Context
+import com.schibsted.account.common.util.Metrics
+import com.schibsted.account.network.response.DeviceFingerprint
+import com.schibsted.account.util.typeToken
+import java.util.concurrent.TimeUnit
+
+/**
+ * Remembers the device fingerprints created for a user, the device and the app version, so that a fingerprint
+ * is only created again when one of them changed or the record expired. Records are stored encrypted next to the
+ * user sessions. Disk IO happens on first use, so this should not be used from the main thread.
+ */
+internal class FingerprintCache(
+        storageFactory: () -> EncryptedJsonStorage<List<Record>>,
+        private val clock: () -> Long = { System.currentTimeMillis() }
+) {
+
+    internal data class Record(
+            val userId: String,
+            val androidId: String,
+            val appVersion: String,
+            val hash: String,
+            val storedAt: Long
+    )
+
+    private val storage by lazy(storageFactory)
+
+    private val records: MutableList<Record> by lazy {
+        storage.read().orEmpty().toMutableList()
+    }
+
+    /**
+     * @return The fingerprint previously created for the same user, device and app version, or null if there
+     * is none or it expired
+     */
+    @Synchronized
+    fun get(userId: String, androidId: String, appVersion: String): DeviceFingerprint? {
+        val now = clock()
+        return records.find { it.userId == userId && it.androidId == androidId && it.appVersion == appVersion }
+                ?.takeIf { now - it.storedAt <= timeToLive }
+                ?.let { DeviceFingerprint(it.hash) }
+                .also { Metrics.increment(if (it != null) "fingerprint_cache.hit" else "fingerprint_cache.miss") }
+    }
+
+    /**
+     * Stores a created fingerprint, replacing any previous record of the user. Expired records are removed.
+     */
+    @Synchronized
+    fun store(userId: String, androidId: String, appVersion: String, fingerprint: DeviceFingerprint) {
+        val now = clock()
+        records.removeAll { it.userId == userId || now - it.storedAt > timeToLive }
+        records.add(Record(userId, androidId, appVersion, fingerprint.hash, now))
+        storage.write(records.toList())
+    }
+
+    companion object {
+        private const val PREFERENCE_FILENAME = "IDENTITY_PREFERENCES"
+        private const val KEY_RECORDS = "com.schibsted.account.persistence.FingerprintCache.records"
+
+        /**
+         * For how long a created fingerprint is considered up to date. Defaults to 7 days
+         */
+        @JvmStatic
+        var timeToLive: Long = TimeUnit.DAYS.toMillis(7)
+
+        fun create(context: Context): FingerprintCache = FingerprintCache({
+            EncryptedJsonStorage<List<Record>>(context, PREFERENCE_FILENAME, KEY_RECORDS, typeToken<List<Record>>())
+        })
+    }
+}
@@ -9,6 +9,7 @@ import android.content.SharedPreferences
 import com.google.gson.Gson
 import com.google.gson.reflect.TypeToken
 import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Metrics
 import com.schibsted.account.persistence.UserPersistence.Session
 import java.lang.reflect.Type
 import java.security.InvalidKeyException
@@ -54,7 +55,7 @@ internal class SessionStorageDelegate(
     }
 
     private fun retrieveSessions() = runCatching {
-        readStorage()
+        Metrics.time("session_storage.read") { readStorage() }
     }.onFailure {
         Logger.error(TAG, "Failed to read storage. Attempting to repair...", it)
         repairUnreadableStorage(it)
@@ -70,7 +71,7 @@ internal class SessionStorageDelegate(
                 removeDataAndKey()
                 encryptionKeyProvider.refreshKeyPair()
             }
-            writeStorage(list)
+            Metrics.time("session_storage.write") { writeStorage(list) }
         }.onFailure {
             Logger.error(TAG, "Failed to write storage. Attempting to repair...", it)
             repairUnwritableStorage(list, it)
@@ -169,6 +170,7 @@ internal class SessionStorageDelegate(
             getString(key, null)?.toByteArray()?.decodeBase64()
 
     private fun repairUnreadableStorage(throwable: Throwable) {
+        Metrics.increment("session_storage.repair_unreadable")
         removeDataAndKey()
         if (throwable is InvalidKeyException) {
             try {
@@ -180,6 +182,7 @@ internal class SessionStorageDelegate(
     }
 
     private fun repairUnwritableStorage(list: List<Session>, throwable: Throwable) {
+        Metrics.increment("session_storage.repair_unwritable")
         removeDataAndKey()
         if (throwable is InvalidKeyException) {
             try {
@@ -51,7 +51,7 @@ class Agreements(private val user: User, private val userService: UserService =
     }
 
     /**
-     * Accept the agreements of the user.
+     * Accept the agreements of the user. The request is sent straight away, as the caller waits for its result.
      * @param callback Provide this callback to get the result of the action
      */
     fun acceptAgreements(callback: ResultCallback<NoValue>) {
@@ -3,14 +3,34 @@
  */
 package com.schibsted.account.session
 
-import com.schibsted.account.ClientConfiguration
+import android.os.Process
+import com.schibsted.account.AccountService
+import com.schibsted.account.common.util.Logger
 import com.schibsted.account.engine.integration.ResultCallback
 import com.schibsted.account.model.error.ClientError
 import com.schibsted.account.network.NetworkCallback
+import com.schibsted.account.network.response.ApiContainer
 import com.schibsted.account.network.response.DeviceFingerprint
 import com.schibsted.account.network.service.user.UserService
+import com.schibsted.account.persistence.FingerprintCache
+import java.io.IOException
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
 
-internal class Device(private val applicationName: String, private val applicationVersion: String, private val androidId: String, private val user: User, private val userService: UserService = UserService(ClientConfiguration.get().environment, user.authClient)) {
+internal class Device(
+    private val applicationName: String,
+    private val applicationVersion: String,
+    private val androidId: String,
+    private val user: User,
+    private val userService: UserService = user.backgroundUserService,
+    private val fingerprintCache: FingerprintCache? = AccountService.fingerprintCache,
+    private val executor: Executor = BACKGROUND
+) {
+    /**
+     * Creates a device fingerprint, unless one was already created for the same user, device and app version
+     * within [FingerprintCache.timeToLive]. This runs on a low priority background thread, on which the callback
+     * is invoked as well.
+     */
     fun createFingerprint(callback: ResultCallback<DeviceFingerprint>? = null) {
         val token = user.token
         if (token == null) {
@@ -18,19 +38,53 @@ internal class Device(private val applicationName: String, private val applicati
             return
         }
 
-        val deviceData = hashMapOf(
-                "deviceId" to androidId,
-                "platform" to PLATFORM_NAME,
-                "applicationName" to applicationName,
-                "applicationVersion" to applicationVersion
-        )
-        userService.createDeviceFingerprint(token, deviceData).enqueue(NetworkCallback.lambda("Creating a new device fingerprint",
-                { callback?.onError(it.toClientError()) },
-                { callback?.onSuccess(it.data) })
-        )
+        executor.execute {
+            val userId = user.userId.id
+            val cached = fingerprintCache?.get(userId, androidId, applicationVersion)
+            if (cached != null) {
+                Logger.verbose(TAG, "Device fingerprint is up to date, not creating a new one")
+                callback?.onSuccess(cached)
+                return@execute
+            }
+
+            val deviceData = hashMapOf(
+                    "deviceId" to androidId,
+                    "platform" to PLATFORM_NAME,
+                    "applicationName" to applicationName,
+                    "applicationVersion" to applicationVersion
+            )
+            val call = userService.createDeviceFingerprint(token, deviceData)
+            val networkCallback = NetworkCallback.lambda<ApiContainer<DeviceFingerprint>>("Creating a new device fingerprint",
+                    { callback?.onError(it.toClientError()) },
+                    {
+                        fingerprintCache?.store(userId, androidId, applicationVersion, it.data)
+                        callback?.onSuccess(it.data)
+                    })
+
+            val response = try {
+                call.execute()
+            } catch (e: IOException) {
+                networkCallback.onFailure(call, e)
+                return@execute
+            } catch (e: RuntimeException) {
+                // Such as a failure of an interceptor or of parsing the response, which would otherwise end the thread
+                Logger.error(TAG, "Failed to create a new device fingerprint", e)
+                callback?.onError(ClientError(ClientError.ErrorType.UNKNOWN_ERROR, "Failed to create a new device fingerprint"))
+                return@execute
+            }
+            networkCallback.onResponse(call, response)
+        }
     }
 
     companion object {
+        private const val TAG = "Device"
         const val PLATFORM_NAME = "Android"
+
+        private val BACKGROUND = Executors.newSingleThreadExecutor { runnable ->
+            Thread({
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND)
+                runnable.run()
+            }, "AccountSdkDevice").apply { isDaemon = true }
+        }
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.session
+
+import com.schibsted.account.common.util.Metrics
+import com.schibsted.account.network.response.ProductAccess
+import com.schibsted.account.network.response.Subscription
+import java.util.Collections
+import java.util.Date
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * In-memory cache of a user's product access, indexed by product ID. It is filled from both product access
+ * and subscription responses. Entries younger than [timeToLive] are served directly, older entries are served
+ * for another [staleWhileRevalidate] while being refreshed in the background. Caches are kept per user and
+ * are dropped when the user logs out.
+ */
+class EntitlementCache internal constructor(private val clock: () -> Long = { System.currentTimeMillis() }) {
+
+    internal sealed class Lookup {
+        class Fresh(val access: ProductAccess) : Lookup()
+        class Stale(val access: ProductAccess) : Lookup()
+        object Miss : Lookup()
+    }
+
+    /**
+     * Usage statistics of an [EntitlementCache]
+     * @param hits The number of lookups served from a fresh entry
+     * @param staleHits The number of lookups served from a stale entry, which triggered a revalidation
+     * @param misses The number of lookups which required a network request
+     */
+    data class Stats(val hits: Long, val staleHits: Long, val misses: Long)
+
+    private class Entry(val hasAccess: Boolean, val storedAt: Long)
+
+    private val entries = ConcurrentHashMap<String, Entry>()
+    private val revalidating: MutableSet<String> = Collections.newSetFromMap(ConcurrentHashMap<String, Boolean>())
+
+    private val hits = AtomicLong()
+    private val staleHits = AtomicLong()
+    private val misses = AtomicLong()
+
+    val stats: Stats
+        get() = Stats(hits.get(), staleHits.get(), misses.get())
+
+    internal fun lookup(productId: String): Lookup {
+        val entry = entries[productId]
+        val age = entry?.let { clock() - it.storedAt }
+        return when {
+            entry == null || age == null || age > timeToLive + staleWhileRevalidate -> {
+                misses.incrementAndGet()
+                Metrics.increment("entitlement_cache.miss")
+                Lookup.Miss
+            }
+            age > timeToLive -> {
+                staleHits.incrementAndGet()
+                Metrics.increment("entitlement_cache.stale_hit")
+                Lookup.Stale(ProductAccess(productId, entry.hasAccess))
+            }
+            else -> {
+                hits.incrementAndGet()
+                Metrics.increment("entitlement_cache.hit")
+                Lookup.Fresh(ProductAccess(productId, entry.hasAccess))
+            }
+        }
+    }
+
+    internal fun store(access: ProductAccess) {
+        entries[access.productId] = Entry(access.result, clock())
+        revalidating.remove(access.productId)
+    }
+
+    /**
+     * Stores access to the products of all active subscriptions. Inactive subscriptions are ignored, as access
+     * might still be granted through other means.
+     */
+    internal fun storeSubscriptions(subscriptions: List<Subscription>) {
+        val now = Date(clock())
+        subscriptions.filter { sub ->
+            val end: Date? = sub.finalEndDate ?: sub.expires
+            end?.after(now) == true
+        }.forEach { store(ProductAccess(it.productId, true)) }
+    }
+
+    /**
+     * @return true if the caller should revalidate the product, false if a revalidation is already in progress
+     */
+    internal fun beginRevalidation(productId: String): Boolean = revalidating.add(productId)
+
+    internal fun endRevalidation(productId: String) {
+        revalidating.remove(productId)
+    }
+
+    /**
+     * Removes all entries from the cache
+     */
+    fun invalidate() {
+        entries.clear()
+        revalidating.clear()
+    }
+
+    companion object {
+        /**
+         * For how long a cached entry is served without revalidation. Defaults to 5 minutes
+         */
+        @JvmStatic
+        var timeToLive: Long = TimeUnit.MINUTES.toMillis(5)
+
+        /**
+         * For how long an expired entry is still served while it is being revalidated. Defaults to 1 hour
+         */
+        @JvmStatic
+        var staleWhileRevalidate: Long = TimeUnit.HOURS.toMillis(1)
+
+        private val caches = ConcurrentHashMap<String, EntitlementCache>()
+
+        internal fun forUser(userId: String): EntitlementCache = caches.getOrPut(userId) { EntitlementCache() }
+
+        internal fun evict(userId: String) {
+            caches.remove(userId)?.invalidate()
+        }
+
+        internal fun evictAllExcept(userId: String) {
+            caches.keys.filterNot { it == userId }.forEach { evict(it) }
+        }
+    }
+}
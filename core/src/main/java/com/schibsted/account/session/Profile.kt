@@ -4,31 +4,84 @@
 
 package com.schibsted.account.session
 
+import com.schibsted.account.AccountService
 import com.schibsted.account.ClientConfiguration
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Metrics
 import com.schibsted.account.engine.integration.ResultCallback
 import com.schibsted.account.model.NoValue
+import com.schibsted.account.model.UserToken
 import com.schibsted.account.model.error.ClientError
 import com.schibsted.account.network.NetworkCallback
 import com.schibsted.account.network.response.ProductAccess
 import com.schibsted.account.network.response.ProfileData
 import com.schibsted.account.network.response.Subscription
 import com.schibsted.account.network.service.user.UserService
+import com.schibsted.account.util.BoundedFanOut
 
 class Profile(val user: User, private val userService: UserService = UserService(ClientConfiguration.get().environment, user.authClient)) {
 
-    fun get(callback: ResultCallback<ProfileData>) {
+    /**
+     * The cache of the user's product access, shared by all sessions of the same user
+     */
+    val entitlements: EntitlementCache
+        get() = EntitlementCache.forUser(user.userId.id)
+
+    /**
+     * The cache of the user's profile data, shared by all sessions of the same user
+     */
+    val cache: ProfileCache
+        get() = ProfileCache.forUser(user.userId.id)
+
+    /**
+     * Gets the user's profile data. A cached profile is served immediately and revalidated in the background.
+     * @param callback Receives the profile data
+     * @param forceRefresh Set to true to bypass the cache and always fetch the profile from Schibsted account
+     */
+    @JvmOverloads
+    fun get(callback: ResultCallback<ProfileData>, forceRefresh: Boolean = false) {
         val token = user.token
         if (token == null) {
             callback.onError(ClientError.USER_LOGGED_OUT_ERROR)
             return
         }
 
-        userService.getUserProfile(user.userId.id, token).enqueue(NetworkCallback.lambda("Fetching profile data",
+        val profileCache = cache
+        val cached = profileCache.profile
+        if (cached == null || forceRefresh) {
+            Metrics.increment("profile_cache.miss")
+            fetchProfile(token, profileCache, callback)
+            return
+        }
+
+        Metrics.increment("profile_cache.hit")
+        callback.onSuccess(cached)
+        if (profileCache.beginRevalidation()) {
+            fetchProfile(token, profileCache, ResultCallback.fromLambda({ profileCache.endRevalidation() }, { }), user.backgroundUserService)
+        }
+    }
+
+    private fun fetchProfile(token: UserToken, profileCache: ProfileCache, callback: ResultCallback<ProfileData>,
+                             service: UserService = userService) {
+        service.getUserProfile(user.userId.id, token).enqueue(NetworkCallback.lambda("Fetching profile data",
                 { callback.onError(it.toClientError()) },
-                { callback.onSuccess(it.data) })
+                {
+                    profileCache.store(it.data)
+                    callback.onSuccess(it.data)
+                })
         )
     }
 
+    /**
+     * Updates the user's profile. While the cached profile is fresh, only the fields which differ from it are sent.
+     * The cached profile is updated straight away. If the request fails, the cached profile is restored.
+     *
+     * Updates without a callback are not waited for, so when an [AccountService] is running, they are queued and
+     * retried on network failures. Updates with a callback are sent straight away, so that a failure is reported
+     * without waiting for the retries.
+     * @param data The profile fields to update
+     * @param callback Provide this callback to get the result of the action
+     */
     fun update(data: Map<String, Any>, callback: ResultCallback<NoValue>? = null) {
         val token = user.token
         if (token == null) {
@@ -36,8 +89,26 @@ class Profile(val user: User, private val userService: UserService = UserService
             return
         }
 
-        userService.updateUserProfile(user.userId.id, token, data).enqueue(NetworkCallback.lambda("Updating profile",
-                { callback?.onError(it.toClientError()) },
+        val profileCache = cache
+        val changes = profileCache.diff(data)
+        if (changes.isEmpty()) {
+            Logger.verbose(TAG, "Profile update contains no changes, skipping request")
+            callback?.onSuccess(NoValue)
+            return
+        }
+
+        val rollback = profileCache.applyOptimistically(changes)
+        val queue = AccountService.writeQueue
+        if (queue != null && callback == null) {
+            queue.updateProfile(user, changes, ResultCallback.fromLambda({ rollback() }, { }))
+            return
+        }
+
+        userService.updateUserProfile(user.userId.id, token, changes).enqueue(NetworkCallback.lambda("Updating profile",
+                {
+                    rollback()
+                    callback?.onError(it.toClientError())
+                },
                 { callback?.onSuccess(NoValue) })
         )
     }
@@ -64,30 +135,88 @@ class Profile(val user: User, private val userService: UserService = UserService
         userService.getSubscriptions(token, user.userId.id).enqueue(NetworkCallback.lambda("Fetching user subscriptions",
                 { callback.onError(it.toClientError()) },
                 {
+                    entitlements.storeSubscriptions(it.value)
                     callback.onSuccess(it.value)
                 }))
     }
 
+    /**
+     * Checks whether the user has access to the given product. Results are served from [entitlements] when
+     * available, and stale results are revalidated in the background.
+     * @param productId The ID of the product to check
+     * @param callback Receives the user's access to the product
+     */
     fun getProductAccess(productId: String, callback: ResultCallback<ProductAccess>) {
         val token = user.token
         if (token == null) {
             callback.onError(ClientError.USER_LOGGED_OUT_ERROR)
             return
         }
-        userService.getProductAccess(token, user.userId.id, productId).enqueue(NetworkCallback.lambda("Fetching product access",
+        cachedProductAccess(token, productId, callback)
+    }
+
+    /**
+     * Checks the user's access to several products. Duplicate product IDs are only checked once, and at most
+     * [maxConcurrentRequests] checks are performed at the same time, sharing the SDK's network dispatcher.
+     * @param productIds The IDs of the products to check
+     * @param callback Receives the access for each product, keyed by product ID, or the first error which occurred
+     * @param maxConcurrentRequests The maximum number of concurrent requests. Defaults to [DEFAULT_MAX_CONCURRENT_REQUESTS]
+     */
+    @JvmOverloads
+    fun getProductAccess(productIds: Collection<String>, callback: ResultCallback<Map<String, ProductAccess>>,
+                         maxConcurrentRequests: Int = DEFAULT_MAX_CONCURRENT_REQUESTS) {
+        val token = user.token
+        if (token == null) {
+            callback.onError(ClientError.USER_LOGGED_OUT_ERROR)
+            return
+        }
+
+        // Schibsted account has no batch endpoint for product access, so the checks are fanned out
+        BoundedFanOut<String, ProductAccess>(productIds, maxConcurrentRequests) { productId, cb ->
+            cachedProductAccess(token, productId, cb)
+        }.start(callback)
+    }
+
+    private fun cachedProductAccess(token: UserToken, productId: String, callback: ResultCallback<ProductAccess>) {
+        val cache = entitlements
+        when (val cached = cache.lookup(productId)) {
+            is EntitlementCache.Lookup.Fresh -> callback.onSuccess(cached.access)
+            is EntitlementCache.Lookup.Stale -> {
+                callback.onSuccess(cached.access)
+                if (cache.beginRevalidation(productId)) {
+                    fetchProductAccess(token, productId, ResultCallback.fromLambda(
+                            { cache.endRevalidation(productId) },
+                            { }), user.backgroundUserService)
+                }
+            }
+            EntitlementCache.Lookup.Miss -> fetchProductAccess(token, productId, callback)
+        }
+    }
+
+    private fun fetchProductAccess(token: UserToken, productId: String, callback: ResultCallback<ProductAccess>,
+                                   service: UserService = userService) {
+        service.getProductAccess(token, user.userId.id, productId).enqueue(NetworkCallback.lambda("Fetching product access",
             {
                 if (it.code == 404) {
                     /* spid-platform returns 404 Not Found when the user doesn't have access to
                      * the product
                      */
-                    callback.onSuccess(ProductAccess(productId, false))
+                    val access = ProductAccess(productId, false)
+                    entitlements.store(access)
+                    callback.onSuccess(access)
                 } else {
                     callback.onError(it.toClientError())
                 }
             },
             {
+                entitlements.store(it.data)
                 callback.onSuccess(it.data)
             }
         ))
     }
+
+    companion object {
+        private const val TAG = "Profile"
+        const val DEFAULT_MAX_CONCURRENT_REQUESTS = 4
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.session
+
+import com.google.gson.Gson
+import com.google.gson.JsonElement
+import com.google.gson.JsonObject
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.network.response.ProfileData
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * In-memory cache of a user's [ProfileData]. The cached profile is served immediately, and revalidated in the
+ * background once it is older than [revalidateAfter]. Profile updates are compared against the cached profile while
+ * it is fresh, so that only changed fields are sent, and are applied to the cache before the request completes.
+ * Caches are kept per user and are dropped when the user logs out.
+ */
+class ProfileCache internal constructor(private val clock: () -> Long = { System.currentTimeMillis() }) {
+
+    /**
+     * @param isOutdated Whether the profile is known to differ from the one of Schibsted account
+     */
+    private class Entry(val profile: ProfileData, val storedAt: Long, val isOutdated: Boolean = false)
+
+    @Volatile
+    private var entry: Entry? = null
+    private val revalidating = AtomicBoolean(false)
+
+    /**
+     * The last known profile of the user, or null if it has not been fetched yet
+     */
+    val profile: ProfileData?
+        get() = entry?.profile
+
+    internal fun store(profile: ProfileData) {
+        entry = Entry(profile, clock())
+        revalidating.set(false)
+    }
+
+    /**
+     * @return true if the cached profile is old enough to be revalidated, and no revalidation is in progress
+     */
+    internal fun beginRevalidation(): Boolean {
+        val current = entry ?: return false
+        return !isFresh(current) && revalidating.compareAndSet(false, true)
+    }
+
+    internal fun endRevalidation() {
+        revalidating.set(false)
+    }
+
+    /**
+     * Removes the fields of an update which already match the cached profile. Without a fresh cached profile, that
+     * is one which has been fetched within [revalidateAfter], the update is returned as is, as the fields may have
+     * changed elsewhere in the meantime. Values are compared by their JSON representation, and objects are considered
+     * unchanged when all of their given properties match.
+     * @param update The profile fields to update
+     * @return The fields which differ from the cached profile
+     */
+    internal fun diff(update: Map<String, Any>): Map<String, Any> {
+        val fresh = entry?.takeIf { isFresh(it) } ?: return update
+        val cached = GSON.toJsonTree(fresh.profile).asJsonObject
+        return update.filterNot { (key, value) ->
+            val current = cached.get(key) ?: return@filterNot false
+            matches(GSON.toJsonTree(value), current)
+        }
+    }
+
+    /**
+     * Applies an update to the cached profile before it has been confirmed by Schibsted account.
+     * @param changes The changed profile fields
+     * @return A function which restores the previous profile, unless the cache was updated in the meantime
+     */
+    internal fun applyOptimistically(changes: Map<String, Any>): () -> Unit {
+        val previous = entry ?: return { }
+
+        val merged = GSON.toJsonTree(previous.profile).asJsonObject
+        changes.forEach { (key, value) -> merge(merged, key, GSON.toJsonTree(value)) }
+
+        val updated = runCatching { Entry(GSON.fromJson(merged, ProfileData::class.java), previous.storedAt, previous.isOutdated) }
+                .onFailure { Logger.warn(TAG, "Could not apply profile update to the cache, keeping the previous profile until it is revalidated", it) }
+                .getOrElse { Entry(previous.profile, previous.storedAt, isOutdated = true) }
+        entry = updated
+
+        return {
+            if (entry === updated) {
+                entry = previous
+            }
+        }
+    }
+
+    /**
+     * Removes the cached profile
+     */
+    fun invalidate() {
+        entry = null
+        revalidating.set(false)
+    }
+
+    private fun isFresh(entry: Entry): Boolean = !entry.isOutdated && clock() - entry.storedAt <= revalidateAfter
+
+    private fun matches(update: JsonElement, current: JsonElement): Boolean =
+            if (update is JsonObject && current is JsonObject) {
+                update.entrySet().all { (key, value) -> current.get(key)?.let { matches(value, it) } == true }
+            } else {
+                update == current
+            }
+
+    private fun merge(target: JsonObject, key: String, value: JsonElement) {
+        val current = target.get(key)
+        if (value is JsonObject && current is JsonObject) {
+            value.entrySet().forEach { (childKey, childValue) -> merge(current, childKey, childValue) }
+        } else {
+            target.add(key, value)
+        }
+    }
+
+    companion object {
+        private const val TAG = "ProfileCache"
+        private val GSON = Gson()
+
+        /**
+         * The age after which a cached profile is revalidated in the background. Defaults to 30 seconds
+         */
+        @JvmStatic
+        var revalidateAfter: Long = TimeUnit.SECONDS.toMillis(30)
+
+        private val caches = ConcurrentHashMap<String, ProfileCache>()
+
+        internal fun forUser(userId: String): ProfileCache = caches.getOrPut(userId) { ProfileCache() }
+
+        internal fun evict(userId: String) {
+            caches.remove(userId)?.invalidate()
+        }
+
+        internal fun evictAllExcept(userId: String) {
+            caches.keys.filterNot { it == userId }.forEach { evict(it) }
+        }
+    }
+}
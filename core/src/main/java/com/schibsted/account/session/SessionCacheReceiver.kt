@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.session
+
+import android.content.BroadcastReceiver
+import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
+import androidx.localbroadcastmanager.content.LocalBroadcastManager
+import com.schibsted.account.Events
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.engine.operation.AccountStatusCache
+import com.schibsted.account.model.UserId
+
+/**
+ * Drops cached user data when a user logs out, or when a different user logs in. It is registered once per process,
+ * for as long as the caches it maintains.
+ */
+internal class SessionCacheReceiver(private val localBroadcastManager: LocalBroadcastManager) : BroadcastReceiver() {
+
+    override fun onReceive(context: Context, intent: Intent) {
+        when (intent.action) {
+            Events.ACTION_USER_LOGIN -> {
+                val user = intent.extras?.getParcelable<User>(Events.EXTRA_USER) ?: return
+                Logger.verbose(TAG, "Received event: User logged in, dropping caches of other users")
+                EntitlementCache.evictAllExcept(user.userId.id)
+                ProfileCache.evictAllExcept(user.userId.id)
+                // Logging in might have created an account, as passwordless logins do
+                AccountStatusCache.INSTANCE.clear()
+            }
+
+            Events.ACTION_USER_LOGOUT -> {
+                val userId = intent.extras?.getParcelable<UserId>(Events.EXTRA_USER_ID) ?: return
+                Logger.verbose(TAG, "Received event: User logged out, dropping caches")
+                EntitlementCache.evict(userId.id)
+                ProfileCache.evict(userId.id)
+            }
+        }
+    }
+
+    fun register() {
+        IntentFilter(Events.ACTION_USER_LOGIN).apply {
+            addAction(Events.ACTION_USER_LOGOUT)
+        }.also { localBroadcastManager.registerReceiver(this, it) }
+    }
+
+    companion object {
+        private const val TAG = "SessionCacheReceiver"
+    }
+}
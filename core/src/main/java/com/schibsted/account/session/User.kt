@@ -13,6 +13,7 @@ import com.schibsted.account.AccountService
 import com.schibsted.account.ClientConfiguration
 import com.schibsted.account.Events
 import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Metrics
 import com.schibsted.account.engine.integration.ResultCallback
 import com.schibsted.account.model.NoValue
 import com.schibsted.account.model.UserId
@@ -48,13 +49,24 @@ class User(token: UserToken, val isPersistable: Boolean) : Parcelable {
     internal var userService = UserService(ClientConfiguration.get().environment, authClient)
         private set
 
+    /**
+     * For requests the user is not waiting for, see [ServiceHolder.background]
+     */
+    internal val backgroundUserService by lazy {
+        UserService(ClientConfiguration.get().environment, ServiceHolder.background(authClient))
+    }
+
     val auth = Auth(this)
 
     val agreements = Agreements(this)
 
     val profile = Profile(this)
 
-    internal val device = Device(AccountService.packageName, AccountService.packageVersion, AccountService.androidId, this)
+    internal val device by lazy { Device(AccountService.packageName, AccountService.packageVersion, AccountService.androidId, this) }
+
+    init {
+        AccountService.writeQueue?.attach(this)
+    }
 
     fun isActive(): Boolean = token != null
 
@@ -66,6 +78,7 @@ class User(token: UserToken, val isPersistable: Boolean) : Parcelable {
     fun logout(callback: ResultCallback<NoValue>?) {
         val token = this.token
         if (token != null) {
+            evictCaches()
             AccountService.localBroadcastManager?.sendBroadcast(Intent(Events.ACTION_USER_LOGOUT).putExtra(Events.EXTRA_USER_ID, userId))
             callback?.onSuccess(NoValue)
         } else {
@@ -118,13 +131,17 @@ class User(token: UserToken, val isPersistable: Boolean) : Parcelable {
         val refreshToken = token.refreshToken
         if (refreshToken == null || refreshToken.isBlank()) {
             this.token = null
+            evictCaches()
             Logger.warn("Attempting to refresh token, but the refresh token is empty.")
             return false
         }
 
         Logger.verbose("Refreshing user token")
-        val resp = ServiceHolder.oAuthService.refreshToken(ClientConfiguration.get().clientId,
-                ClientConfiguration.get().clientSecret, refreshToken).execute()
+        Metrics.increment("user.token_refresh.count")
+        val resp = Metrics.time("user.token_refresh.duration") {
+            ServiceHolder.oAuthService.refreshToken(ClientConfiguration.get().clientId,
+                    ClientConfiguration.get().clientSecret, refreshToken).execute()
+        }
 
         return if (resp.isSuccessful) {
             this.token = requireNotNull(resp.body(), { "Unable to parse token from successful response" })
@@ -133,10 +150,12 @@ class User(token: UserToken, val isPersistable: Boolean) : Parcelable {
             true
         } else {
             Logger.verbose("User token refreshing failed")
+            Metrics.increment("user.token_refresh.failed")
             val invalidRefreshToken = resp.code() == 400 && resp.errorBody()?.string()?.contains("invalid_grant") == true
             if (invalidRefreshToken || listOf(401, 403).contains(resp.code())) {
                 Logger.verbose("Logging out user")
                 this@User.token = null
+                evictCaches()
 
                 AccountService.localBroadcastManager?.sendBroadcast(Intent(Events.ACTION_USER_LOGOUT).putExtra(Events.EXTRA_USER_ID, userId))
             }
@@ -144,6 +163,15 @@ class User(token: UserToken, val isPersistable: Boolean) : Parcelable {
         }
     }
 
+    /**
+     * Drops the cached data of the user. The SessionCacheReceiver does the same when it receives the logout, but it
+     * only runs if the app created an [AccountService]
+     */
+    private fun evictCaches() {
+        EntitlementCache.evict(userId.id)
+        ProfileCache.evict(userId.id)
+    }
+
     /**
      * Manually persist a user session so that it can be resumed at a later point.
      */
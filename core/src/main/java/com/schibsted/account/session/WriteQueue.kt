@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.session
+
+import android.content.Context
+import android.net.ConnectivityManager
+import android.net.Network
+import android.net.NetworkCapabilities
+import android.net.NetworkRequest
+import android.os.Handler
+import android.os.Looper
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.engine.integration.ResultCallback
+import com.schibsted.account.model.NoValue
+import com.schibsted.account.model.error.ClientError
+import com.schibsted.account.model.error.NetworkError
+import com.schibsted.account.network.NetworkCallback
+import com.schibsted.account.persistence.EncryptedJsonStorage
+import com.schibsted.account.util.typeToken
+import java.lang.ref.WeakReference
+import java.util.UUID
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+
+/**
+ * A durable, ordered queue of mutating user requests. Writes are persisted encrypted, executed in order per user,
+ * and retried with exponential backoff on transient failures, as well as when connectivity returns. Writes which
+ * fail permanently, for example because of invalid input, are dropped and reported to their callbacks.
+ *
+ * Retrying can take many minutes, so only writes which nobody waits for are queued. Writes of the login flow are sent
+ * directly, so that they fail fast.
+ *
+ * All queue state is confined to a single background thread. Callbacks are delivered on the main thread.
+ */
+internal class WriteQueue(
+        storageFactory: () -> EncryptedJsonStorage<List<PendingWrite>>,
+        private val executor: ScheduledExecutorService = Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY),
+        private val callbackExecutor: Executor = MAIN_THREAD
+) {
+
+    internal data class PendingWrite(
+            val id: String,
+            val userId: String,
+            val type: Type,
+            val fields: Map<String, String> = emptyMap(),
+            val attempts: Int = 0
+    ) {
+        enum class Type {
+            PROFILE_UPDATE
+        }
+    }
+
+    private val entries = mutableListOf<PendingWrite>()
+    private val callbacks = mutableMapOf<String, MutableList<ResultCallback<NoValue>>>()
+    private val users = mutableMapOf<String, WeakReference<User>>()
+    private val inFlight = mutableSetOf<String>()
+    private val backoffs = mutableMapOf<String, ScheduledFuture<*>>()
+    private var storage: EncryptedJsonStorage<List<PendingWrite>>? = null
+
+    init {
+        // Setting up the storage involves the key store and disk IO, so it is done on the queue's thread
+        executor.execute {
+            storage = runCatching(storageFactory)
+                    .onFailure { Logger.error(TAG, "Failed to set up storage, pending writes will not be persisted", it) }
+                    .getOrNull()
+            storage?.read()?.let { entries.addAll(it) }
+            Logger.verbose(TAG, "Restored ${entries.size} pending writes")
+        }
+    }
+
+    /**
+     * Makes the user available for executing its pending writes, including those restored from storage.
+     */
+    fun attach(user: User) {
+        executor.execute {
+            users[user.userId.id] = WeakReference(user)
+            drain()
+        }
+    }
+
+    /**
+     * Queues a profile update. Fields of earlier pending updates which are overwritten by this one are dropped.
+     */
+    fun updateProfile(user: User, fields: Map<String, Any>, callback: ResultCallback<NoValue>?) {
+        val write = PendingWrite(UUID.randomUUID().toString(), user.userId.id, PendingWrite.Type.PROFILE_UPDATE,
+                fields.mapValues { it.value.toString() })
+        enqueue(user, write, callback)
+    }
+
+    /**
+     * Retries writes waiting for backoff straight away. Called when connectivity returns.
+     */
+    fun retryNow() {
+        executor.execute {
+            backoffs.values.forEach { it.cancel(false) }
+            inFlight.removeAll(backoffs.keys)
+            backoffs.clear()
+            drain()
+        }
+    }
+
+    /**
+     * Starts retrying pending writes whenever the device regains connectivity.
+     */
+    fun monitorConnectivity(context: Context) {
+        val connectivityManager = context.getSystemService(Context.CONNECTIVITY_SERVICE) as? ConnectivityManager ?: return
+        val request = NetworkRequest.Builder()
+                .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                .build()
+        runCatching {
+            connectivityManager.registerNetworkCallback(request, object : ConnectivityManager.NetworkCallback() {
+                override fun onAvailable(network: Network) {
+                    Logger.verbose(TAG, "Connectivity available, retrying pending writes")
+                    retryNow()
+                }
+            })
+        }.onFailure { Logger.warn(TAG, "Could not monitor connectivity, pending writes are retried with backoff only", it) }
+    }
+
+    private fun enqueue(user: User, write: PendingWrite, callback: ResultCallback<NoValue>?) {
+        executor.execute {
+            users[write.userId] = WeakReference(user)
+            val merged = dedupe(write)
+            callback?.let { callbacks.getOrPut(merged.id) { mutableListOf() }.add(it) }
+            persist()
+            drain()
+        }
+    }
+
+    /**
+     * Removes parts of pending writes which are superseded by the new write, and adds the new write if needed.
+     * @return The write which will perform the requested change
+     */
+    private fun dedupe(write: PendingWrite): PendingWrite {
+        val busy = inFlightIds()
+        val pending = entries.filter { it.userId == write.userId && it.type == write.type && it.id !in busy }
+        pending.forEach { earlier ->
+            val remaining = earlier.fields - write.fields.keys
+            val index = entries.indexOf(earlier)
+            when {
+                remaining.size == earlier.fields.size -> Unit
+                remaining.isEmpty() -> {
+                    entries.removeAt(index)
+                    callbacks.remove(earlier.id)?.let { callbacks.getOrPut(write.id) { mutableListOf() }.addAll(it) }
+                }
+                else -> entries[index] = earlier.copy(fields = remaining)
+            }
+        }
+        entries.add(write)
+        return write
+    }
+
+    private fun inFlightIds(): Set<String> = inFlight.mapNotNull { userId -> entries.firstOrNull { it.userId == userId }?.id }.toSet()
+
+    private fun drain() {
+        entries.map { it.userId }.distinct()
+                .forEach { userId ->
+                    // Writes completing synchronously drain the queue as well, so the user might be busy by now
+                    if (userId in inFlight) return@forEach
+                    val user = users[userId]?.get() ?: return@forEach
+                    val write = entries.firstOrNull { it.userId == userId } ?: return@forEach
+                    inFlight.add(userId)
+                    execute(user, write)
+                }
+    }
+
+    private fun execute(user: User, write: PendingWrite) {
+        val token = user.token
+        if (token == null) {
+            complete(write) { it.onError(ClientError.USER_LOGGED_OUT_ERROR) }
+            return
+        }
+
+        val onError = { error: NetworkError -> executor.execute { handleError(write, error) } }
+        val onSuccess = { executor.execute { complete(write) { it.onSuccess(NoValue) } } }
+
+        when (write.type) {
+            PendingWrite.Type.PROFILE_UPDATE -> user.backgroundUserService.updateUserProfile(user.userId.id, token, write.fields)
+                    .enqueue(NetworkCallback.lambda<Unit>("Updating profile (queued)", onError, { onSuccess() }))
+        }
+    }
+
+    private fun handleError(write: PendingWrite, error: NetworkError) {
+        val attempts = write.attempts + 1
+        if (!isTransient(error) || attempts >= MAX_ATTEMPTS) {
+            complete(write) { it.onError(error.toClientError()) }
+            return
+        }
+
+        val index = entries.indexOfFirst { it.id == write.id }
+        if (index >= 0) {
+            entries[index] = write.copy(attempts = attempts)
+            persist()
+        }
+
+        val delay = minOf(INITIAL_BACKOFF_MS shl (attempts - 1), MAX_BACKOFF_MS)
+        Logger.verbose(TAG, "Write ${write.type} failed with ${error.type}, retrying in $delay ms")
+        backoffs[write.userId] = executor.schedule({
+            backoffs.remove(write.userId)
+            inFlight.remove(write.userId)
+            drain()
+        }, delay, TimeUnit.MILLISECONDS)
+    }
+
+    private fun complete(write: PendingWrite, notify: (ResultCallback<NoValue>) -> Unit) {
+        entries.removeAll { it.id == write.id }
+        inFlight.remove(write.userId)
+        persist()
+        callbacks.remove(write.id)?.let { pending -> callbackExecutor.execute { pending.forEach(notify) } }
+        drain()
+    }
+
+    private fun persist() {
+        storage?.write(entries.toList())
+    }
+
+    companion object {
+        private const val TAG = "WriteQueue"
+        private const val PREFERENCE_FILENAME = "IDENTITY_WRITE_QUEUE"
+        private const val KEY_ENTRIES = "com.schibsted.account.session.WriteQueue.entries"
+        private const val INITIAL_BACKOFF_MS = 1_000L
+        private const val MAX_BACKOFF_MS = 5 * 60_000L
+        internal const val MAX_ATTEMPTS = 10
+
+        private val MAIN_THREAD = Executor { Handler(Looper.getMainLooper()).post(it) }
+        private val THREAD_FACTORY = ThreadFactory { Thread(it, "AccountSdkWriteQueue").apply { isDaemon = true } }
+
+        /**
+         * Network failures, timeouts, rate limiting and server errors are worth retrying
+         */
+        internal fun isTransient(error: NetworkError): Boolean =
+                error.code == -1 && error.type != "parse_error" || error.code == 429 || error.code >= 500
+
+        fun create(context: Context): WriteQueue = WriteQueue({
+            EncryptedJsonStorage<List<PendingWrite>>(context, PREFERENCE_FILENAME, KEY_ENTRIES, typeToken<List<PendingWrite>>())
+        }).also { it.monitorConnectivity(context) }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.util
+
+import com.schibsted.account.engine.integration.ResultCallback
+import com.schibsted.account.model.error.ClientError
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Runs an asynchronous task for each of the given keys, with at most [maxInFlight] tasks running at
+ * the same time. Duplicate keys are only processed once. When all tasks have succeeded, the results are
+ * delivered to the callback as a single map. The first error is delivered instead, after which no new
+ * tasks are started.
+ * @param keys The keys to run the task for
+ * @param maxInFlight The maximum number of concurrently running tasks
+ * @param task The task to run for every key. It must call the provided callback exactly once
+ */
+internal class BoundedFanOut<K, V>(
+    keys: Collection<K>,
+    private val maxInFlight: Int,
+    private val task: (K, ResultCallback<V>) -> Unit
+) {
+    private val pending = ConcurrentLinkedQueue<K>(keys.distinct())
+    private val remaining = AtomicInteger(pending.size)
+    private val results = ConcurrentHashMap<K, V>()
+    private val finished = AtomicBoolean(false)
+
+    init {
+        require(maxInFlight > 0) { "The number of concurrent tasks must be positive" }
+    }
+
+    fun start(callback: ResultCallback<Map<K, V>>) {
+        if (remaining.get() == 0) {
+            finished.set(true)
+            callback.onSuccess(emptyMap())
+            return
+        }
+
+        repeat(minOf(maxInFlight, remaining.get())) { next(callback) }
+    }
+
+    private fun next(callback: ResultCallback<Map<K, V>>) {
+        if (finished.get()) return
+        val key = pending.poll() ?: return
+
+        task(key, ResultCallback.fromLambda(
+                { error: ClientError ->
+                    if (finished.compareAndSet(false, true)) {
+                        pending.clear()
+                        callback.onError(error)
+                    }
+                },
+                { result: V ->
+                    results[key] = result
+                    if (remaining.decrementAndGet() == 0) {
+                        if (finished.compareAndSet(false, true)) {
+                            callback.onSuccess(results.toMap())
+                        }
+                    } else {
+                        next(callback)
+                    }
+                }))
+    }
+}
@@ -5,15 +5,22 @@
 package com.schibsted.account.util
 
 import androidx.annotation.VisibleForTesting
+import com.schibsted.account.common.util.Logger
 import java.io.InputStream
 
 /**
  * Loads configuration from "assets/schibsted_account.conf". This file may contain
  * (1) key-value pairs separated by a single colon ":" character, or comments
  * that start with "#" character.
+ *
+ * Applications which apply the "client-configuration" Gradle plugin have the file parsed at build time, into the
+ * [GENERATED_CLASS_NAME] class, which can be loaded without reading the APK.
  */
 object ConfigurationUtils {
+    private const val TAG = "ConfigurationUtils"
     private const val CONFIG_FILE_PATH = "assets/schibsted_account.conf"
+    private const val GENERATED_CLASS_NAME = "com.schibsted.account.GeneratedClientConfiguration"
+    private const val GENERATED_FIELD_NAME = "PARAMS"
     private const val SEPARATOR = ':'
     private const val COMMENT_MARKER = '#'
 
@@ -28,6 +35,27 @@ object ConfigurationUtils {
         }
     }
 
+    /**
+     * Loads the configuration generated at build time as a map of keys and values.
+     *
+     * @return The configuration, or null if it was not generated
+     */
+    fun paramsFromGeneratedClass(): Map<String, String>? = paramsFromGeneratedClass(GENERATED_CLASS_NAME)
+
+    @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
+    internal fun paramsFromGeneratedClass(className: String): Map<String, String>? {
+        val params = try {
+            Class.forName(className).getField(GENERATED_FIELD_NAME).get(null) as? Array<*>
+        } catch (e: ClassNotFoundException) {
+            null
+        } catch (e: ReflectiveOperationException) {
+            Logger.warn(TAG, "The generated configuration $className is invalid, it is ignored", e)
+            null
+        } ?: return null
+
+        return (0 until params.size / 2).associate { params[it * 2].toString() to params[it * 2 + 1].toString() }
+    }
+
     @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
     internal fun getConfigResourceStream(path: String): InputStream {
         val stream = ConfigurationUtils::class.java.classLoader?.getResourceAsStream(path)
@@ -0,0 +1,117 @@
+package com.schibsted.account.engine.operation
+
+import com.google.gson.Gson
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.engine.input.Identifier
+import com.schibsted.account.model.error.NetworkError
+import com.schibsted.account.network.response.AccountStatusResponse
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+
+class AccountStatusCacheTest : WordSpec({
+    Logger.loggingEnabled = false
+
+    val status = Gson().fromJson("""{"exists":true,"available":false,"verified":true}""", AccountStatusResponse::class.java)
+    val email = Identifier(Identifier.IdentifierType.EMAIL, "user@example.com")
+
+    class Fetcher {
+        val failures = mutableListOf<(NetworkError) -> Unit>()
+        val successes = mutableListOf<(AccountStatusResponse) -> Unit>()
+
+        fun fetch(identifier: Identifier, failure: (NetworkError) -> Unit, success: (AccountStatusResponse) -> Unit) {
+            failures.add(failure)
+            successes.add(success)
+        }
+    }
+
+    "get" should {
+        "serve recent statuses from the cache" {
+            var now = 0L
+            val fetcher = Fetcher()
+            val cache = AccountStatusCache({ now }, fetcher::fetch)
+            val results = mutableListOf<AccountStatusResponse>()
+
+            cache.get(email, {}, { results.add(it) })
+            fetcher.successes.single()(status)
+            cache.get(email.copy(identifier = " User@Example.com"), {}, { results.add(it) })
+
+            fetcher.successes.size shouldBe 1
+            results shouldBe listOf(status, status)
+
+            now = AccountStatusCache.timeToLive + 1
+            cache.get(email, {}, {})
+            fetcher.successes.size shouldBe 2
+        }
+
+        "let concurrent lookups of the same identifier wait for the pending one" {
+            val fetcher = Fetcher()
+            val cache = AccountStatusCache({ 0L }, fetcher::fetch)
+            var results = 0
+
+            cache.prefetch(email)
+            cache.get(email, {}, { results++ })
+            cache.get(email, {}, { results++ })
+            fetcher.successes.size shouldBe 1
+
+            fetcher.successes.single()(status)
+            results shouldBe 2
+        }
+
+        "not cache failures" {
+            val fetcher = Fetcher()
+            val cache = AccountStatusCache({ 0L }, fetcher::fetch)
+            var errors = 0
+
+            cache.get(email, { errors++ }, {})
+            fetcher.failures.single()(NetworkError(-1, "network_error", "Failed", "endpoint"))
+            cache.get(email, {}, {})
+
+            errors shouldBe 1
+            fetcher.failures.size shouldBe 2
+        }
+
+        "fail the waiters and forget the lookup when fetching throws" {
+            var fetches = 0
+            val cache = AccountStatusCache({ 0L }, { _, _, _ ->
+                fetches++
+                throw IllegalStateException("Failed to start the lookup")
+            })
+            val errors = mutableListOf<NetworkError>()
+
+            cache.get(email, { errors.add(it) }, {})
+            cache.get(email, { errors.add(it) }, {})
+
+            errors.size shouldBe 2
+            fetches shouldBe 2
+        }
+
+        "drop the least recently used identifiers" {
+            val fetcher = Fetcher()
+            val cache = AccountStatusCache({ 0L }, fetcher::fetch)
+            val identifiers = (0..AccountStatusCache.maxEntries).map { Identifier(Identifier.IdentifierType.SMS, "+4790000$it") }
+
+            identifiers.forEach { identifier ->
+                cache.get(identifier, {}, {})
+                fetcher.successes.last()(status)
+            }
+            cache.get(identifiers.last(), {}, {})
+            cache.get(identifiers.first(), {}, {})
+
+            fetcher.successes.size shouldBe identifiers.size + 1
+        }
+    }
+
+    "invalidate" should {
+        "remove the status of the identifier" {
+            val fetcher = Fetcher()
+            val cache = AccountStatusCache({ 0L }, fetcher::fetch)
+
+            cache.get(email, {}, {})
+            fetcher.successes.single()(status)
+            cache.invalidate(email)
+            cache.get(email, {}, {})
+
+            fetcher.successes.size shouldBe 2
+        }
+    }
+})
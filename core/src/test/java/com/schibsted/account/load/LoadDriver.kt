@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.load
+
+import com.google.gson.Gson
+import com.schibsted.account.network.LatencyHistogram
+import com.schibsted.account.network.ServiceHolder
+import com.schibsted.account.network.response.TokenResponse
+import com.schibsted.account.network.service.user.UserService
+import okhttp3.FormBody
+import okhttp3.HttpUrl.Companion.toHttpUrl
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import retrofit2.Call
+import retrofit2.Response
+import java.io.IOException
+import java.util.Base64
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Runs simulated users concurrently through logging in, refreshing their tokens and checking their profile and
+ * product access, and reports the throughput and latencies per operation. Requests go through the SDK's own client
+ * by default, so that its interceptors and connection pool are part of what is measured.
+ *
+ * Like [com.schibsted.account.network.AuthInterceptor], a user whose request is rejected with 401 refreshes its token
+ * and retries the request once. Tokens are requested with OkHttp directly, since the SDK's OAuth service relies on
+ * android.util.Base64 which is not available in unit tests.
+ */
+internal class LoadDriver(
+    private val environment: String,
+    clientId: String,
+    clientSecret: String,
+    private val client: OkHttpClient = ServiceHolder.defaultClient
+) {
+
+    enum class Operation {
+        LOGIN, REFRESH, PROFILE, PRODUCT_ACCESS
+    }
+
+    data class Report(
+        val users: Int,
+        val durationMs: Long,
+        val latencies: Map<Operation, LatencyHistogram.Snapshot>,
+        val failures: Map<Operation, Long>,
+        val unauthorized: Long
+    ) {
+        val operations: Long get() = latencies.values.map { it.count }.sum()
+
+        val throughput: Double get() = if (durationMs == 0L) 0.0 else operations * 1000.0 / durationMs
+
+        override fun toString(): String = buildString {
+            appendln("$users users, $operations operations in $durationMs ms (%.1f/s), $unauthorized rejected with 401".format(throughput))
+            appendln("%-16s %8s %8s %8s %8s %8s %8s".format("operation", "count", "failed", "mean", "p50", "p90", "p99"))
+            latencies.forEach { (operation, snapshot) ->
+                appendln("%-16s %8d %8d %8.1f %8s %8s %8s".format(operation, snapshot.count, failures[operation] ?: 0,
+                        snapshot.meanMs, snapshot.quantileUpperBoundMs(0.5), snapshot.quantileUpperBoundMs(0.9),
+                        snapshot.quantileUpperBoundMs(0.99)))
+            }
+        }
+    }
+
+    private val basicAuth = "Basic " + Base64.getEncoder().encodeToString("$clientId:$clientSecret".toByteArray())
+    private val userService = UserService(environment, client)
+    private val histograms = Operation.values().associate { it to LatencyHistogram() }
+    private val failures = Operation.values().associate { it to AtomicLong() }
+    private val unauthorized = AtomicLong()
+
+    /**
+     * Runs one simulated user per credential pair. Each user logs in, and then checks its profile and access to the
+     * product [iterations] times.
+     * @param refreshEvery The number of iterations after which a user refreshes its token, or 0 to only refresh on 401
+     * @param timeoutMs The time after which users which have not finished are abandoned
+     */
+    fun run(
+        credentials: List<Pair<String, String>>,
+        iterations: Int,
+        productId: String,
+        refreshEvery: Int = 0,
+        timeoutMs: Long = 5 * 60_000L
+    ): Report {
+        val executor = Executors.newFixedThreadPool(credentials.size)
+        val ready = CountDownLatch(credentials.size)
+        val start = CountDownLatch(1)
+        val done = CountDownLatch(credentials.size)
+
+        credentials.forEach { (username, password) ->
+            executor.execute {
+                try {
+                    ready.countDown()
+                    start.await()
+                    SimulatedUser(username, password).run(iterations, productId, refreshEvery)
+                } finally {
+                    done.countDown()
+                }
+            }
+        }
+
+        ready.await()
+        val startedAt = System.nanoTime()
+        start.countDown()
+        done.await(timeoutMs, TimeUnit.MILLISECONDS)
+        val durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)
+        executor.shutdownNow()
+
+        return Report(credentials.size, durationMs, histograms.mapValues { it.value.snapshot() },
+                failures.mapValues { it.value.get() }, unauthorized.get())
+    }
+
+    private inner class SimulatedUser(private val username: String, private val password: String) {
+        private var token: TokenResponse? = null
+
+        fun run(iterations: Int, productId: String, refreshEvery: Int) {
+            token = timed(Operation.LOGIN, { it != null }) {
+                grant(mapOf(PARAM_GRANT_TYPE to "password", "username" to username, "password" to password))
+            } ?: return
+
+            for (iteration in 1..iterations) {
+                if (Thread.interrupted()) return
+                if (refreshEvery > 0 && iteration % refreshEvery == 0) refresh()
+                authorized(Operation.PROFILE) { userService.getUserProfile(it.userId, it) }
+                // Not having access to the product is an answer as well
+                authorized(Operation.PRODUCT_ACCESS, 404) { userService.getProductAccess(it, it.userId, productId) }
+            }
+        }
+
+        private fun refresh(): Boolean {
+            val refreshToken = token?.refreshToken ?: return false
+            val refreshed = timed(Operation.REFRESH, { it != null }) {
+                grant(mapOf(PARAM_GRANT_TYPE to "refresh_token", "refresh_token" to refreshToken))
+            }
+            refreshed?.let { token = it }
+            return refreshed != null
+        }
+
+        private fun authorized(operation: Operation, vararg acceptedCodes: Int, call: (TokenResponse) -> Call<*>) {
+            val isSuccess = { response: Response<*>? -> response != null && (response.isSuccessful || response.code() in acceptedCodes) }
+            val current = token ?: return
+            val response = timed(operation, { it?.code() == 401 || isSuccess(it) }) { call(current).execute() }
+            if (response?.code() == 401) {
+                unauthorized.incrementAndGet()
+                if (refresh()) {
+                    timed(operation, isSuccess) { call(checkNotNull(token)).execute() }
+                } else {
+                    failures.getValue(operation).incrementAndGet()
+                }
+            }
+        }
+
+        private fun <T> timed(operation: Operation, isSuccess: (T?) -> Boolean, block: () -> T): T? {
+            val start = System.nanoTime()
+            val result = try {
+                block()
+            } catch (e: IOException) {
+                null
+            }
+            histograms.getValue(operation).record(System.nanoTime() - start)
+            if (!isSuccess(result)) failures.getValue(operation).incrementAndGet()
+            return result
+        }
+    }
+
+    private fun grant(params: Map<String, String>): TokenResponse? {
+        val body = FormBody.Builder().apply { params.forEach { (name, value) -> add(name, value) } }.build()
+        val request = Request.Builder()
+                .url(environment.toHttpUrl().resolve(PATH_TOKEN)!!)
+                .header("Authorization", basicAuth)
+                .post(body)
+                .build()
+
+        return client.newCall(request).execute().use { response ->
+            if (response.isSuccessful) GSON.fromJson(response.body?.charStream(), TokenResponse::class.java) else null
+        }
+    }
+
+    companion object {
+        private const val PATH_TOKEN = "oauth/token"
+        private const val PARAM_GRANT_TYPE = "grant_type"
+        private val GSON = Gson()
+    }
+}
@@ -0,0 +1,71 @@
+package com.schibsted.account.load
+
+import com.schibsted.account.ClientConfiguration
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.load.LoadDriver.Operation
+import com.schibsted.account.testsupport.FakeAccountServer
+import com.schibsted.account.testsupport.Faults
+import io.kotlintest.Spec
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.StringSpec
+import java.io.File
+
+/**
+ * Runs the [LoadDriver] against a [FakeAccountServer]. The full load test only runs when the `loadTest` system
+ * property is set, for example with `./gradlew :core:testDebugUnitTest -PloadTest=200`, where the value is the
+ * number of simulated users. The report is written to `core/build/reports/load/report.txt`.
+ */
+class LoadDriverTest : StringSpec() {
+    private val server = FakeAccountServer()
+
+    override fun beforeSpec(spec: Spec) {
+        Logger.loggingEnabled = false
+        server.start()
+        ClientConfiguration.set(ClientConfiguration(server.url, server.clientId, server.clientSecret))
+    }
+
+    override fun afterSpec(spec: Spec) {
+        server.close()
+    }
+
+    private fun credentials(count: Int) = (1..count).map { "user$it@example.com" to "password$it" }
+            .onEach { (username, password) -> server.register(username, password) }
+
+    private fun driver() = LoadDriver(server.url, server.clientId, server.clientSecret)
+
+    init {
+        "Simulated users log in, refresh and check their profile and product access" {
+            server.faults = Faults.NONE
+            val report = driver().run(credentials(4), iterations = 6, productId = "product", refreshEvery = 3)
+
+            report.latencies.getValue(Operation.LOGIN).count shouldBe 4L
+            report.latencies.getValue(Operation.REFRESH).count shouldBe 8L
+            report.latencies.getValue(Operation.PROFILE).count shouldBe 24L
+            report.latencies.getValue(Operation.PRODUCT_ACCESS).count shouldBe 24L
+            report.failures.values.sum() shouldBe 0L
+        }
+
+        "Users refresh their token and retry when requests are rejected with 401" {
+            server.faults = Faults(unauthorizedRate = 0.5)
+            val report = driver().run(credentials(4), iterations = 10, productId = "product")
+
+            (report.unauthorized > 0) shouldBe true
+            report.latencies.getValue(Operation.REFRESH).count shouldBe report.unauthorized
+            report.failures.getValue(Operation.REFRESH) shouldBe 0L
+        }
+
+        "Load test".config(enabled = System.getProperty(PROPERTY_LOAD_TEST) != null) {
+            val users = System.getProperty(PROPERTY_LOAD_TEST)?.toIntOrNull() ?: DEFAULT_USERS
+            server.faults = Faults(latencyMs = 20, latencyJitterMs = 30, errorRate = 0.01, unauthorizedRate = 0.01)
+            val report = driver().run(credentials(users), iterations = 50, productId = "product", refreshEvery = 10)
+
+            File(REPORT_FILE).apply { parentFile.mkdirs() }.writeText("$report\nRequests: ${server.requestCounts()}\n")
+        }
+    }
+
+    companion object {
+        private const val PROPERTY_LOAD_TEST = "loadTest"
+        private const val DEFAULT_USERS = 100
+        private const val REPORT_FILE = "build/reports/load/report.txt"
+    }
+}
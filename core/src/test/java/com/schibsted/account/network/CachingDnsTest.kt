@@ -0,0 +1,60 @@
+package com.schibsted.account.network
+
+import io.kotlintest.shouldBe
+import io.kotlintest.shouldThrow
+import io.kotlintest.specs.StringSpec
+import okhttp3.Dns
+import java.net.InetAddress
+import java.net.UnknownHostException
+
+class CachingDnsTest : StringSpec() {
+
+    override fun isInstancePerTest() = true
+
+    init {
+        var now = 0L
+        var lookups = 0
+        var failing = false
+        val address = InetAddress.getByAddress("login.schibsted.com", byteArrayOf(10, 0, 0, 1))
+        val delegate = object : Dns {
+            override fun lookup(hostname: String): List<InetAddress> {
+                lookups++
+                if (failing) throw UnknownHostException(hostname)
+                return listOf(address)
+            }
+        }
+        val dns = CachingDns(delegate, { it.run() }, { now })
+
+        "Resolved addresses are cached until they expire" {
+            dns.lookup("login.schibsted.com") shouldBe listOf(address)
+            dns.lookup("login.schibsted.com") shouldBe listOf(address)
+            lookups shouldBe 1
+
+            now = CachingDns.timeToLive + 1
+            dns.lookup("login.schibsted.com")
+            lookups shouldBe 2
+        }
+
+        "Prefetched addresses are served from the cache" {
+            dns.prefetch("login.schibsted.com")
+            dns.lookup("login.schibsted.com") shouldBe listOf(address)
+            lookups shouldBe 1
+        }
+
+        "Stale addresses are used when resolving fails" {
+            dns.lookup("login.schibsted.com")
+            now = CachingDns.timeToLive + 1
+            failing = true
+
+            dns.lookup("login.schibsted.com") shouldBe listOf(address)
+        }
+
+        "Resolving fails when there are no usable addresses" {
+            dns.lookup("login.schibsted.com")
+            now = CachingDns.timeToLive + CachingDns.maxStale + 1
+            failing = true
+
+            shouldThrow<UnknownHostException> { dns.lookup("login.schibsted.com") }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.schibsted.account.network
+
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.StringSpec
+
+class CircuitBreakerTest : StringSpec() {
+
+    override fun isInstancePerTest() = true
+
+    init {
+        var now = 0L
+        val changes = mutableListOf<CircuitBreaker.State>()
+        val breaker = CircuitBreaker("oauth/token:refresh_token", { CircuitBreaker.Config(3, 1000, 1) }, { _, _, to -> changes.add(to) }, { now })
+
+        fun fail(times: Int) = repeat(times) {
+            breaker.tryAcquire()
+            breaker.onFailure()
+        }
+
+        "The circuit opens after the configured number of consecutive failures" {
+            fail(2)
+            breaker.state shouldBe CircuitBreaker.State.CLOSED
+
+            fail(1)
+            breaker.state shouldBe CircuitBreaker.State.OPEN
+            breaker.tryAcquire() shouldBe false
+            changes shouldBe listOf(CircuitBreaker.State.OPEN)
+        }
+
+        "A success resets the failure count" {
+            fail(2)
+            breaker.onSuccess()
+            fail(2)
+
+            breaker.state shouldBe CircuitBreaker.State.CLOSED
+        }
+
+        "Only a limited number of trial requests are let through when half open" {
+            fail(3)
+            now = 1000
+
+            breaker.tryAcquire() shouldBe true
+            breaker.state shouldBe CircuitBreaker.State.HALF_OPEN
+            breaker.tryAcquire() shouldBe false
+        }
+
+        "A successful trial request closes the circuit" {
+            fail(3)
+            now = 1000
+            breaker.tryAcquire()
+            breaker.onSuccess()
+
+            breaker.state shouldBe CircuitBreaker.State.CLOSED
+            changes shouldBe listOf(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED)
+        }
+
+        "A failed trial request opens the circuit again" {
+            fail(3)
+            now = 1000
+            fail(1)
+
+            breaker.state shouldBe CircuitBreaker.State.OPEN
+            now = 1999
+            breaker.tryAcquire() shouldBe false
+        }
+
+        "A released trial request lets another trial request through" {
+            fail(3)
+            now = 1000
+            breaker.tryAcquire() shouldBe true
+            breaker.release()
+
+            breaker.state shouldBe CircuitBreaker.State.HALF_OPEN
+            breaker.tryAcquire() shouldBe true
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.schibsted.account.network
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.doAnswer
+import com.nhaarman.mockitokotlin2.doReturn
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import com.schibsted.account.common.util.Logger
+import io.kotlintest.shouldBe
+import io.kotlintest.shouldThrow
+import io.kotlintest.specs.WordSpec
+import okhttp3.Interceptor
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import java.util.concurrent.TimeUnit
+
+class DeadlineInterceptorTest : WordSpec({
+    Logger.loggingEnabled = false
+
+    val url = "https://example.com/api/2/user/1"
+
+    fun request(deadline: Deadline? = null): Request = Request.Builder().url(url)
+            .apply { deadline?.let { header(Deadline.HEADER, it.toHeader()) } }
+            .build()
+
+    /**
+     * @param timeouts Receives the read timeout of each request which had its timeouts changed
+     */
+    fun chain(request: Request, timeouts: MutableList<Int>): Interceptor.Chain {
+        val chain = mock<Interceptor.Chain> {
+            on { request() } doReturn request
+            on { readTimeoutMillis() } doReturn 10_000
+            on { proceed(any()) } doAnswer {
+                Response.Builder().request(it.getArgument(0)).protocol(Protocol.HTTP_1_1).message("message").code(200).build()
+            }
+        }
+        whenever(chain.withConnectTimeout(any(), any())).thenReturn(chain)
+        whenever(chain.withWriteTimeout(any(), any())).thenReturn(chain)
+        whenever(chain.withReadTimeout(any(), any())).thenAnswer {
+            timeouts.add(it.getArgument(0))
+            chain
+        }
+        return chain
+    }
+
+    "intercept" should {
+        "keep the timeouts of requests without a deadline" {
+            val timeouts = mutableListOf<Int>()
+            val chain = chain(request(), timeouts)
+
+            DeadlineInterceptor({ false }).intercept(chain).code shouldBe 200
+            timeouts shouldBe emptyList<Int>()
+            verify(chain).proceed(any())
+        }
+
+        "limit the timeouts to the time remaining, and not send the deadline" {
+            val timeouts = mutableListOf<Int>()
+            val chain = chain(request(Deadline.after(5_000)), timeouts)
+
+            val response = DeadlineInterceptor({ false }).intercept(chain)
+
+            (timeouts.single() in 1..5_000) shouldBe true
+            response.request.header(Deadline.HEADER) shouldBe null
+        }
+
+        "fail without requesting once the deadline has passed" {
+            val chain = chain(request(Deadline.after(-1)), mutableListOf())
+
+            shouldThrow<DeadlineExceededException> { DeadlineInterceptor({ false }).intercept(chain) }
+            verify(chain, never()).proceed(any())
+        }
+
+        "fail without requesting when less than a millisecond is left" {
+            val almostExpired = Deadline(System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(500), { System.nanoTime() })
+            val chain = chain(request(almostExpired), mutableListOf())
+
+            shouldThrow<DeadlineExceededException> { DeadlineInterceptor({ false }).intercept(chain) }
+            verify(chain, never()).proceed(any())
+        }
+
+        "shorten the timeouts of an endpoint once enough latencies are observed" {
+            val timeouts = mutableListOf<Int>()
+            val interceptor = DeadlineInterceptor({ true })
+
+            repeat(21) { interceptor.intercept(chain(request(), timeouts)) }
+
+            timeouts.take(20).all { it == 10_000 } shouldBe true
+            timeouts.last() shouldBe 2_000
+        }
+
+        "not shorten the timeouts when adaptive timeouts are disabled" {
+            val timeouts = mutableListOf<Int>()
+            val interceptor = DeadlineInterceptor({ false })
+
+            repeat(21) { interceptor.intercept(chain(request(), timeouts)) }
+
+            timeouts shouldBe emptyList<Int>()
+        }
+    }
+})
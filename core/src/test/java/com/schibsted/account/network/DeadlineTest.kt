@@ -0,0 +1,38 @@
+package com.schibsted.account.network
+
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.StringSpec
+import java.util.concurrent.TimeUnit
+
+class DeadlineTest : StringSpec() {
+    init {
+        var now = 0L
+        val deadline = Deadline(TimeUnit.MILLISECONDS.toNanos(100), { now })
+
+        "The remaining time counts down to zero" {
+            now = 0
+            deadline.remainingMillis shouldBe 100L
+            deadline.isExpired shouldBe false
+
+            now = TimeUnit.MILLISECONDS.toNanos(100)
+            deadline.remainingMillis shouldBe 0L
+            deadline.isExpired shouldBe true
+
+            now = TimeUnit.MILLISECONDS.toNanos(150)
+            deadline.remainingMillis shouldBe 0L
+        }
+
+        "Less than a millisecond is rounded down to zero" {
+            now = TimeUnit.MILLISECONDS.toNanos(100) - 1
+            deadline.remainingMillis shouldBe 0L
+            deadline.isExpired shouldBe false
+        }
+
+        "The deadline survives the header" {
+            now = 0
+            Deadline.fromHeader(deadline.toHeader())?.toHeader() shouldBe deadline.toHeader()
+            Deadline.fromHeader("not a deadline") shouldBe null
+            Deadline.fromHeader(null) shouldBe null
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.schibsted.account.network
+
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+import okhttp3.HttpUrl.Companion.toHttpUrl
+
+class HttpMetricsTest : WordSpec({
+    "Normalising an endpoint" should {
+        "replace identifiers following a collection" {
+            HttpMetrics.normalise("https://login.schibsted.com/api/2/user/abc123/product/42".toHttpUrl()) shouldBe "api/2/user/{id}/product/{id}"
+            HttpMetrics.normalise("https://login.schibsted.com/api/2/email/a@b.com/status".toHttpUrl()) shouldBe "api/2/email/{id}/status"
+        }
+
+        "keep paths without identifiers" {
+            HttpMetrics.normalise("https://login.schibsted.com/oauth/token".toHttpUrl()) shouldBe "oauth/token"
+        }
+    }
+
+    "A latency histogram" should {
+        "count durations per bucket" {
+            val histogram = LatencyHistogram()
+            histogram.record(1_000_000)
+            histogram.record(3_000_000)
+            histogram.record(3_000_000_000)
+
+            val snapshot = histogram.snapshot()
+            snapshot.count shouldBe 3L
+            snapshot.totalMs shouldBe 3004L
+            snapshot.quantileUpperBoundMs(0.5) shouldBe 4L
+            snapshot.quantileUpperBoundMs(1.0) shouldBe 4096L
+        }
+
+        "have no quantiles when empty" {
+            LatencyHistogram().snapshot().quantileUpperBoundMs(0.5) shouldBe null
+        }
+    }
+})
@@ -0,0 +1,87 @@
+package com.schibsted.account.network
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argumentCaptor
+import com.nhaarman.mockitokotlin2.doAnswer
+import com.nhaarman.mockitokotlin2.doReturn
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.verify
+import com.schibsted.account.common.util.Logger
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+import okhttp3.Call
+import okhttp3.Dispatcher
+import okhttp3.Interceptor
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class PriorityGateTest : WordSpec({
+    Logger.loggingEnabled = false
+
+    val request = Request.Builder().url("https://example.com/api/2/user/1").build()
+
+    fun chain(canceled: Boolean = false): Interceptor.Chain {
+        val call: Call = mock { on { isCanceled() } doReturn canceled }
+        return mock {
+            on { request() } doReturn request
+            on { call() } doReturn call
+            on { proceed(any()) } doAnswer {
+                Response.Builder().request(request).protocol(Protocol.HTTP_1_1).message("message").code(200).build()
+            }
+        }
+    }
+
+    fun dispatcher(running: AtomicInteger): Dispatcher = mock { on { runningCallsCount() } doAnswer { running.get() } }
+
+    fun elapsedMs(start: Long) = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+
+    "intercept" should {
+        "proceed straight away when no interactive request is running" {
+            val gate = PriorityGate(dispatcher(AtomicInteger(0)), 10_000)
+            val chain = chain()
+            val start = System.nanoTime()
+
+            gate.intercept(chain).code shouldBe 200
+            (elapsedMs(start) < 1_000) shouldBe true
+            verify(chain).proceed(request)
+        }
+
+        "proceed once the deferral limit is reached" {
+            val gate = PriorityGate(dispatcher(AtomicInteger(1)), 200)
+            val chain = chain()
+            val start = System.nanoTime()
+
+            gate.intercept(chain).code shouldBe 200
+            (elapsedMs(start) >= 200) shouldBe true
+            verify(chain).proceed(request)
+        }
+
+        "proceed once the interactive dispatcher is idle" {
+            val running = AtomicInteger(1)
+            val dispatcher = dispatcher(running)
+            val gate = PriorityGate(dispatcher, 10_000)
+            val idleCallback = argumentCaptor<Runnable>().apply { verify(dispatcher).idleCallback = capture() }.firstValue
+            val start = System.nanoTime()
+
+            Thread {
+                Thread.sleep(100)
+                running.set(0)
+                idleCallback.run()
+            }.start()
+
+            gate.intercept(chain()).code shouldBe 200
+            (elapsedMs(start) < 5_000) shouldBe true
+        }
+
+        "not hold back a canceled request" {
+            val gate = PriorityGate(dispatcher(AtomicInteger(1)), 10_000)
+            val start = System.nanoTime()
+
+            gate.intercept(chain(canceled = true)).code shouldBe 200
+            (elapsedMs(start) < 5_000) shouldBe true
+        }
+    }
+})
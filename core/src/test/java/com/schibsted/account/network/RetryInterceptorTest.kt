@@ -0,0 +1,130 @@
+package com.schibsted.account.network
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.network.RetryPolicy.EndpointClass
+import io.kotlintest.shouldBe
+import io.kotlintest.shouldThrow
+import io.kotlintest.specs.WordSpec
+import okhttp3.Call
+import okhttp3.FormBody
+import okhttp3.Interceptor
+import okhttp3.MediaType.Companion.toMediaTypeOrNull
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.RequestBody.Companion.toRequestBody
+import okhttp3.Response
+import okhttp3.ResponseBody.Companion.toResponseBody
+import java.io.IOException
+import java.net.SocketTimeoutException
+
+class RetryInterceptorTest : WordSpec({
+    Logger.loggingEnabled = false
+
+    val getRequest = Request.Builder().url("https://example.com/api/2/user/1").build()
+
+    fun response(request: Request, code: Int, retryAfter: String? = null): Response = Response.Builder()
+            .request(request)
+            .protocol(Protocol.HTTP_1_1)
+            .message("message")
+            .code(code)
+            .apply { retryAfter?.let { header("Retry-After", it) } }
+            .body("{}".toResponseBody("application/json".toMediaTypeOrNull()))
+            .build()
+
+    fun chain(request: Request, vararg results: Any): Interceptor.Chain {
+        val call: Call = mock()
+        var index = 0
+        return mock {
+            on { request() }.thenReturn(request)
+            on { call() }.thenReturn(call)
+            on { proceed(any()) }.then {
+                when (val result = results[minOf(index++, results.size - 1)]) {
+                    is IOException -> throw result
+                    else -> result as Response
+                }
+            }
+        }
+    }
+
+    fun tokenRequest(grantType: String) = Request.Builder()
+            .url("https://example.com/oauth/token")
+            .post(FormBody.Builder().add("grant_type", grantType).build())
+            .build()
+
+    "classify" should {
+        "separate GET requests, token refreshes and credential grants" {
+            RetryInterceptor.classify(getRequest) shouldBe EndpointClass.IDEMPOTENT
+            RetryInterceptor.classify(tokenRequest("refresh_token")) shouldBe EndpointClass.TOKEN_REFRESH
+            RetryInterceptor.classify(tokenRequest("client_credentials")) shouldBe EndpointClass.CLIENT_TOKEN
+            RetryInterceptor.classify(tokenRequest("password")) shouldBe EndpointClass.CREDENTIALS
+            RetryInterceptor.classify(Request.Builder().url("https://example.com/api/2/user/1")
+                    .post("".toRequestBody()).build()) shouldBe EndpointClass.NON_IDEMPOTENT
+        }
+    }
+
+    "intercept" should {
+        "not retry when disabled" {
+            val chain = chain(getRequest, response(getRequest, 503))
+            val interceptor = RetryInterceptor({ RetryPolicy.DISABLED }, { })
+
+            interceptor.intercept(chain).code shouldBe 503
+            verify(chain, times(1)).proceed(any())
+        }
+
+        "retry transient failures until successful" {
+            val chain = chain(getRequest, SocketTimeoutException(), response(getRequest, 503), response(getRequest, 200))
+            val delays = mutableListOf<Long>()
+            val interceptor = RetryInterceptor({ RetryPolicy() }, { delays.add(it) })
+
+            interceptor.intercept(chain).code shouldBe 200
+            delays.size shouldBe 2
+            delays.all { it in 0..RetryPolicy().maxDelayMs } shouldBe true
+        }
+
+        "give up after the maximum number of attempts" {
+            val chain = chain(getRequest, SocketTimeoutException())
+            val interceptor = RetryInterceptor({ RetryPolicy(maxAttempts = 2) }, { })
+
+            shouldThrow<SocketTimeoutException> { interceptor.intercept(chain) }
+            verify(chain, times(2)).proceed(any())
+        }
+
+        "honour Retry-After" {
+            val chain = chain(getRequest, response(getRequest, 429, "2"), response(getRequest, 200))
+            val delays = mutableListOf<Long>()
+            val interceptor = RetryInterceptor({ RetryPolicy() }, { delays.add(it) })
+
+            interceptor.intercept(chain).code shouldBe 200
+            delays shouldBe listOf(2000L)
+        }
+
+        "never retry password grants" {
+            val request = tokenRequest("password")
+            val chain = chain(request, response(request, 503))
+            val interceptor = RetryInterceptor({ RetryPolicy(endpoints = EndpointClass.values().toSet()) }, { })
+
+            interceptor.intercept(chain).code shouldBe 503
+            verify(chain, times(1)).proceed(any())
+        }
+
+        "not retry while the circuit is open" {
+            val chain = chain(getRequest, CircuitOpenException("oauth/token:refresh_token"), response(getRequest, 200))
+            val interceptor = RetryInterceptor({ RetryPolicy() }, { })
+
+            shouldThrow<CircuitOpenException> { interceptor.intercept(chain) }
+            verify(chain, times(1)).proceed(any())
+        }
+
+        "stop retrying when the budget is exhausted" {
+            val chain = chain(getRequest, response(getRequest, 503))
+            val interceptor = RetryInterceptor({ RetryPolicy(maxAttempts = 10, budgetRatio = 0.0, maxBudget = 2.0) }, { })
+
+            interceptor.intercept(chain).code shouldBe 503
+            verify(chain, times(3)).proceed(any())
+        }
+    }
+})
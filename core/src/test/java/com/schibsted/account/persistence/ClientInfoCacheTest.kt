@@ -0,0 +1,75 @@
+package com.schibsted.account.persistence
+
+import android.content.SharedPreferences
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.anyOrNull
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import com.schibsted.account.ClientConfiguration
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.network.response.ClientInfo
+import com.schibsted.account.network.response.Merchant
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.StringSpec
+
+class ClientInfoCacheTest : StringSpec() {
+
+    override fun isInstancePerTest() = true
+
+    init {
+        Logger.loggingEnabled = false
+
+        val data = mutableMapOf<String, String>()
+        val editor: SharedPreferences.Editor = mock()
+        whenever(editor.putString(any(), any())).then {
+            data[it.getArgument(0) as String] = it.getArgument(1) as String
+            editor
+        }
+        whenever(editor.remove(any())).then {
+            data.remove(it.getArgument(0) as String)
+            editor
+        }
+        val prefs: SharedPreferences = mock {
+            on { getString(any(), anyOrNull()) }.then { data[it.getArgument(0) as String] ?: it.getArgument(1) as String? }
+            on { edit() }.thenReturn(editor)
+        }
+
+        var now = 0L
+        val cache = ClientInfoCache({ prefs }, { now })
+        val configuration = ClientConfiguration("https://example.com", "clientId", "secret")
+        val clientInfo = ClientInfo("1", "client", "alias", mapOf("names" to true), "domain", 3, mapOf(), mapOf(),
+                Merchant("merchant", "nb_NO", "provider", "logo", "type"))
+
+        "There is no client information when storage is empty" {
+            cache.read(configuration) shouldBe null
+        }
+
+        "Stored client information is returned for the same client and environment" {
+            cache.store(clientInfo, configuration)
+
+            cache.read(configuration) shouldBe ClientInfoCache.Cached(clientInfo, false)
+            cache.read(configuration.copy(clientId = "otherClient")) shouldBe null
+            cache.read(configuration.copy(environment = "https://other.example.com")) shouldBe null
+        }
+
+        "Stored client information becomes stale, and expires after the maximum age" {
+            cache.store(clientInfo, configuration)
+
+            now = ClientInfoCache.timeToLive + 1
+            cache.read(configuration) shouldBe ClientInfoCache.Cached(clientInfo, true)
+
+            now = ClientInfoCache.maxAge + 1
+            cache.read(configuration) shouldBe null
+            data.isEmpty() shouldBe true
+        }
+
+        "Client information stored in another version is ignored" {
+            cache.store(clientInfo, configuration)
+            data.keys.forEach { key -> data[key] = data.getValue(key).replace("\"version\":${ClientInfoCache.VERSION}", "\"version\":0") }
+
+            cache.read(configuration) shouldBe null
+            data.isEmpty() shouldBe true
+        }
+    }
+
+}
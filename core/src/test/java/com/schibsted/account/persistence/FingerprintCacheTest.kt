@@ -0,0 +1,47 @@
+package com.schibsted.account.persistence
+
+import com.nhaarman.mockitokotlin2.argThat
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.verify
+import com.schibsted.account.network.response.DeviceFingerprint
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.StringSpec
+
+class FingerprintCacheTest : StringSpec() {
+
+    override fun isInstancePerTest() = true
+
+    init {
+        var now = 0L
+        val storage: EncryptedJsonStorage<List<FingerprintCache.Record>> = mock()
+        val cache = FingerprintCache({ storage }, { now })
+
+        "There is no fingerprint when storage is empty" {
+            cache.get("userId", "androidId", "1") shouldBe null
+        }
+
+        "A stored fingerprint is returned for the same user, device and app version" {
+            cache.store("userId", "androidId", "1", DeviceFingerprint("hash"))
+
+            cache.get("userId", "androidId", "1") shouldBe DeviceFingerprint("hash")
+            cache.get("otherUser", "androidId", "1") shouldBe null
+            cache.get("userId", "otherDevice", "1") shouldBe null
+            cache.get("userId", "androidId", "2") shouldBe null
+        }
+
+        "A stored fingerprint expires" {
+            cache.store("userId", "androidId", "1", DeviceFingerprint("hash"))
+            now = FingerprintCache.timeToLive + 1
+
+            cache.get("userId", "androidId", "1") shouldBe null
+        }
+
+        "Storing a fingerprint replaces the user's previous record" {
+            cache.store("userId", "androidId", "1", DeviceFingerprint("old"))
+            cache.store("userId", "androidId", "2", DeviceFingerprint("new"))
+
+            cache.get("userId", "androidId", "1") shouldBe null
+            verify(storage).write(argThat { size == 1 && first().hash == "new" })
+        }
+    }
+}
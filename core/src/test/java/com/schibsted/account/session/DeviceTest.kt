@@ -0,0 +1,41 @@
+package com.schibsted.account.session
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.doReturn
+import com.nhaarman.mockitokotlin2.doThrow
+import com.nhaarman.mockitokotlin2.mock
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.engine.integration.ResultCallback
+import com.schibsted.account.model.UserId
+import com.schibsted.account.model.UserToken
+import com.schibsted.account.model.error.ClientError
+import com.schibsted.account.network.response.ApiContainer
+import com.schibsted.account.network.response.DeviceFingerprint
+import com.schibsted.account.network.service.user.UserService
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+import retrofit2.Call
+import java.util.concurrent.Executor
+
+class DeviceTest : WordSpec({
+    Logger.loggingEnabled = false
+
+    "createFingerprint" should {
+        "report an error when the request fails with a runtime exception" {
+            val call = mock<Call<ApiContainer<DeviceFingerprint>>> {
+                on { execute() } doThrow IllegalStateException("Failed to parse the response")
+            }
+            val userService = mock<UserService> { on { createDeviceFingerprint(any(), any()) } doReturn call }
+            val user = mock<User> {
+                on { userId } doReturn UserId("userId", null)
+                on { token } doReturn mock<UserToken>()
+            }
+            val errors = mutableListOf<ClientError>()
+
+            Device("app", "1.0", "androidId", user, userService, null, Executor { it.run() })
+                    .createFingerprint(ResultCallback.fromLambda({ errors.add(it) }, { }))
+
+            errors.map { it.errorType } shouldBe listOf(ClientError.ErrorType.UNKNOWN_ERROR)
+        }
+    }
+})
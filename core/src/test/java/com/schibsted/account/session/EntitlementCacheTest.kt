@@ -0,0 +1,66 @@
+package com.schibsted.account.session
+
+import com.schibsted.account.network.response.ProductAccess
+import io.kotlintest.matchers.beInstanceOf
+import io.kotlintest.should
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+
+class EntitlementCacheTest : WordSpec({
+    var now = 0L
+    val ttl = EntitlementCache.timeToLive
+    val stale = EntitlementCache.staleWhileRevalidate
+
+    "lookup" should {
+        "miss when nothing is cached" {
+            val cache = EntitlementCache { now }
+            cache.lookup("product") shouldBe EntitlementCache.Lookup.Miss
+            cache.stats shouldBe EntitlementCache.Stats(0, 0, 1)
+        }
+
+        "serve fresh entries within the TTL" {
+            now = 0L
+            val cache = EntitlementCache { now }
+            cache.store(ProductAccess("product", true))
+
+            now = ttl
+            val result = cache.lookup("product")
+            result should beInstanceOf<EntitlementCache.Lookup.Fresh>()
+            (result as EntitlementCache.Lookup.Fresh).access shouldBe ProductAccess("product", true)
+            cache.stats shouldBe EntitlementCache.Stats(1, 0, 0)
+        }
+
+        "serve stale entries after the TTL, and miss once they are too old" {
+            now = 0L
+            val cache = EntitlementCache { now }
+            cache.store(ProductAccess("product", false))
+
+            now = ttl + 1
+            cache.lookup("product") should beInstanceOf<EntitlementCache.Lookup.Stale>()
+
+            now = ttl + stale + 1
+            cache.lookup("product") shouldBe EntitlementCache.Lookup.Miss
+            cache.stats shouldBe EntitlementCache.Stats(0, 1, 1)
+        }
+
+        "miss after the cache is invalidated" {
+            val cache = EntitlementCache { now }
+            cache.store(ProductAccess("product", true))
+            cache.invalidate()
+
+            cache.lookup("product") shouldBe EntitlementCache.Lookup.Miss
+        }
+    }
+
+    "revalidation" should {
+        "only be started once until the entry is stored again" {
+            val cache = EntitlementCache { now }
+
+            cache.beginRevalidation("product") shouldBe true
+            cache.beginRevalidation("product") shouldBe false
+
+            cache.store(ProductAccess("product", true))
+            cache.beginRevalidation("product") shouldBe true
+        }
+    }
+})
@@ -0,0 +1,101 @@
+package com.schibsted.account.session
+
+import com.google.gson.JsonObject
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.network.response.ProfileData
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+
+class ProfileCacheTest : WordSpec({
+    Logger.loggingEnabled = false
+
+    val profile = ProfileData(
+            userId = "123",
+            displayName = "Jane",
+            gender = "female",
+            name = ProfileData.Name(familyName = "Doe", givenName = "Jane", formatted = "Jane Doe"))
+
+    fun name(family: String): JsonObject = JsonObject().apply {
+        addProperty("family_name", family)
+        addProperty("given_name", "Jane")
+    }
+
+    "diff" should {
+        "return the update unchanged when nothing is cached" {
+            val update = mapOf("displayName" to "Jane")
+            ProfileCache().diff(update) shouldBe update
+        }
+
+        "only keep fields which differ from the cached profile" {
+            val cache = ProfileCache().apply { store(profile) }
+            val update = mapOf("displayName" to "Jane", "gender" to "male", "name" to name("Doe"))
+
+            cache.diff(update) shouldBe mapOf("gender" to "male")
+        }
+
+        "detect changes in nested objects" {
+            val cache = ProfileCache().apply { store(profile) }
+            val update = mapOf<String, Any>("name" to name("Smith"))
+
+            cache.diff(update) shouldBe update
+        }
+
+        "return the update unchanged when the cached profile is stale" {
+            var now = 0L
+            val cache = ProfileCache { now }.apply { store(profile) }
+            now = ProfileCache.revalidateAfter + 1
+            val update = mapOf("displayName" to "Jane", "gender" to "male")
+
+            cache.diff(update) shouldBe update
+        }
+    }
+
+    "optimistic updates" should {
+        "be applied to the cached profile" {
+            val cache = ProfileCache().apply { store(profile) }
+            cache.applyOptimistically(mapOf("displayName" to "Janey", "name" to name("Smith")))
+
+            cache.profile?.displayName shouldBe "Janey"
+            cache.profile?.name shouldBe ProfileData.Name("Smith", "Jane", "Jane Doe")
+        }
+
+        "be rolled back" {
+            val cache = ProfileCache().apply { store(profile) }
+            val rollback = cache.applyOptimistically(mapOf("displayName" to "Janey"))
+            rollback()
+
+            cache.profile shouldBe profile
+        }
+
+        "not roll back a newer profile" {
+            val cache = ProfileCache().apply { store(profile) }
+            val rollback = cache.applyOptimistically(mapOf("displayName" to "Janey"))
+            val newer = profile.copy(displayName = "Server")
+            cache.store(newer)
+            rollback()
+
+            cache.profile shouldBe newer
+        }
+
+        "keep the previous profile when the update cannot be applied" {
+            val cache = ProfileCache().apply { store(profile) }
+            cache.applyOptimistically(mapOf("name" to "Jane Smith"))
+
+            cache.profile shouldBe profile
+            cache.diff(mapOf("displayName" to "Jane")) shouldBe mapOf("displayName" to "Jane")
+            cache.beginRevalidation() shouldBe true
+        }
+    }
+
+    "revalidation" should {
+        "only start once the cached profile is old enough" {
+            var now = 0L
+            val cache = ProfileCache { now }.apply { store(profile) }
+            cache.beginRevalidation() shouldBe false
+
+            now = ProfileCache.revalidateAfter + 1
+            cache.beginRevalidation() shouldBe true
+            cache.beginRevalidation() shouldBe false
+        }
+    }
+})
@@ -0,0 +1,158 @@
+package com.schibsted.account.session
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.doAnswer
+import com.nhaarman.mockitokotlin2.doReturn
+import com.nhaarman.mockitokotlin2.eq
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.engine.integration.ResultCallback
+import com.schibsted.account.model.NoValue
+import com.schibsted.account.model.UserId
+import com.schibsted.account.model.UserToken
+import com.schibsted.account.model.error.ClientError
+import com.schibsted.account.model.error.NetworkError
+import com.schibsted.account.network.NetworkCallback
+import com.schibsted.account.network.service.user.UserService
+import com.schibsted.account.persistence.EncryptedJsonStorage
+import com.schibsted.account.test.TestUtil
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+import retrofit2.Call
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
+
+class WriteQueueTest : WordSpec() {
+
+    /**
+     * Runs scheduled retries straight away, and records the backoff they were scheduled with
+     */
+    private class ImmediateScheduler : ScheduledThreadPoolExecutor(1) {
+        val delays = mutableListOf<Long>()
+
+        override fun schedule(command: Runnable, delay: Long, unit: TimeUnit): ScheduledFuture<*> {
+            delays.add(unit.toMillis(delay))
+            return super.schedule(command, 0, unit)
+        }
+
+        fun flush() = submit { }.get()
+    }
+
+    private val sameThread = Executor { it.run() }
+
+    private fun storage(stored: AtomicReference<List<WriteQueue.PendingWrite>>): EncryptedJsonStorage<List<WriteQueue.PendingWrite>> {
+        val storage = mock<EncryptedJsonStorage<List<WriteQueue.PendingWrite>>> { on { read() } doAnswer { stored.get() } }
+        doAnswer { stored.set(it.getArgument(0)) }.whenever(storage).write(any())
+        return storage
+    }
+
+    private fun service(calls: AtomicInteger, result: (NetworkCallback<Unit>) -> Unit): UserService {
+        val call = mock<Call<Unit>>()
+        doAnswer {
+            calls.incrementAndGet()
+            result(it.getArgument(0))
+        }.whenever(call).enqueue(any())
+        return mock { on { updateUserProfile(any(), any(), any()) } doReturn call }
+    }
+
+    private fun user(service: UserService): User = mock {
+        on { userId } doReturn UserId("userId", null)
+        on { token } doReturn mock<UserToken>()
+        on { backgroundUserService } doReturn service
+    }
+
+    private fun callback(latch: CountDownLatch, error: AtomicReference<ClientError>) = ResultCallback.fromLambda<NoValue>(
+            {
+                error.set(it)
+                latch.countDown()
+            },
+            { latch.countDown() })
+
+    init {
+        Logger.logWorker = TestUtil.testLogger
+
+        "isTransient" should {
+            "retry network failures, timeouts, rate limiting and server errors" {
+                WriteQueue.isTransient(NetworkError(-1, "network_error", "", "")) shouldBe true
+                WriteQueue.isTransient(NetworkError(-1, "connection_timed_out", "", "")) shouldBe true
+                WriteQueue.isTransient(NetworkError(429, "too_many_requests", "", "")) shouldBe true
+                WriteQueue.isTransient(NetworkError(503, "unavailable", "", "")) shouldBe true
+            }
+
+            "not retry invalid input, authorization failures and unparseable responses" {
+                WriteQueue.isTransient(NetworkError(400, "invalid_request", "", "")) shouldBe false
+                WriteQueue.isTransient(NetworkError(401, "unauthorized", "", "")) shouldBe false
+                WriteQueue.isTransient(NetworkError(-1, "parse_error", "", "")) shouldBe false
+            }
+        }
+
+        "WriteQueue" should {
+            "report a permanent error without retrying" {
+                val scheduler = ImmediateScheduler()
+                val calls = AtomicInteger()
+                val queue = WriteQueue({ storage(AtomicReference(emptyList())) }, scheduler, sameThread)
+                val latch = CountDownLatch(1)
+                val error = AtomicReference<ClientError>()
+
+                queue.updateProfile(user(service(calls) { it.onError(NetworkError(400, "invalid_request", "", "")) }),
+                        mapOf("givenName" to "Jane"), callback(latch, error))
+
+                latch.await(5, TimeUnit.SECONDS) shouldBe true
+                calls.get() shouldBe 1
+                (error.get() != null) shouldBe true
+                scheduler.shutdown()
+            }
+
+            "give up with backoff after the maximum number of attempts" {
+                val scheduler = ImmediateScheduler()
+                val calls = AtomicInteger()
+                val stored = AtomicReference<List<WriteQueue.PendingWrite>>(emptyList())
+                val queue = WriteQueue({ storage(stored) }, scheduler, sameThread)
+                val latch = CountDownLatch(1)
+                val error = AtomicReference<ClientError>()
+
+                queue.updateProfile(user(service(calls) { it.onError(NetworkError(-1, "network_error", "", "")) }),
+                        mapOf("givenName" to "Jane"), callback(latch, error))
+
+                latch.await(5, TimeUnit.SECONDS) shouldBe true
+                scheduler.flush()
+                calls.get() shouldBe WriteQueue.MAX_ATTEMPTS
+                scheduler.delays.take(3) shouldBe listOf(1_000L, 2_000L, 4_000L)
+                (error.get() != null) shouldBe true
+                stored.get() shouldBe emptyList<WriteQueue.PendingWrite>()
+                scheduler.shutdown()
+            }
+
+            "restore pending writes after a restart and execute them once the user is attached" {
+                val stored = AtomicReference<List<WriteQueue.PendingWrite>>(emptyList())
+
+                // The request never completes, as if the process died while it was running
+                val firstScheduler = ImmediateScheduler()
+                WriteQueue({ storage(stored) }, firstScheduler, sameThread)
+                        .updateProfile(user(service(AtomicInteger()) { }), mapOf("givenName" to "Jane"), null)
+                firstScheduler.flush()
+                firstScheduler.shutdown()
+                stored.get().map { it.fields } shouldBe listOf(mapOf("givenName" to "Jane"))
+
+                val scheduler = ImmediateScheduler()
+                val calls = AtomicInteger()
+                val service = service(calls) { it.onSuccess(Unit) }
+                WriteQueue({ storage(stored) }, scheduler, sameThread).attach(user(service))
+                scheduler.flush()
+                scheduler.flush()
+
+                calls.get() shouldBe 1
+                verify(service).updateUserProfile(eq("userId"), any(), eq(mapOf("givenName" to "Jane")))
+                stored.get() shouldBe emptyList<WriteQueue.PendingWrite>()
+                scheduler.shutdown()
+            }
+        }
+    }
+}
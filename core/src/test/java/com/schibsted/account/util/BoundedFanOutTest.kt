@@ -0,0 +1,67 @@
+package com.schibsted.account.util
+
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.engine.integration.ResultCallback
+import com.schibsted.account.model.error.ClientError
+import com.schibsted.account.test.TestUtil
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+
+class BoundedFanOutTest : WordSpec({
+    Logger.logWorker = TestUtil.testLogger
+
+    "fanning out" should {
+        "deduplicate keys and collect all results" {
+            val started = mutableListOf<String>()
+            var result: Map<String, Int>? = null
+
+            BoundedFanOut<String, Int>(listOf("a", "b", "a", "c"), 2) { key, cb ->
+                started.add(key)
+                cb.onSuccess(key.length)
+            }.start(ResultCallback.fromLambda({ }, { result = it }))
+
+            started shouldBe listOf("a", "b", "c")
+            result shouldBe mapOf("a" to 1, "b" to 1, "c" to 1)
+        }
+
+        "never run more than the configured number of tasks at once" {
+            val inFlight = mutableListOf<ResultCallback<Int>>()
+            var maxInFlight = 0
+            var result: Map<Int, Int>? = null
+
+            BoundedFanOut<Int, Int>((1..10).toList(), 3) { _, cb ->
+                inFlight.add(cb)
+                maxInFlight = maxOf(maxInFlight, inFlight.size)
+            }.start(ResultCallback.fromLambda({ }, { result = it }))
+
+            var key = 0
+            while (inFlight.isNotEmpty()) {
+                inFlight.removeAt(0).onSuccess(++key)
+            }
+
+            maxInFlight shouldBe 3
+            result?.size shouldBe 10
+        }
+
+        "report the first error only and stop starting new tasks" {
+            val started = mutableListOf<Int>()
+            val errors = mutableListOf<ClientError>()
+
+            BoundedFanOut<Int, Int>((1..5).toList(), 1) { key, cb ->
+                started.add(key)
+                cb.onError(ClientError(ClientError.ErrorType.NETWORK_ERROR, "failed $key"))
+            }.start(ResultCallback.fromLambda({ errors.add(it) }, { }))
+
+            started shouldBe listOf(1)
+            errors.size shouldBe 1
+        }
+
+        "succeed immediately without keys" {
+            var result: Map<String, Int>? = null
+            BoundedFanOut<String, Int>(emptyList(), 4) { _, _ -> }
+                    .start(ResultCallback.fromLambda({ }, { result = it }))
+
+            result shouldBe emptyMap<String, Int>()
+        }
+    }
+})
@@ -4,6 +4,7 @@
 
 package com.schibsted.account.util
 
+import com.schibsted.account.common.util.Logger
 import io.kotlintest.shouldBe
 import io.kotlintest.shouldNotBe
 import io.kotlintest.shouldThrow
@@ -55,4 +56,26 @@ class ConfigurationUtilsTest : WordSpec({
             shouldThrow<IllegalStateException> { ConfigurationUtils.parseConfigFile(lines) }
         }
     }
-})
+
+    "paramsFromGeneratedClass" should {
+        "read the keys and values of the generated class" {
+            val params = ConfigurationUtils.paramsFromGeneratedClass(GeneratedConfiguration::class.java.name)
+
+            params shouldBe mapOf("environment" to "PRE", "clientId" to "58cff98f17e59686158b4567")
+        }
+
+        "return null if there is no generated class" {
+            ConfigurationUtils.paramsFromGeneratedClass("com.schibsted.account.MissingConfiguration") shouldBe null
+        }
+
+        "return null if the generated class has no params" {
+            Logger.loggingEnabled = false
+            ConfigurationUtils.paramsFromGeneratedClass(ConfigurationUtilsTest::class.java.name) shouldBe null
+        }
+    }
+}) {
+    object GeneratedConfiguration {
+        @JvmField
+        val PARAMS = arrayOf("environment", "PRE", "clientId", "58cff98f17e59686158b4567")
+    }
+}
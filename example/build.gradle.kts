@@ -1,5 +1,6 @@
 plugins {
     id("com.android.application")
+    `client-configuration`
 }
 
 repositories {
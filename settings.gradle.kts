@@ -1 +1 @@
-include(":common", ":core", ":smartlock", ":ui", ":example")
+include(":common", ":core", ":smartlock", ":ui", ":example", ":benchmark", ":test-support")
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.testsupport
+
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import java.io.Closeable
+import java.net.URLDecoder
+import java.util.Base64
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * A local stand-in for the Schibsted account backend, serving the endpoints of the SDK's OAuth, user, client,
+ * session and passwordless contracts. Point the SDK at it by using [url] as the environment.
+ *
+ * Tokens are issued and validated like the real backend does: user endpoints reject unknown, expired and revoked
+ * access tokens with 401, and refresh tokens can be exchanged for new access tokens. Faults such as latency,
+ * server errors and spurious 401s are injected according to [faults]. Single endpoints can be scripted with [stub].
+ *
+ * The server is thread safe, so it can be used by many concurrent clients.
+ */
+class FakeAccountServer(
+    val clientId: String = DEFAULT_CLIENT_ID,
+    val clientSecret: String = DEFAULT_CLIENT_SECRET
+) : Closeable {
+
+    private data class Account(val userId: String, val password: String)
+
+    private data class IssuedToken(val userId: String?, val expiresAt: Long)
+
+    private class Stub(val method: String, val path: Regex, val response: (RecordedRequest) -> MockResponse)
+
+    private class Route(val method: String, val path: Regex, val name: String, val handle: (RecordedRequest, MatchResult) -> MockResponse)
+
+    /**
+     * The faults to inject. Can be changed while the server is running
+     */
+    @Volatile
+    var faults: Faults = Faults.NONE
+
+    /**
+     * The lifetime of issued access tokens
+     */
+    @Volatile
+    var accessTokenLifetimeSeconds: Int = 3600
+
+    private val server = MockWebServer()
+    private val accounts = ConcurrentHashMap<String, Account>()
+    private val accessTokens = ConcurrentHashMap<String, IssuedToken>()
+    private val refreshTokens = ConcurrentHashMap<String, String>()
+    private val productAccess = ConcurrentHashMap.newKeySet<Pair<String, String>>()
+    private val stubs = CopyOnWriteArrayList<Stub>()
+    private val counts = ConcurrentHashMap<String, AtomicLong>()
+    private val userIds = AtomicLong(USER_ID_OFFSET)
+
+    private val routes = listOf(
+            Route("POST", Regex("/oauth/token"), "oauth/token", ::token),
+            Route("POST", Regex("/oauth/ro"), "oauth/ro", ::token),
+            Route("POST", Regex("/passwordless/(start|resend)"), "passwordless") { _, _ ->
+                json(200, """{"passwordless_token":"${newToken("pt")}"}""")
+            },
+            Route("POST", Regex("/api/2/oauth/exchange"), "oauth/exchange") { request, _ ->
+                withUser(request, null) { json(200, """{"data":{"code":"${newToken("code")}"}}""") }
+            },
+            Route("POST", Regex("/api/2/signup"), "signup") { request, _ ->
+                withClient(request) {
+                    val email = request.form()["email"] ?: "user@example.com"
+                    val userId = register(email, request.form()["password"] ?: "")
+                    json(200, """{"data":${profile(userId, email)}}""")
+                }
+            },
+            Route("GET", Regex("/api/2/(email|phone)/([^/]+)/status"), "identifier/status") { request, match ->
+                withClient(request) {
+                    val identifier = String(Base64.getDecoder().decode(URLDecoder.decode(match.groupValues[2], "UTF-8")))
+                    val exists = accounts.containsKey(identifier)
+                    json(200, """{"data":{"exists":$exists,"available":${!exists},"verified":$exists,"pending":false,"blocked":false}}""")
+                }
+            },
+            Route("GET", Regex("/api/2/terms"), "terms") { _, _ -> json(200, TERMS) },
+            Route("GET", Regex("/api/2/client/([^/]+)"), "client/{id}") { request, match ->
+                withClient(request) { json(200, clientInfo(match.groupValues[1])) }
+            },
+            Route("GET", Regex("/api/2/products"), "products") { request, _ -> withClient(request) { json(200, """{"data":{}}""") } },
+            Route("GET", Regex("/api/2/product/([^/]+)"), "product/{id}") { request, _ -> withClient(request) { notFound() } },
+            Route("POST", Regex("/api/2/devices"), "devices") { request, _ ->
+                withUser(request, null) { json(200, """{"data":{"hash":"${newToken("device")}"}}""") }
+            },
+            Route("GET", Regex("/api/2/user/([^/]+)/agreements"), "user/{id}/agreements") { request, match ->
+                withUser(request, match.groupValues[1]) { json(200, """{"data":{"agreements":{"platform":true,"client":true}}}""") }
+            },
+            Route("POST", Regex("/api/2/user/([^/]+)/agreements/accept"), "user/{id}/agreements/accept") { request, match ->
+                withUser(request, match.groupValues[1]) { json(200, """{"data":{"result":true}}""") }
+            },
+            Route("GET", Regex("/api/2/user/([^/]+)/required_fields"), "user/{id}/required_fields") { request, match ->
+                withUser(request, match.groupValues[1]) { json(200, """{"data":{"requiredFields":[]}}""") }
+            },
+            Route("GET", Regex("/api/2/user/([^/]+)/subscriptions"), "user/{id}/subscriptions") { request, match ->
+                withUser(request, match.groupValues[1]) { json(200, """{"data":{}}""") }
+            },
+            Route("GET", Regex("/api/2/user/([^/]+)/product/([^/]+)"), "user/{id}/product/{id}") { request, match ->
+                val (userId, productId) = match.destructured
+                withUser(request, userId) {
+                    if (userId to productId in productAccess) json(200, """{"data":{"productId":"$productId","result":true}}""") else notFound()
+                }
+            },
+            Route("GET", Regex("/api/2/user/([^/]+)"), "user/{id}") { request, match ->
+                val userId = match.groupValues[1]
+                withUser(request, userId) { json(200, """{"data":${profile(userId, emailOf(userId))}}""") }
+            },
+            Route("POST", Regex("/api/2/user/([^/]+)"), "user/{id} (update)") { request, match ->
+                withUser(request, match.groupValues[1]) { json(200, """{"data":{}}""") }
+            }
+    )
+
+    /**
+     * The environment URL to configure the SDK with
+     */
+    val url: String get() = server.url("/").toString()
+
+    fun start() {
+        server.dispatcher = object : Dispatcher() {
+            override fun dispatch(request: RecordedRequest): MockResponse = respond(request)
+        }
+        server.start()
+    }
+
+    override fun close() = server.shutdown()
+
+    /**
+     * Registers a user who can log in with the password grant.
+     * @return The user's ID
+     */
+    fun register(username: String, password: String): String =
+            accounts.getOrPut(username) { Account(userIds.incrementAndGet().toString(), password) }.userId
+
+    /**
+     * Grants the user access to the product
+     */
+    fun grantProductAccess(userId: String, productId: String) {
+        productAccess.add(userId to productId)
+    }
+
+    /**
+     * Replaces the response of the endpoints matching the method and path. Stubs added later take precedence. Stubbed
+     * responses are not subject to [faults].
+     * @param path A regular expression matching the whole encoded path, such as `/api/2/user/[^/]+`
+     */
+    fun stub(method: String, path: String, response: (RecordedRequest) -> MockResponse) {
+        stubs.add(0, Stub(method, Regex(path), response))
+    }
+
+    fun clearStubs() = stubs.clear()
+
+    /**
+     * Revokes all access tokens issued so far, so that every client has to refresh its token at the same time.
+     * Refresh tokens stay valid.
+     */
+    fun revokeAccessTokens() = accessTokens.clear()
+
+    /**
+     * The number of requests received per endpoint, keyed by names such as `oauth/token (refresh_token)` and
+     * `user/{id}`
+     */
+    fun requestCounts(): Map<String, Long> = counts.mapValues { it.value.get() }
+
+    fun requestCount(endpoint: String): Long = counts[endpoint]?.get() ?: 0
+
+    private fun respond(request: RecordedRequest): MockResponse {
+        val path = request.requestUrl?.encodedPath ?: return notFound()
+        stubs.firstOrNull { it.method == request.method && it.path.matches(path) }?.let {
+            count("stub ${request.method} $path")
+            return it.response(request)
+        }
+
+        val route = routes.firstOrNull { it.method == request.method && it.path.matches(path) }
+        val match = route?.path?.matchEntire(path)
+        if (route == null || match == null) {
+            count("unknown ${request.method} $path")
+            return notFound()
+        }
+
+        val grantType = if (route.name.startsWith("oauth/")) request.form()[PARAM_GRANT_TYPE] else null
+        count(grantType?.let { "${route.name} ($it)" } ?: route.name)
+
+        val faults = faults
+        val random = ThreadLocalRandom.current()
+        val response = if (random.nextDouble() < faults.errorRate) {
+            apiError(faults.errorCode, "server_error", "Injected failure")
+        } else {
+            route.handle(request, match)
+        }
+
+        val jitter = if (faults.latencyJitterMs > 0) random.nextLong(faults.latencyJitterMs + 1) else 0
+        return response.setHeadersDelay(faults.latencyMs + jitter, TimeUnit.MILLISECONDS)
+    }
+
+    private fun token(request: RecordedRequest, @Suppress("UNUSED_PARAMETER") match: MatchResult): MockResponse {
+        if (request.getHeader(HEADER_AUTHORIZATION) != "Basic " + encode("$clientId:$clientSecret")) {
+            return oAuthError(401, "invalid_client", "Unknown client")
+        }
+
+        val form = request.form()
+        return when (form[PARAM_GRANT_TYPE]) {
+            "client_credentials" -> issue(null, withRefreshToken = false)
+            "password" -> {
+                val account = accounts[form["username"]]
+                if (account == null || account.password != form["password"]) {
+                    oAuthError(400, "invalid_grant", "Invalid user credentials")
+                } else {
+                    issue(account.userId)
+                }
+            }
+            "refresh_token" -> refreshTokens[form["refresh_token"]]?.let { issue(it) }
+                    ?: oAuthError(400, "invalid_grant", "Invalid refresh token")
+            // Codes are not verified, every code identifies a user of its own
+            "authorization_code" -> issue(register(form["code"] ?: "", ""))
+            "passwordless" -> issue(register(form["identifier"] ?: "", ""))
+            else -> oAuthError(400, "unsupported_grant_type", "Unsupported grant type")
+        }
+    }
+
+    private fun issue(userId: String?, withRefreshToken: Boolean = true): MockResponse {
+        val accessToken = newToken("at")
+        accessTokens[accessToken] = IssuedToken(userId, System.currentTimeMillis() + accessTokenLifetimeSeconds * 1000L)
+        val refreshToken = if (withRefreshToken && userId != null) newToken("rt").also { refreshTokens[it] = userId } else null
+
+        return json(200, """{"user_id":"${userId ?: ""}","access_token":"$accessToken",""" +
+                (refreshToken?.let { """"refresh_token":"$it",""" } ?: "") +
+                """"scope":"openid","token_type":"Bearer","expires_in":$accessTokenLifetimeSeconds}""")
+    }
+
+    /**
+     * Responds with 401 unless the request carries a valid user token, for the given user if not null
+     */
+    private fun withUser(request: RecordedRequest, userId: String?, response: () -> MockResponse): MockResponse {
+        val token = validToken(request)?.takeIf { it.userId != null && (userId == null || it.userId == userId) }
+        return when {
+            token == null -> apiError(401, "OAuthException", "Invalid or expired access token")
+            ThreadLocalRandom.current().nextDouble() < faults.unauthorizedRate ->
+                apiError(401, "OAuthException", "Injected unauthorized response")
+            else -> response()
+        }
+    }
+
+    private fun withClient(request: RecordedRequest, response: () -> MockResponse): MockResponse =
+            if (validToken(request) == null) apiError(401, "OAuthException", "Invalid or expired access token") else response()
+
+    private fun validToken(request: RecordedRequest): IssuedToken? {
+        val token = request.getHeader(HEADER_AUTHORIZATION)?.removePrefix("Bearer ") ?: return null
+        return accessTokens[token]?.takeIf { it.expiresAt > System.currentTimeMillis() }
+    }
+
+    private fun emailOf(userId: String): String =
+            accounts.entries.firstOrNull { it.value.userId == userId }?.key ?: "user$userId@example.com"
+
+    private fun count(endpoint: String) {
+        counts.getOrPut(endpoint) { AtomicLong() }.incrementAndGet()
+    }
+
+    private fun clientInfo(id: String) = """{"data":{"id":"$id","name":"Fake client","alias":"fake","fields":{},""" +
+            """"domain":"example.com","merchantId":1,"css":{},"termsCss":{},""" +
+            """"merchant":{"name":"Fake merchant","locale":"en_US","providerId":"1","logo":"","type":"internal"}}}"""
+
+    private fun profile(userId: String, email: String) =
+            """{"id":"$userId","userId":"$userId","uuid":"${UUID.nameUUIDFromBytes(userId.toByteArray())}",""" +
+                    """"email":"$email","displayName":"User $userId","emailVerified":"2021-01-01 00:00:00"}"""
+
+    companion object {
+        const val DEFAULT_CLIENT_ID = "fake-client"
+        const val DEFAULT_CLIENT_SECRET = "fake-secret"
+
+        private const val HEADER_AUTHORIZATION = "Authorization"
+        private const val PARAM_GRANT_TYPE = "grant_type"
+        private const val USER_ID_OFFSET = 10_000L
+
+        private const val TERMS = """{"data":{"accepted":false,"terms_url":"https://example.com/terms",""" +
+                """"privacy_url":"https://example.com/privacy","platform_terms_url":"https://example.com/platform/terms",""" +
+                """"summary":[],"platform_privacy_url":"https://example.com/platform/privacy"}}"""
+
+        private fun RecordedRequest.form(): Map<String, String> = body.clone().readUtf8()
+                .split('&')
+                .filter { it.contains('=') }
+                .associate { URLDecoder.decode(it.substringBefore('='), "UTF-8") to URLDecoder.decode(it.substringAfter('='), "UTF-8") }
+
+        private fun newToken(prefix: String) = "$prefix-${UUID.randomUUID()}"
+
+        private fun encode(value: String): String = Base64.getEncoder().encodeToString(value.toByteArray())
+
+        private fun json(code: Int, body: String) = MockResponse()
+                .setResponseCode(code)
+                .setHeader("Content-Type", "application/json")
+                .setBody(body)
+
+        private fun apiError(code: Int, type: String, description: String) =
+                json(code, """{"error":{"code":$code,"type":"$type","description":"$description"}}""")
+
+        private fun oAuthError(code: Int, error: String, description: String) =
+                json(code, """{"error":"$error","error_description":"$description"}""")
+
+        private fun notFound() = apiError(404, "ApiException", "Not found")
+    }
+}
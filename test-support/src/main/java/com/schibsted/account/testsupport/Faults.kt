@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.testsupport
+
+/**
+ * Faults injected by the [FakeAccountServer] into every response, unless the endpoint is stubbed.
+ * @param latencyMs The delay before the response headers are sent
+ * @param latencyJitterMs The upper bound of a random delay added to [latencyMs]
+ * @param errorRate The fraction of requests failing with [errorCode]
+ * @param errorCode The status code of injected errors
+ * @param unauthorizedRate The fraction of requests with a valid access token which are rejected with 401 anyway
+ */
+data class Faults(
+    val latencyMs: Long = 0,
+    val latencyJitterMs: Long = 0,
+    val errorRate: Double = 0.0,
+    val errorCode: Int = 503,
+    val unauthorizedRate: Double = 0.0
+) {
+    init {
+        require(latencyMs >= 0 && latencyJitterMs >= 0) { "Latencies must not be negative" }
+        require(errorRate in 0.0..1.0 && unauthorizedRate in 0.0..1.0) { "Rates must be between 0 and 1" }
+    }
+
+    companion object {
+        @JvmField
+        val NONE = Faults()
+    }
+}
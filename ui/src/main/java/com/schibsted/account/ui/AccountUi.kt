@@ -10,10 +10,11 @@ import android.content.Intent
 import android.os.Bundle
 import android.os.Parcelable
 import androidx.annotation.DrawableRes
+import com.schibsted.account.AccountService
+import com.schibsted.account.common.lib.StateRegistry
 import com.schibsted.account.engine.integration.ResultCallback
 import com.schibsted.account.engine.operation.ClientInfoOperation
 import com.schibsted.account.network.OIDCScope
-import com.schibsted.account.network.response.ClientInfo
 import com.schibsted.account.ui.login.flow.password.PasswordActivity
 import com.schibsted.account.ui.login.flow.passwordless.PasswordlessActivity
 import com.schibsted.account.ui.smartlock.SmartlockController
@@ -95,8 +96,27 @@ object AccountUi {
         }
     }
 
+    /**
+     * The key of the client information in the [StateRegistry]. Only the key is passed to the login activities, which
+     * fall back to the cached client information if it is not found
+     */
+    @JvmStatic
+    private var clientInfoKey: String? = null
+
+    /**
+     * Whether to look up the account status of an identifier as soon as it is valid and the user stops typing, rather
+     * than when the user continues. This saves waiting for the lookup, at the cost of requests for identifiers which
+     * are not submitted. Disabled by default
+     */
+    @JvmStatic
+    var speculativeAccountStatus: Boolean = false
+
+    /**
+     * Whether to load the terms pages linked from the terms screen while it is shown, so that they open without
+     * waiting. This costs requests for pages which may not be opened. Disabled by default
+     */
     @JvmStatic
-    private var clientInfo: ClientInfo? = null
+    var preloadAgreementPages: Boolean = false
 
     enum class FlowType {
         PASSWORD, PASSWORDLESS_EMAIL, PASSWORDLESS_SMS, ONE_STEP_PASSWORD;
@@ -104,8 +124,10 @@ object AccountUi {
 
     @JvmStatic
     fun preInitialize(onUiReady: ResultCallback<Void?>) {
+        AccountService.prewarm()
         ClientInfoOperation({ onUiReady.onError(it.toClientError()) }, {
-            clientInfo = it
+            clientInfoKey?.let { previous -> StateRegistry.remove(previous) }
+            clientInfoKey = StateRegistry.put(it)
             onUiReady.onSuccess(null)
         })
     }
@@ -129,7 +151,7 @@ object AccountUi {
                 .putExtra(KEY_PARAMS, params)
                 .putExtra(KEY_FLOW_TYPE, flowType.name)
 
-        clientInfo?.let { intent = intent.putExtra(KEY_CLIENT_INFO, it) }
+        clientInfoKey?.let { intent = intent.putExtra(KEY_CLIENT_INFO, it) }
 
         return intent
     }
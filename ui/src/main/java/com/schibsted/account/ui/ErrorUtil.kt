@@ -25,6 +25,7 @@ object ErrorUtil {
             ClientError.ErrorType.ALREADY_REGISTERED,
             ClientError.ErrorType.UNKNOWN_SPID_ERROR,
             ClientError.ErrorType.UNKNOWN_ERROR,
+            ClientError.ErrorType.SERVICE_UNAVAILABLE,
             ClientError.ErrorType.NETWORK_ERROR -> R.string.schacc_generic_server_error_message
             ClientError.ErrorType.CONNECTION_TIMED_OUT -> R.string.schacc_generic_time_out_error_message
             ClientError.ErrorType.TOO_MANY_REQUESTS -> {
@@ -43,6 +44,7 @@ object ErrorUtil {
         return (errorType == ClientError.ErrorType.UNKNOWN_SPID_ERROR ||
                 errorType == ClientError.ErrorType.NETWORK_ERROR ||
                 errorType == ClientError.ErrorType.CONNECTION_TIMED_OUT ||
+                errorType == ClientError.ErrorType.SERVICE_UNAVAILABLE ||
                 errorType == ClientError.ErrorType.GENERIC_ERROR ||
                 errorType == ClientError.ErrorType.UNAUTHORIZED ||
                 errorType == ClientError.ErrorType.INVALID_CLIENT_CREDENTIALS ||
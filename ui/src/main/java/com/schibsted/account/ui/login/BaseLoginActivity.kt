@@ -28,14 +28,17 @@ import android.view.View
 import com.google.gson.Gson
 import com.schibsted.account.AccountService
 import com.schibsted.account.ClientConfiguration
+import com.schibsted.account.common.lib.StateRegistry
 import com.schibsted.account.common.tracking.TrackingData
 import com.schibsted.account.common.tracking.UiTracking
 import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Tracing
 import com.schibsted.account.engine.controller.LoginController
 import com.schibsted.account.engine.input.Identifier
 import com.schibsted.account.engine.integration.InputProvider
 import com.schibsted.account.network.Environment
 import com.schibsted.account.network.response.ClientInfo
+import com.schibsted.account.persistence.ClientInfoCache
 import com.schibsted.account.persistence.LocalSecretsProvider
 import com.schibsted.account.ui.*
 import com.schibsted.account.ui.login.flow.password.FlowSelectionListener
@@ -52,7 +55,9 @@ import com.schibsted.account.ui.navigation.NavigationListener
 import com.schibsted.account.ui.smartlock.SmartlockController
 import com.schibsted.account.ui.smartlock.SmartlockTask
 import com.schibsted.account.ui.ui.FlowFragment
+import com.schibsted.account.ui.ui.LayoutPreInflater
 import com.schibsted.account.ui.ui.WebFragment
+import com.schibsted.account.ui.ui.WebViewPool
 import com.schibsted.account.ui.ui.dialog.LoadingDialogFragment
 import com.schibsted.account.util.DeepLink
 import com.schibsted.account.util.DeepLinkHandler
@@ -92,6 +97,8 @@ abstract class BaseLoginActivity : AppCompatActivity(), NavigationListener {
         protected set
     lateinit var fragmentProvider: FragmentProvider
         protected set
+    internal lateinit var layoutPreInflater: LayoutPreInflater
+        private set
 
     @VisibleForTesting(otherwise = VisibleForTesting.PROTECTED)
     internal lateinit var uiConfiguration: InternalUiConfiguration
@@ -109,6 +116,7 @@ abstract class BaseLoginActivity : AppCompatActivity(), NavigationListener {
         flowType = intent.getStringExtra(AccountUi.KEY_FLOW_TYPE)
                 ?.let { AccountUi.FlowType.valueOf(it) }
                 ?: AccountUi.FlowType.PASSWORD
+        Tracing.flowType = flowType.name
 
         initializeUi()
 
@@ -125,10 +133,14 @@ abstract class BaseLoginActivity : AppCompatActivity(), NavigationListener {
         navigationController = Navigation(this, this)
         keyboardController = KeyboardController(this)
         uiConfiguration = initializeConfiguration()
-        fragmentProvider = FragmentProvider(uiConfiguration, navigationController)
+        layoutPreInflater = LayoutPreInflater(this)
+        lifecycle.addObserver(layoutPreInflater)
+        WebViewPool.attach(this)
+        fragmentProvider = FragmentProvider(uiConfiguration, navigationController, layoutPreInflater)
 
         val smartlockTask = SmartlockTask(params.smartLockMode)
-        viewModel = ViewModelProviders.of(this, LoginActivityViewModelFactory(smartlockTask, uiConfiguration, params)).get(LoginActivityViewModel::class.java)
+        viewModel = ViewModelProviders.of(this, LoginActivityViewModelFactory(smartlockTask, uiConfiguration, params,
+                ClientInfoCache.getInstance(applicationContext))).get(LoginActivityViewModel::class.java)
 
         viewModel.smartlockCredentials.value = intent.getParcelableExtra(KEY_SMARTLOCK_CREDENTIALS)
         initializePropertiesFromBundle(savedInstanceState)
@@ -167,7 +179,7 @@ abstract class BaseLoginActivity : AppCompatActivity(), NavigationListener {
                         smartlockController?.provideCredential(result.credentials)
                     } else {
                         smartlockController?.provideHint(result.credentials)
-                        fragmentProvider = FragmentProvider(uiConfiguration, navigationController)
+                        fragmentProvider = FragmentProvider(uiConfiguration, navigationController, layoutPreInflater)
                         when (flowType) {
                             AccountUi.FlowType.ONE_STEP_PASSWORD ->
                                 navigationController.currentFragment
@@ -273,7 +285,7 @@ abstract class BaseLoginActivity : AppCompatActivity(), NavigationListener {
 
     fun loadRequiredInformation(provider: InputProvider<Identifier>? = null) {
         idProvider = provider
-        viewModel.getClientInfo(intent.getParcelableExtra(AccountUi.KEY_CLIENT_INFO))
+        viewModel.getClientInfo(StateRegistry.get(intent.getStringExtra(AccountUi.KEY_CLIENT_INFO)))
     }
 
     private fun followDeepLink(dataString: String?, deepLink: DeepLink?, fragmentTag: String?) {
@@ -344,6 +356,11 @@ abstract class BaseLoginActivity : AppCompatActivity(), NavigationListener {
         outState.putString(KEY_SCREEN, screen?.value)
     }
 
+    override fun onDestroy() {
+        super.onDestroy()
+        WebViewPool.detach(this)
+    }
+
     override fun onOptionsItemSelected(item: MenuItem): Boolean {
         if (item == menu?.findItem(R.id.close_flow)) {
             navigationController.finishNavigation()
@@ -463,6 +480,7 @@ abstract class BaseLoginActivity : AppCompatActivity(), NavigationListener {
         }
 
         keyboardController.register(navigationController.currentFragment)
+        fragmentProvider.preInflateNextScreens(screen, flowType)
         if (!LoginScreen.isWebView(screen.value)) {
             val customFields = mutableMapOf<String, Any>()
             val fragment = navigationController.currentFragment
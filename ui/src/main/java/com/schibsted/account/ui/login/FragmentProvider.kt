@@ -4,6 +4,7 @@
 
 package com.schibsted.account.ui.login
 
+import androidx.annotation.VisibleForTesting
 import androidx.lifecycle.MutableLiveData
 import com.schibsted.account.engine.controller.PasswordlessController
 import com.schibsted.account.engine.input.Agreements
@@ -16,7 +17,9 @@ import com.schibsted.account.network.response.AgreementLinksResponse
 import com.schibsted.account.network.response.ClientInfo
 import com.schibsted.account.ui.AccountUi
 import com.schibsted.account.ui.InternalUiConfiguration
+import com.schibsted.account.ui.R
 import com.schibsted.account.ui.login.flow.password.FlowSelectionListener
+import com.schibsted.account.ui.login.screen.LoginScreen
 import com.schibsted.account.ui.login.screen.identification.IdentificationPresenter
 import com.schibsted.account.ui.login.screen.identification.ui.AbstractIdentificationFragment
 import com.schibsted.account.ui.login.screen.identification.ui.EmailIdentificationFragment
@@ -35,8 +38,23 @@ import com.schibsted.account.ui.login.screen.verification.VerificationPresenter
 import com.schibsted.account.ui.navigation.Navigation
 import com.schibsted.account.ui.smartlock.SmartlockController
 import com.schibsted.account.ui.ui.BaseFragment
+import com.schibsted.account.ui.ui.LayoutPreInflater
 
-class FragmentProvider(private val uiConfiguration: InternalUiConfiguration, private val navigation: Navigation) {
+/**
+ * Provides the fragments of the login screens. The fragment which is displayed is reused when navigating to its own
+ * screen, and the last fragment of every screen is kept, so that navigating back and forth between screens reuses it
+ * with its state as long as its arguments are the same. The layouts of the screens which are likely to be shown next
+ * are inflated ahead of time by the [LayoutPreInflater], so that navigating costs only a fragment transaction.
+ */
+class FragmentProvider(
+    private val uiConfiguration: InternalUiConfiguration,
+    private val navigation: Navigation,
+    private val layoutPreInflater: LayoutPreInflater? = null
+) {
+
+    private class CachedFragment(val arguments: Any?, val fragment: BaseFragment)
+
+    private val fragments = mutableMapOf<LoginScreen, CachedFragment>()
 
     fun getOrCreateIdentificationFragment(
         provider: InputProvider<Identifier>? = null,
@@ -45,7 +63,7 @@ class FragmentProvider(private val uiConfiguration: InternalUiConfiguration, pri
         clientInfo: ClientInfo
     ): BaseFragment {
 
-        return getFragment<AbstractIdentificationFragment>(navigation.currentFragment, {
+        return getFragment<AbstractIdentificationFragment>(LoginScreen.IDENTIFICATION_SCREEN, listOf(flowType, clientInfo), {
             if (flowType == AccountUi.FlowType.PASSWORDLESS_SMS) {
                 MobileIdentificationFragment.newInstance(uiConfiguration, clientInfo)
             } else {
@@ -64,7 +82,7 @@ class FragmentProvider(private val uiConfiguration: InternalUiConfiguration, pri
         clientInfo: ClientInfo
     ): BaseFragment {
 
-        return getFragment(navigation.currentFragment, {
+        return getFragment(LoginScreen.ONE_STEP_LOGIN_SCREEN, clientInfo, {
             OneStepLoginFragment.newInstance(uiConfiguration, clientInfo)
         }, {
             it.setPresenter(OneStepLoginPresenter(it, credProvider, smartlockController, flowSelectionListener))
@@ -77,7 +95,7 @@ class FragmentProvider(private val uiConfiguration: InternalUiConfiguration, pri
         userAvailable: Boolean,
         smartlockController: SmartlockController?
     ): BaseFragment {
-        return getFragment(navigation.currentFragment, {
+        return getFragment(LoginScreen.PASSWORD_SCREEN, listOf(currentIdentifier, userAvailable), {
             PasswordFragment.newInstance(currentIdentifier, userAvailable, uiConfiguration)
         }, {
             it.setPresenter(PasswordPresenter(it, provider, smartlockController))
@@ -85,12 +103,11 @@ class FragmentProvider(private val uiConfiguration: InternalUiConfiguration, pri
     }
 
     fun getOrCreateInboxFragment(currentIdentifier: Identifier): BaseFragment {
-        return navigation.currentFragment as? InboxFragment
-                ?: InboxFragment.newInstance(currentIdentifier)
+        return getFragment(LoginScreen.CHECK_INBOX_SCREEN, currentIdentifier, { InboxFragment.newInstance(currentIdentifier) }, {})
     }
 
     fun getOrCreateTermsFragment(provider: InputProvider<Agreements>, userAvailable: Boolean, agreementLinks: AgreementLinksResponse): BaseFragment {
-        return getFragment(navigation.currentFragment, {
+        return getFragment(LoginScreen.TC_SCREEN, listOf(userAvailable, agreementLinks), {
             TermsFragment.newInstance(uiConfiguration, userAvailable, agreementLinks)
         }, {
             it.setPresenter(TermsPresenter(it, provider))
@@ -98,7 +115,7 @@ class FragmentProvider(private val uiConfiguration: InternalUiConfiguration, pri
     }
 
     fun getOrCreateRequiredFieldsFragment(provider: InputProvider<RequiredFields>, fields: Set<String>): BaseFragment {
-        return getFragment(navigation.currentFragment, {
+        return getFragment(LoginScreen.REQUIRED_FIELDS_SCREEN, fields, {
             RequiredFieldsFragment.newInstance(uiConfiguration)
         }, {
             it.setPresenter(RequiredFieldsPresenter(it, provider))
@@ -111,24 +128,50 @@ class FragmentProvider(private val uiConfiguration: InternalUiConfiguration, pri
         identifier: Identifier,
         passwordlessController: PasswordlessController
     ): BaseFragment {
-        return getFragment(navigation.currentFragment, { VerificationFragment.newInstance(identifier) }, {
+        return getFragment(LoginScreen.VERIFICATION_SCREEN, identifier, { VerificationFragment.newInstance(identifier) }, {
             it.setPresenter(VerificationPresenter(it, provider))
             it.setPasswordlessController(passwordlessController)
         })
     }
 
-    private inline fun <reified T> getFragment(
-        existingFragment: BaseFragment?,
-        create: () -> T,
-        applyTo: (T) -> Unit
-    ): T {
-        return if (existingFragment is T) {
-            applyTo(existingFragment)
-            existingFragment
-        } else {
-            val fragment = create()
-            applyTo(fragment)
-            fragment
+    /**
+     * Inflates the layouts of the screens which are likely to follow the given one ahead of time
+     */
+    fun preInflateNextScreens(screen: LoginScreen, flowType: AccountUi.FlowType) {
+        val layouts = when (screen) {
+            LoginScreen.IDENTIFICATION_SCREEN -> when (flowType) {
+                AccountUi.FlowType.PASSWORDLESS_EMAIL,
+                AccountUi.FlowType.PASSWORDLESS_SMS -> intArrayOf(R.layout.schacc_verification_fragment_layout)
+                else -> intArrayOf(R.layout.schacc_password_fragment_layout)
+            }
+            LoginScreen.ONE_STEP_LOGIN_SCREEN,
+            LoginScreen.ONE_STEP_SIGNUP_SCREEN,
+            LoginScreen.PASSWORD_SCREEN,
+            LoginScreen.VERIFICATION_SCREEN -> intArrayOf(R.layout.schacc_terms_fragment_layout)
+            LoginScreen.TC_SCREEN -> intArrayOf(R.layout.schacc_required_fields_layout)
+            else -> intArrayOf()
         }
+        layoutPreInflater?.preInflate(*layouts)
+    }
+
+    private inline fun <reified T : BaseFragment> getFragment(
+        screen: LoginScreen,
+        arguments: Any?,
+        noinline create: () -> T,
+        applyTo: (T) -> Unit
+    ): T = findOrCreate(T::class.java, screen, arguments, create).also(applyTo)
+
+    /**
+     * Reuses the fragment which is displayed if it has the right type, or the last fragment of the screen if it was
+     * created with the same arguments and is not in use anymore. Otherwise a new fragment is created.
+     */
+    @VisibleForTesting
+    internal fun <T : BaseFragment> findOrCreate(type: Class<T>, screen: LoginScreen, arguments: Any?, create: () -> T): T {
+        val cached = fragments[screen]
+                ?.takeIf { it.arguments == arguments && !navigation.isInUse(it.fragment, screen) }
+                ?.fragment
+        return navigation.currentFragment?.takeIf { type.isInstance(it) }?.let { type.cast(it) }
+                ?: cached?.takeIf { type.isInstance(it) }?.let { type.cast(it) }
+                ?: create().also { fragments[screen] = CachedFragment(arguments, it) }
     }
 }
@@ -21,6 +21,7 @@ import com.schibsted.account.engine.integration.contract.SignUpContract
 import com.schibsted.account.engine.operation.ClientInfoOperation
 import com.schibsted.account.model.error.ClientError
 import com.schibsted.account.network.response.ClientInfo
+import com.schibsted.account.persistence.ClientInfoCache
 import com.schibsted.account.session.User
 import com.schibsted.account.ui.AccountUi
 import com.schibsted.account.ui.Event
@@ -35,7 +36,8 @@ import java.net.URI
 class LoginActivityViewModel(
     private val smartlockTask: SmartlockTask,
     uiConfiguration: InternalUiConfiguration,
-    private val params: AccountUi.Params
+    private val params: AccountUi.Params,
+    private val clientInfoCache: ClientInfoCache? = null
 ) : ViewModel(), FlowSelectionListener {
     private val redirectUri = uiConfiguration.redirectUri
 
@@ -71,22 +73,22 @@ class LoginActivityViewModel(
         when (userFlowType) {
             FlowSelectionListener.FlowType.LOGIN -> {
                 activityTitle.value = LoginScreen.IDENTIFICATION_SCREEN
-                loginController.value = Event(LoginController(true, params.scopes))
+                replaceLoginController()
             }
 
             FlowSelectionListener.FlowType.ONE_STEP_LOGIN -> {
                 activityTitle.value = LoginScreen.ONE_STEP_LOGIN_SCREEN
-                loginController.value = Event(LoginController(true, params.scopes))
+                replaceLoginController()
             }
 
             FlowSelectionListener.FlowType.SIGN_UP -> {
                 activityTitle.value = LoginScreen.PASSWORD_SCREEN
-                signUpController.value = Event(SignUpController(redirectUri, params.scopes))
+                replaceSignUpController()
             }
 
             FlowSelectionListener.FlowType.ONE_STEP_SIGNUP -> {
                 activityTitle.value = LoginScreen.ONE_STEP_SIGNUP_SCREEN
-                signUpController.value = Event(SignUpController(redirectUri, params.scopes))
+                replaceSignUpController()
             }
         }
     }
@@ -113,7 +115,7 @@ class LoginActivityViewModel(
     fun initializeSmartlock() {
         smartlockTask.initializeSmartlock(smartlockReceiver.isSmartlockResolving.value).addListener(true, true) { shouldStartSmartlock ->
             if (shouldStartSmartlock) {
-                loginController.value = Event(LoginController(true, params.scopes))
+                replaceLoginController()
             }
             startSmartLockFlow.value = shouldStartSmartlock
         }
@@ -139,14 +141,36 @@ class LoginActivityViewModel(
         return dataString?.let { Try { URI.create(it) } }?.getOrNull()?.getQueryParam("spid_page")?.equals("request+new+password") == true
     }
 
+    /**
+     * Provides the client information from the intent, or from the [ClientInfoCache] if it is not in the intent.
+     * Cached information which is stale is revalidated in the background, and used from the next time on. Only when
+     * nothing is cached, the information is fetched while the user waits.
+     */
     fun getClientInfo(intentClientInfo: ClientInfo?) {
-        if (intentClientInfo == null) {
+        if (intentClientInfo != null) {
+            clientResult.value = Event(ClientResult.Success(intentClientInfo))
+            return
+        }
+
+        val cached = clientInfoCache?.read()
+        if (cached == null) {
             fetchClientInfo()
         } else {
-            clientResult.value = Event(ClientResult.Success(intentClientInfo))
+            clientResult.value = Event(ClientResult.Success(cached.clientInfo))
+            if (cached.isStale) {
+                revalidateClientInfo()
+            }
         }
     }
 
+    internal fun revalidateClientInfo() {
+        ClientInfoOperation({ error ->
+            Logger.info(TAG, "Failed to revalidate the client information: ${error.description}")
+        }, {
+            Logger.verbose(TAG, "Revalidated the client information")
+        }, clientInfoCache)
+    }
+
     internal fun fetchClientInfo() {
         clientResolvingState.value = true
         ClientInfoOperation({ error ->
@@ -155,7 +179,23 @@ class LoginActivityViewModel(
         }, { info ->
             clientResolvingState.value = false
             clientResult.value = (Event(ClientResult.Success(info)))
-        })
+        }, clientInfoCache)
+    }
+
+    /**
+     * Replaces the login controller, and releases the state the previous one kept in the StateRegistry
+     */
+    private fun replaceLoginController() {
+        loginController.value?.peek()?.releaseState()
+        loginController.value = Event(LoginController(true, params.scopes))
+    }
+
+    /**
+     * Replaces the sign-up controller, and releases the state the previous one kept in the StateRegistry
+     */
+    private fun replaceSignUpController() {
+        signUpController.value?.peek()?.releaseState()
+        signUpController.value = Event(SignUpController(redirectUri, params.scopes))
     }
 
     fun startLoginController(contract: LoginContract) {
@@ -174,6 +214,12 @@ class LoginActivityViewModel(
 
     fun isFlowReady(): Boolean = smartlockCredentials.value == null && !smartlockReceiver.isSmartlockResolving.value && userFlowType != null
 
+    override fun onCleared() {
+        super.onCleared()
+        loginController.value?.peek()?.releaseState()
+        signUpController.value?.peek()?.releaseState()
+    }
+
     sealed class ClientResult {
         data class Success(val clientInfo: ClientInfo) : ClientResult()
         data class Failure(val error: ClientError) : ClientResult()
@@ -5,20 +5,23 @@ package com.schibsted.account.ui.login
 
 import androidx.lifecycle.ViewModel
 import androidx.lifecycle.ViewModelProvider
+import com.schibsted.account.persistence.ClientInfoCache
 import com.schibsted.account.ui.AccountUi
 import com.schibsted.account.ui.InternalUiConfiguration
 import com.schibsted.account.ui.smartlock.SmartlockTask
 
-class LoginActivityViewModelFactory(
+class LoginActivityViewModelFactory @JvmOverloads constructor(
     private val smartlockTask: SmartlockTask,
     private val uiConfiguration: InternalUiConfiguration,
-    private val params: AccountUi.Params
+    private val params: AccountUi.Params,
+    private val clientInfoCache: ClientInfoCache? = null
 ) : ViewModelProvider.Factory {
 
     override fun <T : ViewModel> create(modelClass: Class<T>): T {
         return modelClass.getConstructor(
                 smartlockTask::class.java,
                 uiConfiguration::class.java,
-                params::class.java).newInstance(smartlockTask, uiConfiguration, params)
+                params::class.java,
+                ClientInfoCache::class.java).newInstance(smartlockTask, uiConfiguration, params, clientInfoCache)
     }
 }
@@ -97,6 +97,13 @@ class PasswordlessActivity : BaseLoginActivity(), PasswordlessContract {
         navigationController.handleBackPressed(passwordlessController, this)
     }
 
+    override fun onDestroy() {
+        super.onDestroy()
+        if (isFinishing) {
+            passwordlessController.releaseState()
+        }
+    }
+
     companion object {
         const val KEY_CONTROLLER = "CONTROLLER"
     }
@@ -39,6 +39,12 @@ interface IdentificationContract {
         fun verifyInput(identifier: InputField, identifierType: IdentifierType, allowSignup: Boolean, signUpErrorMessage: String?)
 
         fun getAccountStatus(input: InputField, allowSignUp: Boolean, signUpErrorMessage: String?)
+
+        /**
+         * Starts looking up the account status of the input if it is valid, so that it is ready by the time the
+         * input is verified
+         */
+        fun prefetchAccountStatus(input: InputField, identifierType: IdentifierType)
     }
 
     /**
@@ -90,6 +90,12 @@ class IdentificationPresenter(
         })
     }
 
+    override fun prefetchAccountStatus(input: InputField, identifierType: Identifier.IdentifierType) {
+        if (input.isInputValid) {
+            input.input?.let { Identifier(identifierType, it).prefetchAccountStatus() }
+        }
+    }
+
     /**
      * Verify the input of the user, the input could be a phone number or an email address.
      *
@@ -16,12 +16,14 @@ import com.schibsted.account.common.tracking.TrackingData
 import com.schibsted.account.model.error.ClientError
 import com.schibsted.account.network.response.ClientInfo
 import com.schibsted.account.network.response.Merchant
+import com.schibsted.account.ui.AccountUi
 import com.schibsted.account.ui.R
 import com.schibsted.account.ui.login.BaseLoginActivity
 import com.schibsted.account.ui.login.screen.LoginScreen
 import com.schibsted.account.ui.login.screen.identification.IdentificationContract
 import com.schibsted.account.ui.ui.FlowFragment
 import com.schibsted.account.ui.ui.InputField
+import com.schibsted.account.ui.ui.TypingPauseWatcher
 import com.schibsted.account.ui.ui.WebFragment
 
 /**
@@ -53,6 +55,7 @@ abstract class AbstractIdentificationFragment : FlowFragment<IdentificationContr
 
     private lateinit var linkView: TextView
     private lateinit var clientInfo: ClientInfo
+    private var typingPauseWatcher: TypingPauseWatcher? = null
 
     override val isActive: Boolean
         get() = isAdded
@@ -67,7 +70,7 @@ abstract class AbstractIdentificationFragment : FlowFragment<IdentificationContr
     override fun onCreateView(inflater: LayoutInflater, container: ViewGroup?, savedInstanceState: Bundle?): View? {
         BaseLoginActivity.tracker?.resetContext()
 
-        val view = inflater.inflate(R.layout.schacc_abstract_identification_fragment_layout, container, false)
+        val view = inflateLayout(inflater, R.layout.schacc_abstract_identification_fragment_layout, container)
         primaryActionView = view.findViewById(R.id.identification_button_continue)
         inputViewContainer = view.findViewById(R.id.identification_input_view)
         identificationPolicy = view.findViewById(R.id.identification_share_policy)
@@ -110,6 +113,25 @@ abstract class AbstractIdentificationFragment : FlowFragment<IdentificationContr
         identificationPresenter.verifyInput(inputField, uiConf.identifierType, uiConf.signUpEnabled, uiConf.signUpNotAllowedErrorMessage)
     }
 
+    /**
+     * Looks up the account status of the input when the user stops typing, if [AccountUi.speculativeAccountStatus]
+     * is enabled
+     */
+    protected fun prefetchOnTypingPause(inputField: InputField) {
+        if (AccountUi.speculativeAccountStatus) {
+            typingPauseWatcher = TypingPauseWatcher {
+                if (::identificationPresenter.isInitialized) {
+                    identificationPresenter.prefetchAccountStatus(inputField, uiConf.identifierType)
+                }
+            }.also { inputField.setTextWatcher(it) }
+        }
+    }
+
+    override fun onDestroyView() {
+        super.onDestroyView()
+        typingPauseWatcher?.cancel()
+    }
+
     fun isTeaserEnabled() = !uiConf.teaserText.isNullOrEmpty()
 
     protected abstract fun prefillIdentifier(identifier: String?)
@@ -42,6 +42,7 @@ class EmailIdentificationFragment : AbstractIdentificationFragment(), Identifica
             hint { getString(R.string.schacc_required_field_email) }
         }
         inputViewContainer.addView(inputFieldView)
+        prefetchOnTypingPause(inputFieldView)
         prefillIdentifier(uiConf.identifier)
         return view
     }
@@ -33,6 +33,7 @@ class MobileIdentificationFragment : AbstractIdentificationFragment() {
         inputFieldView = PhoneInputView(context)
 
         inputViewContainer.addView(inputFieldView)
+        prefetchOnTypingPause(inputFieldView)
 
         prefillIdentifier(uiConf.identifier)
         return view
@@ -26,7 +26,7 @@ class InboxFragment : BaseFragment() {
     }
 
     override fun onCreateView(inflater: LayoutInflater, container: ViewGroup?, savedInstanceState: Bundle?): View? {
-        return inflater.inflate(R.layout.schacc_inbox_fragment_layout, container, false)
+        return inflateLayout(inflater, R.layout.schacc_inbox_fragment_layout, container)
     }
 
     override fun onViewCreated(view: View, savedInstanceState: Bundle?) {
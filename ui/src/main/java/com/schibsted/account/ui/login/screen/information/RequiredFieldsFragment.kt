@@ -41,7 +41,7 @@ class RequiredFieldsFragment : FlowFragment<RequiredFieldsContract.Presenter>(),
     lateinit var missingField: Set<String>
 
     override fun onCreateView(inflater: LayoutInflater, container: ViewGroup?, savedInstanceState: Bundle?): View? {
-        val view = inflater.inflate(R.layout.schacc_required_fields_layout, container, false)
+        val view = inflateLayout(inflater, R.layout.schacc_required_fields_layout, container)
         primaryActionView = view.findViewById(R.id.required_fields_button_continue)
         primaryActionView.setOnClickListener { updateMissingFields() }
         return view
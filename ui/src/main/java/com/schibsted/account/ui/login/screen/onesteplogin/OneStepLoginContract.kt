@@ -40,6 +40,13 @@ interface OneStepLoginContract {
         fun verifyInput(identifier: InputField, identifierType: Identifier.IdentifierType, allowSignup: Boolean, signUpErrorMessage: String?, callback: () -> Unit)
 
         fun getAccountStatus(input: InputField, allowSignUp: Boolean, signUpErrorMessage: String?, callback: () -> Unit)
+
+        /**
+         * Starts looking up the account status of the input if it is valid, so that it is ready by the time the
+         * input is verified
+         */
+        fun prefetchAccountStatus(input: InputField, identifierType: Identifier.IdentifierType)
+
         fun startSignin()
         fun signIn(identifier: InputField, credInputField: InputField, keepUserLoggedIn: Boolean, lifecycleOwner: LifecycleOwner, keyValueStore: KeyValueStore?)
         fun startSignup()
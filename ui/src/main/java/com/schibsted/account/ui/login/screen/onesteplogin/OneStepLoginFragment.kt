@@ -20,6 +20,7 @@ import com.schibsted.account.engine.input.Identifier
 import com.schibsted.account.model.error.ClientError
 import com.schibsted.account.network.response.ClientInfo
 import com.schibsted.account.persistence.LocalSecretsProvider
+import com.schibsted.account.ui.AccountUi
 import com.schibsted.account.ui.InternalUiConfiguration
 import com.schibsted.account.ui.KeyboardController
 import com.schibsted.account.ui.R
@@ -28,6 +29,7 @@ import com.schibsted.account.ui.login.screen.LoginScreen
 import com.schibsted.account.ui.login.screen.identification.ui.MobileIdentificationFragment
 import com.schibsted.account.ui.ui.FlowFragment
 import com.schibsted.account.ui.ui.InputField
+import com.schibsted.account.ui.ui.TypingPauseWatcher
 import com.schibsted.account.ui.ui.WebFragment
 import com.schibsted.account.ui.ui.component.CheckBoxView
 import com.schibsted.account.ui.ui.component.PasswordView
@@ -62,6 +64,7 @@ class OneStepLoginFragment : FlowFragment<OneStepLoginContract.Presenter>(), One
     private lateinit var teaserText: TextView
     private lateinit var forgotPasswordLink: TextView
     private lateinit var ageLimitInfo: TextView
+    private var typingPauseWatcher: TypingPauseWatcher? = null
 
     /**
      * ties a presenter to this view
@@ -86,7 +89,7 @@ class OneStepLoginFragment : FlowFragment<OneStepLoginContract.Presenter>(), One
     override fun onCreateView(inflater: LayoutInflater, container: ViewGroup?, savedInstanceState: Bundle?): View? {
         BaseLoginActivity.tracker?.resetContext()
 
-        val view = inflater.inflate(R.layout.schacc_one_step_login_fragment_layout, container, false)
+        val view = inflateLayout(inflater, R.layout.schacc_one_step_login_fragment_layout, container)
 
         primaryActionView = view.findViewById(R.id.onestep_identification_button_continue)
         secondaryActionView = view.findViewById(R.id.onestep_identification_button_signup)
@@ -118,6 +121,13 @@ class OneStepLoginFragment : FlowFragment<OneStepLoginContract.Presenter>(), One
 
         inputFieldView.isCancelable = true
         inputFieldView.inputField.hint = getString(R.string.schacc_required_field_email)
+        if (AccountUi.speculativeAccountStatus) {
+            typingPauseWatcher = TypingPauseWatcher {
+                if (::loginPresenter.isInitialized) {
+                    loginPresenter.prefetchAccountStatus(inputFieldView, uiConf.identifierType)
+                }
+            }.also { inputFieldView.setTextWatcher(it) }
+        }
 
         credInputFieldView.setTitle(R.string.schacc_password_sign_in_label)
 
@@ -308,6 +318,11 @@ class OneStepLoginFragment : FlowFragment<OneStepLoginContract.Presenter>(), One
         loginPresenter.verifyInput(inputField, uiConf.identifierType, uiConf.signUpEnabled, uiConf.signUpNotAllowedErrorMessage, callback)
     }
 
+    override fun onDestroyView() {
+        super.onDestroyView()
+        typingPauseWatcher?.cancel()
+    }
+
     override fun onSaveInstanceState(outState: Bundle) {
         super.onSaveInstanceState(outState)
         outState.putParcelable(KEY_CLIENT_INFO, clientInfo)
@@ -91,6 +91,12 @@ class OneStepLoginPresenter(
         })
     }
 
+    override fun prefetchAccountStatus(input: InputField, identifierType: Identifier.IdentifierType) {
+        if (input.isInputValid) {
+            input.input?.let { Identifier(identifierType, it).prefetchAccountStatus() }
+        }
+    }
+
     /**
      * Verify the input of the user, the input could be an email address.
      *
@@ -49,7 +49,7 @@ class PasswordFragment : FlowFragment<PasswordContract.Presenter>(), PasswordCon
     }
 
     override fun onCreateView(inflater: LayoutInflater, container: ViewGroup?, savedInstanceState: Bundle?): View? {
-        val view = inflater.inflate(R.layout.schacc_password_fragment_layout, container, false)
+        val view = inflateLayout(inflater, R.layout.schacc_password_fragment_layout, container)
         primaryActionView = view.findViewById(R.id.password_button_continue)
         secondaryActionView = if (isUserAvailable) null else view.findViewById(R.id.mobile_password_button_forgot)
         return view
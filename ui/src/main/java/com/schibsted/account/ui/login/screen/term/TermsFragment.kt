@@ -23,6 +23,7 @@ import android.widget.TextView
 import com.schibsted.account.common.tracking.TrackingData
 import com.schibsted.account.model.error.ClientError
 import com.schibsted.account.network.response.AgreementLinksResponse
+import com.schibsted.account.ui.AccountUi
 import com.schibsted.account.ui.InternalUiConfiguration
 import com.schibsted.account.ui.R
 import com.schibsted.account.ui.login.BaseLoginActivity
@@ -30,6 +31,7 @@ import com.schibsted.account.ui.login.screen.LoginScreen
 import com.schibsted.account.ui.setPartAsClickableLink
 import com.schibsted.account.ui.ui.FlowFragment
 import com.schibsted.account.ui.ui.WebFragment
+import com.schibsted.account.ui.ui.WebViewPool
 import com.schibsted.account.ui.ui.component.CheckBoxView
 
 /**
@@ -62,8 +64,11 @@ class TermsFragment : FlowFragment<TermsContract.Presenter>(), TermsContract.Vie
     }
 
     override fun onCreateView(inflater: LayoutInflater, container: ViewGroup?, savedInstanceState: Bundle?): View? {
-        val view = inflater.inflate(R.layout.schacc_terms_fragment_layout, container, false)
+        val view = inflateLayout(inflater, R.layout.schacc_terms_fragment_layout, container)
         initViews(view)
+        if (AccountUi.preloadAgreementPages) {
+            WebViewPool.preload(requireContext(), listOf(agreements.spidTermsUrl, agreements.clientTermsUrl), uiConf.redirectUri)
+        }
         return view
     }
 
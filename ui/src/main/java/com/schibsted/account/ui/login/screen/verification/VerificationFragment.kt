@@ -79,7 +79,7 @@ class VerificationFragment : FlowFragment<VerificationContract.Presenter>(), Ver
     }
 
     override fun onCreateView(inflater: LayoutInflater, container: ViewGroup?, savedInstanceState: Bundle?): View? {
-        val view = inflater.inflate(R.layout.schacc_verification_fragment_layout, container, false)
+        val view = inflateLayout(inflater, R.layout.schacc_verification_fragment_layout, container)
         primaryActionView = view.findViewById(R.id.mobile_verification_button_continue)
         secondaryActionView = view.findViewById(R.id.mobile_verification_button_resend)
         codeInputView = view.findViewById(R.id.verification_code_input_view)
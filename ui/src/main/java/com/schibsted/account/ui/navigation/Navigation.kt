@@ -9,6 +9,7 @@ import androidx.fragment.app.DialogFragment
 import androidx.fragment.app.FragmentManager
 import com.schibsted.account.common.tracking.TrackingData
 import com.schibsted.account.common.util.Logger
+import com.schibsted.account.common.util.Tracing
 import com.schibsted.account.engine.controller.Controller
 import com.schibsted.account.engine.integration.contract.Contract
 import com.schibsted.account.session.User
@@ -50,6 +51,11 @@ class Navigation(
     var currentFragment: BaseFragment? = fragmentManager.findFragmentById(R.id.fragment_container) as BaseFragment?
         private set
 
+    /**
+     * The span of the transition in progress, from [navigateTo] until the fragment transaction is executed
+     */
+    private var transitionSpan: Tracing.ActiveSpan? = null
+
     /**
      * used to finish the current flow
      */
@@ -99,6 +105,8 @@ class Navigation(
      * @see .currentFragment
      */
     override fun onBackStackChanged() {
+        transitionSpan?.end()
+        transitionSpan = null
         currentFragment = fragmentManager.findFragmentById(R.id.fragment_container) as BaseFragment
         currentFragment?.tag?.let {
             navigationListener.onNavigationDone(LoginScreen.valueOf(it))
@@ -111,6 +119,8 @@ class Navigation(
      */
     private fun navigateTo(fragment: BaseFragment, loginScreen: LoginScreen) {
         if (!LoginScreen.isWebView(currentFragment?.tag)) {
+            transitionSpan?.end(Tracing.Outcome.CANCELLED)
+            transitionSpan = Tracing.start("navigate.${loginScreen.value}")
             val transaction = fragmentManager.beginTransaction()
             currentFragment = fragment
             currentFragment?.registerNavigationController(navigationListener)
@@ -119,7 +129,7 @@ class Navigation(
                         .setCustomAnimations(R.anim.schacc_right_in, R.anim.schacc_left_out, R.anim.schacc_left_in, R.anim.schacc_right_out)
                         .replace(R.id.fragment_container, it, loginScreen.value)
                 transaction.addToBackStack(loginScreen.value)
-                transaction.commitAllowingStateLoss()
+                Tracing.trace("navigation.commit") { transaction.commitAllowingStateLoss() }
             }
         }
     }
@@ -180,41 +190,31 @@ class Navigation(
         fragmentManager.popBackStack(screen.value, 0)
     }
 
+    /**
+     * Navigates to the fragment, unless it is the one displayed already
+     */
     fun <F : BaseFragment> navigateToFragment(fragment: F) {
-        when (fragment) {
-            is AbstractIdentificationFragment -> {
-                if (fragment.tag != LoginScreen.IDENTIFICATION_SCREEN.value) {
-                    navigateTo(fragment, LoginScreen.IDENTIFICATION_SCREEN)
-                }
-            }
-            is OneStepLoginFragment -> {
-                if (fragment.tag != LoginScreen.ONE_STEP_LOGIN_SCREEN.value) {
-                    navigateTo(fragment, LoginScreen.ONE_STEP_LOGIN_SCREEN)
-                }
-            }
-            is PasswordFragment ->
-                if (fragment.tag != LoginScreen.PASSWORD_SCREEN.value) {
-                    navigateTo(fragment, LoginScreen.PASSWORD_SCREEN)
-                }
-            is TermsFragment ->
-                if (fragment.tag != LoginScreen.TC_SCREEN.value) {
-                    navigateTo(fragment, LoginScreen.TC_SCREEN)
-                }
-            is RequiredFieldsFragment ->
-                if (fragment.tag != LoginScreen.REQUIRED_FIELDS_SCREEN.value) {
-                    navigateTo(fragment, LoginScreen.REQUIRED_FIELDS_SCREEN)
-                }
-            is InboxFragment ->
-                if (fragment.tag != LoginScreen.CHECK_INBOX_SCREEN.value) {
-                    navigateTo(fragment, LoginScreen.CHECK_INBOX_SCREEN)
-                }
-            is VerificationFragment ->
-                if (fragment.tag != LoginScreen.VERIFICATION_SCREEN.value) {
-                    navigateTo(fragment, LoginScreen.VERIFICATION_SCREEN)
-                }
+        val screen = when (fragment) {
+            is AbstractIdentificationFragment -> LoginScreen.IDENTIFICATION_SCREEN
+            is OneStepLoginFragment -> LoginScreen.ONE_STEP_LOGIN_SCREEN
+            is PasswordFragment -> LoginScreen.PASSWORD_SCREEN
+            is TermsFragment -> LoginScreen.TC_SCREEN
+            is RequiredFieldsFragment -> LoginScreen.REQUIRED_FIELDS_SCREEN
+            is InboxFragment -> LoginScreen.CHECK_INBOX_SCREEN
+            is VerificationFragment -> LoginScreen.VERIFICATION_SCREEN
+            else -> null
+        }
+        if (screen != null && fragment !== currentFragment) {
+            navigateTo(fragment, screen)
         }
     }
 
+    /**
+     * @return Whether the fragment is displayed, or kept on the back stack, for the given screen
+     */
+    fun isInUse(fragment: BaseFragment, screen: LoginScreen): Boolean =
+            fragment.isAdded || fragmentManager.findFragmentByTag(screen.value) === fragment
+
     companion object {
         private const val TAG = "Navigation"
     }
@@ -4,13 +4,18 @@
 
 package com.schibsted.account.ui.ui
 
+import androidx.annotation.LayoutRes
 import androidx.fragment.app.Fragment
+import android.view.LayoutInflater
+import android.view.View
+import android.view.ViewGroup
 import android.view.animation.Animation
 import android.view.animation.AnimationUtils
 import com.schibsted.account.model.error.ClientError
 import com.schibsted.account.ui.ErrorUtil
 import com.schibsted.account.ui.KeyboardListener
 import com.schibsted.account.ui.R
+import com.schibsted.account.ui.login.BaseLoginActivity
 import com.schibsted.account.ui.login.screen.LoginScreen
 import com.schibsted.account.ui.navigation.NavigationListener
 import com.schibsted.account.ui.ui.dialog.InformationDialogFragment
@@ -44,6 +49,13 @@ abstract class BaseFragment : Fragment(), Animation.AnimationListener {
         this.keyboardListener = null
     }
 
+    /**
+     * Inflates the layout of the fragment, or takes it from the [LayoutPreInflater] if it was inflated ahead of time
+     */
+    protected fun inflateLayout(inflater: LayoutInflater, @LayoutRes layout: Int, container: ViewGroup?): View =
+            (activity as? BaseLoginActivity)?.layoutPreInflater?.take(layout)
+                    ?: inflater.inflate(layout, container, false)
+
     override fun onCreateAnimation(transit: Int, enter: Boolean, nextAnim: Int): Animation {
         super.onCreateAnimation(transit, enter, nextAnim)
         val animRes = if (nextAnim == 0) R.anim.schacc_none else nextAnim
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.ui.ui
+
+import android.content.Context
+import android.os.Handler
+import android.os.Looper
+import android.os.Process
+import android.view.LayoutInflater
+import android.view.View
+import android.widget.FrameLayout
+import androidx.annotation.LayoutRes
+import androidx.annotation.VisibleForTesting
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleObserver
+import androidx.lifecycle.OnLifecycleEvent
+import com.schibsted.account.common.util.Logger
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+/**
+ * Inflates the layouts of the screens which are likely to be shown next on a background thread, while the current
+ * screen is shown. A fragment then takes the inflated view from here instead of inflating it on the main thread during
+ * the transition.
+ *
+ * The background thread has no Looper, so views which need one, for example to create a Handler, fail to inflate
+ * there instead of being bound to the wrong thread. Such layouts are inflated on the main thread once it is idle.
+ *
+ * Views are inflated with the activity's context, so the pool has to be released when the activity is destroyed.
+ */
+class LayoutPreInflater @VisibleForTesting internal constructor(
+    private val inflate: (layout: Int) -> View,
+    private val background: ExecutorService,
+    private val whenMainThreadIdle: (action: () -> Unit) -> Unit
+) : LifecycleObserver {
+
+    constructor(context: Context) : this(
+            // The parent is only used to generate the layout parameters of the fragment container
+            { layout -> LayoutInflater.from(context).inflate(layout, FrameLayout(context), false) },
+            Executors.newSingleThreadExecutor { runnable ->
+                Thread({
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND)
+                    runnable.run()
+                }, TAG)
+            },
+            { action -> Handler(Looper.getMainLooper()).post { Looper.myQueue().addIdleHandler { action(); false } } })
+
+    private val lock = Any()
+    private val views = mutableMapOf<Int, View>()
+    private val pending = mutableSetOf<Int>()
+    private var isReleased = false
+
+    /**
+     * Schedules the layouts for inflation once the main thread is idle. Layouts which are inflated or scheduled
+     * already are skipped.
+     */
+    fun preInflate(@LayoutRes vararg layouts: Int) {
+        val scheduled = synchronized(lock) {
+            if (isReleased) emptyList() else layouts.filter { it !in views && pending.add(it) }
+        }
+        if (scheduled.isEmpty()) return
+
+        whenMainThreadIdle {
+            synchronized(lock) {
+                if (!isReleased) scheduled.forEach { layout -> background.execute { inflateInBackground(layout) } }
+            }
+        }
+    }
+
+    /**
+     * @return The pre-inflated view of the layout, or null if it is not inflated (yet). A view is only handed out once.
+     */
+    fun take(@LayoutRes layout: Int): View? = synchronized(lock) { views.remove(layout) }
+
+    @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY)
+    fun release() {
+        synchronized(lock) {
+            isReleased = true
+            views.clear()
+            pending.clear()
+        }
+        background.shutdownNow()
+    }
+
+    private fun inflateInBackground(@LayoutRes layout: Int) {
+        val view = try {
+            inflate(layout)
+        } catch (e: RuntimeException) {
+            Logger.verbose(TAG, "Could not pre-inflate layout $layout in the background, inflating it on the main thread", e)
+            whenMainThreadIdle { inflateOnMainThread(layout) }
+            return
+        }
+        complete(layout, view)
+    }
+
+    private fun inflateOnMainThread(@LayoutRes layout: Int) {
+        if (synchronized(lock) { layout !in pending }) return
+
+        val view = try {
+            inflate(layout)
+        } catch (e: RuntimeException) {
+            Logger.warn(TAG, "Could not pre-inflate layout $layout, it will be inflated on demand", e)
+            null
+        }
+        complete(layout, view)
+    }
+
+    private fun complete(@LayoutRes layout: Int, view: View?) {
+        synchronized(lock) {
+            if (pending.remove(layout) && view != null) {
+                views[layout] = view
+            }
+        }
+    }
+
+    companion object {
+        private const val TAG = "LayoutPreInflater"
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.ui.ui
+
+import android.os.Handler
+import android.os.Looper
+import android.text.Editable
+import android.text.TextWatcher
+
+/**
+ * Invokes [onPause] on the main thread once the text has not changed for [delayMs]
+ */
+internal class TypingPauseWatcher(
+    private val delayMs: Long = DEFAULT_DELAY_MS,
+    private val handler: Handler = Handler(Looper.getMainLooper()),
+    private val onPause: () -> Unit
+) : TextWatcher {
+
+    private val pauseCallback = Runnable { onPause() }
+
+    override fun beforeTextChanged(sequence: CharSequence, start: Int, count: Int, after: Int) {
+    }
+
+    override fun onTextChanged(sequence: CharSequence, start: Int, before: Int, count: Int) {
+    }
+
+    override fun afterTextChanged(editable: Editable) {
+        handler.removeCallbacks(pauseCallback)
+        handler.postDelayed(pauseCallback, delayMs)
+    }
+
+    fun cancel() = handler.removeCallbacks(pauseCallback)
+
+    companion object {
+        const val DEFAULT_DELAY_MS = 600L
+    }
+}
@@ -13,7 +13,6 @@ import androidx.annotation.RequiresApi;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.webkit.WebChromeClient;
 import android.webkit.WebResourceRequest;
 import android.webkit.WebView;
 import android.webkit.WebViewClient;
@@ -55,42 +54,63 @@ public class WebFragment extends BaseFragment {
     @Nullable
     @Override
     public View onCreateView(LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
-        final View view = inflater.inflate(R.layout.schacc_web_fragment_layout, container, false);
-        webview = view.findViewById(R.id.webview);
-        return view;
+        return inflater.inflate(R.layout.schacc_web_fragment_layout, container, false);
     }
 
     @Override
     public void onViewCreated(View view, @Nullable Bundle savedInstanceState) {
         final URI appScheme = (URI) getArguments().getSerializable(KEY_APP_SCHEME);
-        final DeepLinkOverrideClient client = new DeepLinkOverrideClient(appScheme);
+        final DeepLinkOverrideClient client = new DeepLinkOverrideClient(appScheme, this);
 
-        webview.setWebChromeClient(new WebChromeClient());
-        webview.setWebViewClient(client);
-        webview.loadUrl(getArguments().getString(KEY_URL));
+        webview = WebViewPool.acquire(requireActivity(), getArguments().getString(KEY_URL), client);
         webview.setVerticalScrollBarEnabled(true);
+        ((ViewGroup) view.findViewById(R.id.webview_container)).addView(webview,
+                new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
     }
 
-    class DeepLinkOverrideClient extends WebViewClient {
-        private final URI appScheme;
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (webview != null) {
+            WebViewPool.release(webview);
+            webview = null;
+        }
+    }
 
-        DeepLinkOverrideClient(URI appScheme) {
+    /**
+     * Follows the deep links back to the app which the web pages navigate to
+     */
+    static class DeepLinkOverrideClient extends WebViewClient {
+        private final URI appScheme;
+        @Nullable
+        private final WebFragment fragment;
+
+        /**
+         * @param fragment The fragment showing the page, or null while the page is preloaded, in which case deep links
+         *                 are not followed
+         */
+        DeepLinkOverrideClient(URI appScheme, @Nullable WebFragment fragment) {
             this.appScheme = appScheme;
+            this.fragment = fragment;
         }
 
         @Override
         public boolean shouldOverrideUrlLoading(WebView view, String url) {
-            return url.startsWith(appScheme.getScheme() + "://") && handleUrlAction(Uri.parse(url), getActivity());
+            return url.startsWith(appScheme.getScheme() + "://") && handleUrlAction(Uri.parse(url));
         }
 
         @RequiresApi(api = Build.VERSION_CODES.LOLLIPOP)
         @Override
         public boolean shouldOverrideUrlLoading(WebView view, WebResourceRequest request) {
             final Uri uri = request.getUrl();
-            return uri.getScheme().equals(appScheme.getScheme()) && handleUrlAction(uri, getActivity());
+            return uri.getScheme().equals(appScheme.getScheme()) && handleUrlAction(uri);
         }
 
-        private boolean handleUrlAction(final Uri uri, final Activity activity) {
+        private boolean handleUrlAction(final Uri uri) {
+            if (fragment == null) {
+                return true;
+            }
+            final Activity activity = fragment.getActivity();
             if (activity != null) {
                 if (uri.getQueryParameters(DeepLinkHandler.PARAM_ACTION).contains(DeepLink.Action.IDENTIFIER_PROVIDED.getValue())) {
                     activity.onBackPressed();
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.ui.ui
+
+import android.app.Activity
+import android.content.ComponentCallbacks2
+import android.content.Context
+import android.content.MutableContextWrapper
+import android.content.res.Configuration
+import android.os.Looper
+import android.view.ViewGroup
+import android.webkit.WebChromeClient
+import android.webkit.WebView
+import android.webkit.WebViewClient
+import androidx.annotation.MainThread
+import com.schibsted.account.common.util.Logger
+import java.net.URI
+
+/**
+ * Keeps [WebView]s for the web screens of the login flow. Creating the first [WebView] of a process initializes
+ * Chromium, which takes hundreds of milliseconds, so a [WebView] is created ahead of time when the main thread is idle,
+ * and the [WebView]s of closed screens are reset and reused. Pages which are likely to be opened can be loaded ahead of
+ * time, and a [WebView] which has the requested page loaded already is preferred.
+ *
+ * The [WebView]s are created with the application context, and only use the activity's context while they are shown.
+ * They are destroyed when the last activity using the pool finishes, or when the system is low on memory.
+ */
+internal object WebViewPool {
+    private const val TAG = "WebViewPool"
+    private const val BLANK_PAGE = "about:blank"
+
+    /**
+     * The maximum number of [WebView]s to keep
+     */
+    private const val MAX_SIZE = 2
+
+    private class Entry(val webView: WebView, val preloadedUrl: String?)
+
+    private val entries = mutableListOf<Entry>()
+    private var isRegistered = false
+    private var attachedActivities = 0
+
+    /**
+     * Clears the history of a released [WebView] once the blank page is loaded, as clearing it before would keep the
+     * previous page
+     */
+    private val resetClient = object : WebViewClient() {
+        override fun onPageFinished(view: WebView, url: String?) {
+            if (url == BLANK_PAGE) view.clearHistory()
+        }
+    }
+
+    private val trimCallbacks = object : ComponentCallbacks2 {
+        override fun onTrimMemory(level: Int) {
+            if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) clear()
+        }
+
+        override fun onLowMemory() = clear()
+
+        override fun onConfigurationChanged(newConfig: Configuration) {}
+    }
+
+    /**
+     * Keeps the pool for the activity, and creates a [WebView] once the main thread is idle, unless one is kept
+     * already. Call [detach] when the activity is destroyed.
+     */
+    @JvmStatic
+    @MainThread
+    fun attach(activity: Activity) {
+        attachedActivities++
+        val appContext = activity.applicationContext
+        Looper.myQueue().addIdleHandler {
+            if (attachedActivities > 0 && entries.isEmpty()) {
+                create(appContext)?.let { entries.add(Entry(it, null)) }
+            }
+            false
+        }
+    }
+
+    /**
+     * Destroys the kept [WebView]s once the last activity using the pool finishes. They are kept when an activity
+     * is recreated.
+     */
+    @JvmStatic
+    @MainThread
+    fun detach(activity: Activity) {
+        attachedActivities = maxOf(0, attachedActivities - 1)
+        if (attachedActivities == 0 && activity.isFinishing) {
+            clear()
+        }
+    }
+
+    /**
+     * Loads the pages in kept [WebView]s once the main thread is idle, as long as there is room in the pool
+     *
+     * @param appScheme The scheme of the deep links back to the app, which are not followed while preloading
+     */
+    @JvmStatic
+    @MainThread
+    fun preload(context: Context, urls: List<String>, appScheme: URI) {
+        val appContext = context.applicationContext
+        Looper.myQueue().addIdleHandler {
+            if (attachedActivities == 0) return@addIdleHandler false
+            urls.filter { url -> url.isNotEmpty() && entries.none { it.preloadedUrl == url } }.forEach { url ->
+                val index = entries.indexOfFirst { it.preloadedUrl == null }
+                val webView = when {
+                    index >= 0 -> entries.removeAt(index).webView
+                    entries.size < MAX_SIZE -> create(appContext)
+                    else -> null
+                }
+                webView?.let {
+                    it.webViewClient = WebFragment.DeepLinkOverrideClient(appScheme, null)
+                    it.loadUrl(url)
+                    entries.add(Entry(it, url))
+                }
+            }
+            false
+        }
+    }
+
+    /**
+     * Provides a [WebView] showing the page, preferably one which has it loaded already
+     *
+     * @param context The context of the activity showing the [WebView]
+     * @param client The client to handle the navigation of the [WebView]
+     */
+    @JvmStatic
+    @MainThread
+    fun acquire(context: Context, url: String, client: WebViewClient): WebView {
+        val entry = entries.firstOrNull { it.preloadedUrl == url }
+                ?: entries.firstOrNull { it.preloadedUrl == null }
+        val webView = if (entry != null) {
+            entries.remove(entry)
+            (entry.webView.context as MutableContextWrapper).baseContext = context
+            entry.webView
+        } else {
+            Logger.verbose(TAG, "No WebView is kept, creating one")
+            WebView(MutableContextWrapper(context))
+        }
+
+        webView.webChromeClient = WebChromeClient()
+        webView.webViewClient = client
+        if (entry?.preloadedUrl != url) {
+            webView.loadUrl(url)
+        }
+        return webView
+    }
+
+    /**
+     * Resets the [WebView] and keeps it for reuse, or destroys it if the pool is full
+     */
+    @JvmStatic
+    @MainThread
+    fun release(webView: WebView) {
+        (webView.parent as? ViewGroup)?.removeView(webView)
+        webView.stopLoading()
+        webView.webChromeClient = null
+        webView.webViewClient = resetClient
+
+        val context = webView.context as? MutableContextWrapper
+        if (context == null || entries.size >= MAX_SIZE) {
+            webView.destroy()
+            return
+        }
+
+        context.baseContext = context.applicationContext
+        webView.loadUrl(BLANK_PAGE)
+        webView.scrollTo(0, 0)
+        entries.add(Entry(webView, null))
+        register(context.applicationContext)
+    }
+
+    @JvmStatic
+    @MainThread
+    fun clear() {
+        entries.forEach { it.webView.destroy() }
+        entries.clear()
+    }
+
+    private fun create(appContext: Context): WebView? {
+        register(appContext)
+        return try {
+            WebView(MutableContextWrapper(appContext)).apply { webViewClient = resetClient }
+        } catch (e: RuntimeException) {
+            // The WebView package can be missing, or being updated
+            Logger.warn(TAG, "Could not create a WebView ahead of time", e)
+            null
+        }
+    }
+
+    private fun register(appContext: Context) {
+        if (!isRegistered) {
+            appContext.registerComponentCallbacks(trimCallbacks)
+            isRegistered = true
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2021 Schibsted Products & Technology AS. Licensed under the terms of the MIT license. See LICENSE in the project root.
+ */
+
+package com.schibsted.account.ui.ui.component
+
+import android.content.Context
+import android.graphics.Canvas
+import android.graphics.Paint
+import android.graphics.Rect
+import android.os.Build
+import android.text.Editable
+import android.text.InputFilter
+import android.text.InputType
+import android.text.Selection
+import android.text.Spanned
+import android.text.TextPaint
+import android.text.TextWatcher
+import android.view.KeyEvent
+import android.view.View
+import android.view.accessibility.AccessibilityNodeInfo
+import android.view.autofill.AutofillValue
+import android.view.inputmethod.BaseInputConnection
+import android.view.inputmethod.EditorInfo
+import android.view.inputmethod.InputConnection
+import android.view.inputmethod.InputMethodManager
+import android.widget.EditText
+import android.widget.TextView
+import androidx.core.content.ContextCompat
+import com.schibsted.account.ui.R
+
+/**
+ * A single view drawing one cell per digit of a code, underlined like an [EditText]. It edits its text through one
+ * [InputConnection], so typing, deleting, pasting and SMS autofill do not involve any other view, and a keystroke only
+ * invalidates the drawing without measuring the layout again.
+ */
+internal class CodeCellsView(context: Context, private val length: Int) : View(context) {
+
+    /**
+     * The entered digits. [TextWatcher]s attached to it are notified of every change
+     */
+    val text: Editable = Editable.Factory.getInstance().newEditable("").apply {
+        filters = arrayOf(DigitsFilter, InputFilter.LengthFilter(length))
+    }
+
+    var isError = false
+        set(value) {
+            field = value
+            invalidate()
+        }
+
+    private var imeOptions = EditorInfo.IME_ACTION_DONE
+    private var editorActionListener: TextView.OnEditorActionListener? = null
+
+    private val digitPaint = TextPaint(Paint.ANTI_ALIAS_FLAG).apply {
+        color = ContextCompat.getColor(context, R.color.schacc_black)
+        textSize = resources.getDimension(R.dimen.schacc_default_text_size)
+        textAlign = Paint.Align.CENTER
+    }
+    private val underlinePaint = Paint(Paint.ANTI_ALIAS_FLAG)
+    private val underlineHeight = resources.getDimension(R.dimen.schacc_code_underline_height)
+    private val cellSpacing = resources.getDimension(R.dimen.schacc_small_spacing)
+    private val defaultHeight = resources.getDimensionPixelSize(R.dimen.schacc_default_widget_dimension)
+    private val enabledColor = ContextCompat.getColor(context, R.color.schacc_primaryEnabled)
+    private val emptyColor = ContextCompat.getColor(context, R.color.schacc_darkGrey)
+    private val errorColor = ContextCompat.getColor(context, R.color.schacc_error)
+
+    init {
+        isFocusable = true
+        isFocusableInTouchMode = true
+        isClickable = true
+        Selection.setSelection(text, 0)
+        addTextChangedListener(object : TextWatcher {
+            override fun beforeTextChanged(sequence: CharSequence, start: Int, count: Int, after: Int) {}
+
+            override fun onTextChanged(sequence: CharSequence, start: Int, before: Int, count: Int) {}
+
+            override fun afterTextChanged(editable: Editable) {
+                // Digits are only ever added or removed at the end
+                Selection.setSelection(editable, editable.length)
+                invalidate()
+            }
+        })
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            setAutofillHints(AUTOFILL_HINT_SMS_OTP)
+            importantForAutofill = IMPORTANT_FOR_AUTOFILL_YES
+        }
+    }
+
+    fun addTextChangedListener(watcher: TextWatcher) {
+        text.setSpan(watcher, 0, text.length, Spanned.SPAN_INCLUSIVE_INCLUSIVE)
+    }
+
+    fun setImeAction(imeOptions: Int, listener: TextView.OnEditorActionListener) {
+        this.imeOptions = imeOptions
+        editorActionListener = listener
+    }
+
+    /**
+     * Replaces the entered digits, as long as the code has the expected length
+     *
+     * @return `true` if the code was set, `false` otherwise
+     */
+    fun setCode(code: CharSequence): Boolean {
+        if (code.length != length || !code.all(Char::isDigit)) return false
+        text.replace(0, text.length, code)
+        return true
+    }
+
+    fun clear() = text.clear()
+
+    fun showKeyboard() {
+        requestFocus()
+        (context.getSystemService(Context.INPUT_METHOD_SERVICE) as InputMethodManager).showSoftInput(this, 0)
+    }
+
+    override fun onCheckIsTextEditor(): Boolean = true
+
+    override fun onCreateInputConnection(outAttrs: EditorInfo): InputConnection {
+        outAttrs.inputType = InputType.TYPE_CLASS_NUMBER
+        outAttrs.imeOptions = imeOptions or EditorInfo.IME_FLAG_NO_EXTRACT_UI
+        outAttrs.initialSelStart = text.length
+        outAttrs.initialSelEnd = text.length
+        return CodeInputConnection()
+    }
+
+    override fun onKeyDown(keyCode: Int, event: KeyEvent): Boolean {
+        when {
+            keyCode == KeyEvent.KEYCODE_DEL -> if (text.isNotEmpty()) text.delete(text.length - 1, text.length)
+            keyCode in KeyEvent.KEYCODE_0..KeyEvent.KEYCODE_9 -> text.append('0' + (keyCode - KeyEvent.KEYCODE_0))
+            keyCode == KeyEvent.KEYCODE_ENTER -> onEditorAction(imeOptions and EditorInfo.IME_MASK_ACTION)
+            else -> return super.onKeyDown(keyCode, event)
+        }
+        return true
+    }
+
+    override fun performClick(): Boolean {
+        super.performClick()
+        showKeyboard()
+        return true
+    }
+
+    override fun onFocusChanged(gainFocus: Boolean, direction: Int, previouslyFocusedRect: Rect?) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect)
+        invalidate()
+    }
+
+    override fun onMeasure(widthMeasureSpec: Int, heightMeasureSpec: Int) {
+        val minWidth = suggestedMinimumWidth.coerceAtLeast(defaultHeight * length)
+        setMeasuredDimension(
+                resolveSize(minWidth + paddingLeft + paddingRight, widthMeasureSpec),
+                resolveSize(defaultHeight + paddingTop + paddingBottom, heightMeasureSpec))
+    }
+
+    override fun onDraw(canvas: Canvas) {
+        val contentWidth = width - paddingLeft - paddingRight
+        val cellWidth = (contentWidth - cellSpacing * (length - 1)) / length
+        val bottom = height - paddingBottom - underlineHeight
+        val baseline = paddingTop + (bottom - paddingTop) / 2 - (digitPaint.descent() + digitPaint.ascent()) / 2
+
+        for (i in 0 until length) {
+            val left = paddingLeft + i * (cellWidth + cellSpacing)
+            underlinePaint.color = when {
+                isError -> errorColor
+                i < text.length || (hasFocus() && i == text.length) -> enabledColor
+                else -> emptyColor
+            }
+            canvas.drawRect(left, bottom, left + cellWidth, bottom + underlineHeight, underlinePaint)
+            if (i < text.length) {
+                canvas.drawText(text, i, i + 1, left + cellWidth / 2, baseline, digitPaint)
+            }
+        }
+    }
+
+    override fun onInitializeAccessibilityNodeInfo(info: AccessibilityNodeInfo) {
+        super.onInitializeAccessibilityNodeInfo(info)
+        info.className = EditText::class.java.name
+        info.text = text
+        info.isEditable = true
+        info.maxTextLength = length
+    }
+
+    override fun getAutofillType(): Int = AUTOFILL_TYPE_TEXT
+
+    override fun getAutofillValue(): AutofillValue? =
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) AutofillValue.forText(text) else null
+
+    override fun autofill(value: AutofillValue) {
+        if (value.isText) setCode(value.textValue)
+    }
+
+    private fun onEditorAction(actionCode: Int) {
+        // The listener is meant for text views and does not use the view argument
+        editorActionListener?.onEditorAction(null, actionCode, null)
+    }
+
+    private inner class CodeInputConnection : BaseInputConnection(this, true) {
+
+        override fun getEditable(): Editable = text
+
+        override fun commitText(committed: CharSequence, newCursorPosition: Int): Boolean {
+            // A complete code is pasted or suggested by the keyboard, for example from an SMS
+            return setCode(committed) || super.commitText(committed, newCursorPosition)
+        }
+
+        override fun performEditorAction(actionCode: Int): Boolean {
+            onEditorAction(actionCode)
+            return true
+        }
+    }
+
+    private object DigitsFilter : InputFilter {
+        override fun filter(source: CharSequence, start: Int, end: Int, dest: Spanned, dstart: Int, dend: Int): CharSequence? {
+            val digits = source.subSequence(start, end).filter(Char::isDigit)
+            return if (digits.length == end - start) null else digits
+        }
+    }
+
+    companion object {
+        /**
+         * The value of androidx.autofill's HintConstants.AUTOFILL_HINT_SMS_OTP
+         */
+        private const val AUTOFILL_HINT_SMS_OTP = "smsOTPCode"
+    }
+}
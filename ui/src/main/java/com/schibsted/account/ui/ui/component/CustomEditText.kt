@@ -18,6 +18,7 @@ import android.view.inputmethod.InputConnectionWrapper
  * The default EditText doesn't dispatch the delete key event after API 16, that is not considered as a bug
  * https://developer.android.com/reference/android/view/KeyEvent.html
  */
+@Deprecated("The verification code is no longer entered in one field per digit, and this view is not used by the SDK anymore")
 class CustomEditText(context: Context?, attrs: AttributeSet?) : AppCompatEditText(context, attrs) {
 
     override fun onCreateInputConnection(outAttrs: EditorInfo): InputConnection {
@@ -0,0 +1,88 @@
+package com.schibsted.account.ui.login
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.doReturn
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import com.schibsted.account.ui.AccountUi
+import com.schibsted.account.ui.R
+import com.schibsted.account.ui.login.screen.LoginScreen
+import com.schibsted.account.ui.login.screen.inbox.InboxFragment
+import com.schibsted.account.ui.login.screen.password.PasswordFragment
+import com.schibsted.account.ui.navigation.Navigation
+import com.schibsted.account.ui.ui.LayoutPreInflater
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+
+class FragmentProviderTest : WordSpec({
+
+    fun navigation(): Navigation = mock { on { isInUse(any(), any()) } doReturn false }
+
+    fun provider(navigation: Navigation, preInflater: LayoutPreInflater? = null) = FragmentProvider(mock(), navigation, preInflater)
+
+    "findOrCreate" should {
+        "create a fragment for a screen which has none" {
+            val fragment = mock<PasswordFragment>()
+            provider(navigation()).findOrCreate(PasswordFragment::class.java, LoginScreen.PASSWORD_SCREEN, "arguments") { fragment } shouldBe fragment
+        }
+
+        "reuse the displayed fragment of the same type" {
+            val displayed = mock<PasswordFragment>()
+            val navigation = navigation()
+            whenever(navigation.currentFragment).thenReturn(displayed)
+
+            provider(navigation).findOrCreate(PasswordFragment::class.java, LoginScreen.PASSWORD_SCREEN, "other") { mock() } shouldBe displayed
+        }
+
+        "not reuse the displayed fragment of another type" {
+            val navigation = navigation()
+            whenever(navigation.currentFragment).thenReturn(mock<InboxFragment>())
+            val fragment = mock<PasswordFragment>()
+
+            provider(navigation).findOrCreate(PasswordFragment::class.java, LoginScreen.PASSWORD_SCREEN, "arguments") { fragment } shouldBe fragment
+        }
+
+        "reuse the fragment of a screen created with the same arguments" {
+            val provider = provider(navigation())
+            val first = provider.findOrCreate(PasswordFragment::class.java, LoginScreen.PASSWORD_SCREEN, "arguments") { mock() }
+
+            provider.findOrCreate(PasswordFragment::class.java, LoginScreen.PASSWORD_SCREEN, "arguments") { mock() } shouldBe first
+        }
+
+        "create a new fragment when the arguments differ" {
+            val provider = provider(navigation())
+            val first = provider.findOrCreate(PasswordFragment::class.java, LoginScreen.PASSWORD_SCREEN, "arguments") { mock() }
+            val second = mock<PasswordFragment>()
+
+            provider.findOrCreate(PasswordFragment::class.java, LoginScreen.PASSWORD_SCREEN, "other") { second } shouldBe second
+            (second !== first) shouldBe true
+        }
+
+        "create a new fragment while the previous one is on the back stack" {
+            val navigation = navigation()
+            val provider = provider(navigation)
+            val first = provider.findOrCreate(PasswordFragment::class.java, LoginScreen.PASSWORD_SCREEN, "arguments") { mock() }
+            whenever(navigation.isInUse(first, LoginScreen.PASSWORD_SCREEN)).thenReturn(true)
+            val second = mock<PasswordFragment>()
+
+            provider.findOrCreate(PasswordFragment::class.java, LoginScreen.PASSWORD_SCREEN, "arguments") { second } shouldBe second
+        }
+    }
+
+    "preInflateNextScreens" should {
+        "pre-inflate the screen following the identification in the password flow" {
+            val preInflater = mock<LayoutPreInflater>()
+            provider(navigation(), preInflater).preInflateNextScreens(LoginScreen.IDENTIFICATION_SCREEN, AccountUi.FlowType.PASSWORD)
+
+            verify(preInflater).preInflate(R.layout.schacc_password_fragment_layout)
+        }
+
+        "pre-inflate the screen following the identification in the passwordless flow" {
+            val preInflater = mock<LayoutPreInflater>()
+            provider(navigation(), preInflater).preInflateNextScreens(LoginScreen.IDENTIFICATION_SCREEN, AccountUi.FlowType.PASSWORDLESS_SMS)
+
+            verify(preInflater).preInflate(R.layout.schacc_verification_fragment_layout)
+        }
+    }
+})
@@ -13,6 +13,7 @@ import com.nhaarman.mockitokotlin2.whenever
 import com.schibsted.account.common.lib.ObservableField
 import com.schibsted.account.engine.controller.LoginController
 import com.schibsted.account.network.response.ClientInfo
+import com.schibsted.account.persistence.ClientInfoCache
 import com.schibsted.account.ui.AccountUi
 import com.schibsted.account.ui.smartlock.SmartlockTask
 import io.kotlintest.matchers.instanceOf
@@ -108,5 +109,18 @@ class LoginActivityViewModelTest : WordSpec({
             loginActivityViewModel.getClientInfo(clientInfo)
             (loginActivityViewModel.clientResult.value!!.peek() as LoginActivityViewModel.ClientResult.Success).clientInfo shouldBe clientInfo
         }
+
+        "serve cached info without fetching it from the network" {
+            val clientInfo = ClientInfo("1", "client", "alias", mapOf(), "domain", 3, mapOf(), mapOf(), mock())
+            val clientInfoCache: ClientInfoCache = mock {
+                on { read(any()) } doReturn ClientInfoCache.Cached(clientInfo, false)
+            }
+            val viewModel = LoginActivityViewModel(smartlockTask, mock(), params, clientInfoCache)
+
+            viewModel.getClientInfo(null)
+
+            (viewModel.clientResult.value!!.peek() as LoginActivityViewModel.ClientResult.Success).clientInfo shouldBe clientInfo
+            viewModel.clientResolvingState.value shouldBe null
+        }
     }
 })
@@ -0,0 +1,96 @@
+package com.schibsted.account.ui.navigation
+
+import androidx.fragment.app.FragmentManager
+import androidx.fragment.app.FragmentTransaction
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.anyOrNull
+import com.nhaarman.mockitokotlin2.doReturn
+import com.nhaarman.mockitokotlin2.eq
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import com.schibsted.account.common.util.Logger
+import com.schibsted.account.ui.R
+import com.schibsted.account.ui.login.BaseLoginActivity
+import com.schibsted.account.ui.login.screen.LoginScreen
+import com.schibsted.account.ui.login.screen.password.PasswordFragment
+import com.schibsted.account.ui.ui.BaseFragment
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+
+class NavigationTest : WordSpec({
+    Logger.loggingEnabled = false
+
+    fun fragmentManager(): FragmentManager {
+        val transaction = mock<FragmentTransaction>()
+        whenever(transaction.setCustomAnimations(any(), any(), any(), any())).thenReturn(transaction)
+        whenever(transaction.replace(any(), any(), anyOrNull())).thenReturn(transaction)
+        whenever(transaction.addToBackStack(anyOrNull())).thenReturn(transaction)
+        return mock { on { beginTransaction() } doReturn transaction }
+    }
+
+    fun navigation(fragmentManager: FragmentManager): Navigation {
+        val activity = mock<BaseLoginActivity> { on { supportFragmentManager } doReturn fragmentManager }
+        return Navigation(activity, mock())
+    }
+
+    "navigateToFragment" should {
+        "display the fragment of a screen" {
+            val fragmentManager = fragmentManager()
+            val navigation = navigation(fragmentManager)
+            val fragment = mock<PasswordFragment>()
+
+            navigation.navigateToFragment(fragment)
+
+            navigation.currentFragment shouldBe fragment
+            verify(fragmentManager.beginTransaction()).replace(R.id.fragment_container, fragment, LoginScreen.PASSWORD_SCREEN.value)
+        }
+
+        "not navigate to the fragment which is displayed already" {
+            val fragmentManager = fragmentManager()
+            val navigation = navigation(fragmentManager)
+            val fragment = mock<PasswordFragment>()
+
+            navigation.navigateToFragment(fragment)
+            navigation.navigateToFragment(fragment)
+
+            verify(fragmentManager.beginTransaction(), times(1)).commitAllowingStateLoss()
+        }
+
+        "navigate to a reused fragment of the screen which is displayed" {
+            val fragmentManager = fragmentManager()
+            val navigation = navigation(fragmentManager)
+
+            navigation.navigateToFragment(mock<PasswordFragment>())
+            navigation.navigateToFragment(mock<PasswordFragment>())
+
+            verify(fragmentManager.beginTransaction(), times(2)).commitAllowingStateLoss()
+        }
+
+        "ignore fragments which are not screens" {
+            val fragmentManager = fragmentManager()
+            val navigation = navigation(fragmentManager)
+
+            navigation.navigateToFragment(mock<BaseFragment>())
+
+            verify(fragmentManager.beginTransaction(), never()).commitAllowingStateLoss()
+            navigation.currentFragment shouldBe null
+        }
+    }
+
+    "isInUse" should {
+        "only consider displayed fragments and fragments on the back stack" {
+            val fragmentManager = fragmentManager()
+            val navigation = navigation(fragmentManager)
+            val added = mock<PasswordFragment> { on { isAdded } doReturn true }
+            val onBackStack = mock<PasswordFragment>()
+            whenever(fragmentManager.findFragmentByTag(eq(LoginScreen.PASSWORD_SCREEN.value))).thenReturn(onBackStack)
+
+            navigation.isInUse(added, LoginScreen.PASSWORD_SCREEN) shouldBe true
+            navigation.isInUse(onBackStack, LoginScreen.PASSWORD_SCREEN) shouldBe true
+            navigation.isInUse(mock<PasswordFragment>(), LoginScreen.PASSWORD_SCREEN) shouldBe false
+        }
+    }
+})
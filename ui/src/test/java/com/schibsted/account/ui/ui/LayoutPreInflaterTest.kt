@@ -0,0 +1,110 @@
+package com.schibsted.account.ui.ui
+
+import android.view.View
+import com.nhaarman.mockitokotlin2.mock
+import com.schibsted.account.common.util.Logger
+import io.kotlintest.shouldBe
+import io.kotlintest.specs.WordSpec
+import java.util.concurrent.AbstractExecutorService
+import java.util.concurrent.TimeUnit
+
+class LayoutPreInflaterTest : WordSpec() {
+
+    /**
+     * Runs tasks on the calling thread, standing in for the background thread
+     */
+    private class DirectExecutorService : AbstractExecutorService() {
+        private var isShutdown = false
+
+        override fun execute(command: Runnable) = command.run()
+        override fun shutdown() {
+            isShutdown = true
+        }
+
+        override fun shutdownNow(): List<Runnable> = emptyList<Runnable>().also { shutdown() }
+        override fun isShutdown(): Boolean = isShutdown
+        override fun isTerminated(): Boolean = isShutdown
+        override fun awaitTermination(timeout: Long, unit: TimeUnit): Boolean = isShutdown
+    }
+
+    private class Fixture(private val failsInBackground: Set<Int> = emptySet()) {
+        val inflated = mutableListOf<Int>()
+        private val idleActions = mutableListOf<() -> Unit>()
+        private var onMainThread = false
+
+        val preInflater = LayoutPreInflater({ layout ->
+            if (!onMainThread && layout in failsInBackground) throw IllegalStateException("No Looper")
+            inflated.add(layout)
+            mock<View>()
+        }, DirectExecutorService(), { idleActions.add(it) })
+
+        fun idle() {
+            onMainThread = true
+            while (idleActions.isNotEmpty()) idleActions.removeAt(0)()
+            onMainThread = false
+        }
+    }
+
+    init {
+        Logger.loggingEnabled = false
+
+        "LayoutPreInflater" should {
+            "inflate the layouts once the main thread is idle" {
+                val fixture = Fixture()
+                fixture.preInflater.preInflate(1, 2)
+                fixture.inflated shouldBe emptyList<Int>()
+
+                fixture.idle()
+
+                fixture.inflated shouldBe listOf(1, 2)
+                (fixture.preInflater.take(1) != null) shouldBe true
+                (fixture.preInflater.take(2) != null) shouldBe true
+            }
+
+            "hand out a view only once" {
+                val fixture = Fixture()
+                fixture.preInflater.preInflate(1)
+                fixture.idle()
+
+                (fixture.preInflater.take(1) != null) shouldBe true
+                fixture.preInflater.take(1) shouldBe null
+            }
+
+            "not hand out layouts which were not pre-inflated" {
+                Fixture().preInflater.take(1) shouldBe null
+            }
+
+            "skip layouts which are inflated or scheduled already" {
+                val fixture = Fixture()
+                fixture.preInflater.preInflate(1)
+                fixture.preInflater.preInflate(1)
+                fixture.idle()
+                fixture.preInflater.preInflate(1)
+                fixture.idle()
+
+                fixture.inflated shouldBe listOf(1)
+            }
+
+            "inflate layouts which fail in the background on the main thread" {
+                val fixture = Fixture(failsInBackground = setOf(1))
+                fixture.preInflater.preInflate(1)
+                fixture.idle()
+
+                fixture.inflated shouldBe listOf(1)
+                (fixture.preInflater.take(1) != null) shouldBe true
+            }
+
+            "drop the views and stop inflating once released" {
+                val fixture = Fixture()
+                fixture.preInflater.preInflate(1)
+                fixture.idle()
+                fixture.preInflater.preInflate(2)
+                fixture.preInflater.release()
+                fixture.idle()
+
+                fixture.preInflater.take(1) shouldBe null
+                fixture.inflated shouldBe listOf(1)
+            }
+        }
+    }
+}